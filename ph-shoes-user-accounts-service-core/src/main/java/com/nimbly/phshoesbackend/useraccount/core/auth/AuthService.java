@@ -1,9 +1,28 @@
 package com.nimbly.phshoesbackend.useraccount.core.auth;
 
 import com.nimbly.phshoesbackend.useraccounts.model.LoginRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.SessionListResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenResponse;
 
+import java.util.List;
+
 public interface AuthService {
     TokenResponse login(LoginRequest request, String ip, String userAgent);
-    void logout(String authorizationHeader);
+    void logout(AuthenticatedPrincipal principal);
+
+    /** Rotates a single-use refresh token: returns a new access token and a new refresh token. */
+    TokenResponse refresh(String refreshToken, String ip, String userAgent);
+
+    /** Revokes every session of the caller; returns how many session records were removed. */
+    int logoutAll(AuthenticatedPrincipal principal);
+
+    /** One page of the caller's active sessions: id, creation time, ip and user agent only. */
+    SessionListResponse listSessions(AuthenticatedPrincipal principal, Integer limit, String cursor);
+
+    /**
+     * Verifies each access token and reports its claims and whether its session is still active, in
+     * request order; session rows are read in one batch, once per distinct jti.
+     */
+    TokenContentBatchResponse introspect(List<String> tokens);
 }
@@ -0,0 +1,43 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of the caller's verified access token. The web layer decodes the token once per request,
+ * after the JWT filter has checked its signature, and hands this to controllers and services.
+ */
+public record AuthenticatedPrincipal(
+        String sub,
+        String email,
+        String jti,
+        Instant issuedAt,
+        Instant expiresAt,
+        List<String> roles
+) {
+    public AuthenticatedPrincipal {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    public static AuthenticatedPrincipal from(DecodedJWT jwt) {
+        Claim roles = jwt.getClaim("roles");
+        return new AuthenticatedPrincipal(
+                jwt.getSubject(),
+                jwt.getClaim("email").asString(),
+                jwt.getId(),
+                jwt.getIssuedAt() == null ? null : jwt.getIssuedAt().toInstant(),
+                jwt.getExpiresAt() == null ? null : jwt.getExpiresAt().toInstant(),
+                roles == null || roles.isNull() ? List.of() : roles.asList(String.class));
+    }
+
+    public Long issuedAtEpochSecond() {
+        return issuedAt == null ? null : issuedAt.getEpochSecond();
+    }
+
+    public Long expiresAtEpochSecond() {
+        return expiresAt == null ? null : expiresAt.getEpochSecond();
+    }
+}
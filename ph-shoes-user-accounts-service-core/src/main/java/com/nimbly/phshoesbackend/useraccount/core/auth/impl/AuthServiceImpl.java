@@ -2,29 +2,53 @@ package com.nimbly.phshoesbackend.useraccount.core.auth.impl;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.nimbly.phshoesbackend.useraccount.core.auth.AuthService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.token.AccessTokenService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.throttle.CredentialStuffingDetector;
 import com.nimbly.phshoesbackend.useraccount.core.exception.AccountLockedException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
+import com.nimbly.phshoesbackend.useraccount.core.exception.PasswordHashingBusyException;
 import com.nimbly.phshoesbackend.useraccount.core.config.props.LockoutProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.LoginProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.RefreshTokenProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.model.LoginFailure;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionPage;
+import com.nimbly.phshoesbackend.useraccount.core.pepper.EmailHashCandidates;
 import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
 import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRepository;
 import com.nimbly.phshoesbackend.useraccount.core.repository.VerificationRepository;
 import com.nimbly.phshoesbackend.useraccount.core.exception.EmailNotVerifiedException;
 import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
 import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
 import com.nimbly.phshoesbackend.useraccounts.model.LoginRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.SessionListResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.SessionSummary;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchResult;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenResponse;
+import com.nimbly.phshoesbackend.useraccount.core.util.FailFastScope;
 import com.nimbly.phshoesbackend.useraccount.core.util.SensitiveValueMasker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Future;
 
 @Slf4j
 @Service
@@ -33,11 +57,25 @@ public class AuthServiceImpl implements AuthService {
 
     private final AccountRepository accounts;
     private final PasswordEncoder passwordEncoder;
-    private final JwtTokenService jwtTokenService;
+    private final AccessTokenService accessTokens;
     private final LockoutProps lockProps;
     private final EmailCrypto emailCrypto;
     private final SessionRepository sessionRepository;
     private final VerificationRepository verificationRepository;
+    private final EmailHashCandidates emailHashCandidates;
+    private final LoginProps loginProps;
+    private final LastLoginWriteBehind lastLogins;
+    private final UnknownEmailCache unknownEmails;
+    private final CredentialStuffingDetector stuffingDetector;
+    private final TokenRevocationService tokenRevocations;
+    private final SessionStoreProps sessionStoreProps;
+    private final RefreshTokenProps refreshProps;
+
+    private static final int DEFAULT_SESSION_PAGE = 20;
+    private static final int MAX_SESSION_PAGE = 100;
+
+    // hashed with the live encoder so a miss costs the same as a real bcrypt check
+    private volatile String dummyPasswordHash;
 
     @Override
     /**
@@ -51,15 +89,27 @@ public class AuthServiceImpl implements AuthService {
         if (normalizedEmail == null || normalizedEmail.isBlank()) {
             throw new InvalidCredentialsException();
         }
-        final List<String> emailHashes = emailCrypto.hashCandidates(normalizedEmail);
+        final List<String> emailHashes = emailHashCandidates.forLookup(normalizedEmail);
         final String primaryHash = emailHashes.isEmpty() ? null : emailHashes.get(0);
         final String rawPassword = Objects.requireNonNullElse(request.getPassword(), "");
 
         try {
             log.info("auth.login start emailHashPrefix={} ip={}", SensitiveValueMasker.hashPrefix(primaryHash), ip);
 
+            stuffingDetector.checkAllowed(ip, primaryHash);
+
+            if (unknownEmails.isKnownMissing(primaryHash)) {
+                stuffingDetector.recordFailure(ip, primaryHash);
+                dummyPasswordCheck(rawPassword);
+                log.warn("auth.login no_account cached=true emailHashPrefix={}", SensitiveValueMasker.hashPrefix(primaryHash));
+                throw new InvalidCredentialsException();
+            }
+
             Optional<Account> opt = accounts.findByAnyEmailHash(emailHashes);
             if (opt.isEmpty()) {
+                unknownEmails.markMissing(primaryHash);
+                stuffingDetector.recordFailure(ip, primaryHash);
+                dummyPasswordCheck(rawPassword);
                 log.warn("auth.login no_account emailHashPrefix={}", SensitiveValueMasker.hashPrefix(primaryHash));
                 throw new InvalidCredentialsException();
             }
@@ -69,44 +119,49 @@ public class AuthServiceImpl implements AuthService {
             Instant lockUntil = acc.getLockUntil();
             if (lockUntil != null && Instant.now().isBefore(lockUntil)) {
                 log.warn("auth.login locked userId={} emailHashPrefix={}", acc.getUserId(), SensitiveValueMasker.hashPrefix(primaryHash));
+                stuffingDetector.recordFailure(ip, primaryHash);
                 throw new AccountLockedException();
             }
 
-            String stored = acc.getPasswordHash();
-            boolean passwordOk = (stored != null && !stored.isBlank()) && passwordEncoder.matches(rawPassword, stored);
-            if (!passwordOk) {
-                Integer failures = acc.getLoginFailCount();
-                int newCount = (failures == null ? 0 : failures) + 1;
-                acc.setLoginFailCount(newCount);
-                if (newCount >= lockProps.getMaxFailures()) {
-                    acc.setLockUntil(Instant.now().plusSeconds(lockProps.getDurationSeconds()));
-                    acc.setLoginFailCount(0);
+            final String stored = acc.getPasswordHash();
+            final boolean needsRestore = Boolean.FALSE.equals(acc.getIsVerified());
+            boolean passwordOk;
+            boolean verifiedByHash = false;
+            if (loginProps.isParallel() && needsRestore) {
+                // the verification-restore lookup does not depend on the password check
+                try (var scope = new FailFastScope()) {
+                    Future<Boolean> password = scope.fork(() -> passwordMatches(rawPassword, stored));
+                    Future<Boolean> restore = scope.fork(() -> hasVerifiedEntry(emailHashes));
+                    scope.join();
+                    passwordOk = password.resultNow();
+                    verifiedByHash = restore.resultNow();
+                }
+            } else {
+                passwordOk = passwordMatches(rawPassword, stored);
+                if (passwordOk && needsRestore) {
+                    verifiedByHash = hasVerifiedEntry(emailHashes);
                 }
-                acc.setUpdatedAt(Instant.now());
-                accounts.save(acc);
-                log.warn("auth.login failed reason=bad_password userId={} emailHashPrefix={}", acc.getUserId(), SensitiveValueMasker.hashPrefix(primaryHash));
+            }
+
+            if (!passwordOk) {
+                stuffingDetector.recordFailure(ip, primaryHash);
+                LoginFailure failure = accounts.recordLoginFailure(
+                        acc.getUserId(),
+                        lockProps.getMaxFailures(),
+                        Duration.ofSeconds(lockProps.getDurationSeconds()));
+                log.warn("auth.login failed reason=bad_password userId={} failCount={} locked={} emailHashPrefix={}",
+                        acc.getUserId(), failure.failCount(), failure.locked(), SensitiveValueMasker.hashPrefix(primaryHash));
                 throw new InvalidCredentialsException();
             }
 
             if (primaryHash != null && !primaryHash.equals(acc.getEmailHash())) {
                 acc.setEmailHash(primaryHash);
-                acc.setUpdatedAt(Instant.now());
-                accounts.save(acc);
             }
 
-            if (Boolean.FALSE.equals(acc.getIsVerified())) {
-                boolean verifiedByHash = false;
-                for (String candidate : emailHashes) {
-                    if (verificationRepository.hasVerifiedEntryForEmailHash(candidate)) {
-                        verifiedByHash = true;
-                        break;
-                    }
-                }
-                if (verifiedByHash) {
-                    accounts.setVerified(acc.getUserId(), true);
-                    acc.setIsVerified(true);
-                    log.info("auth.login restored_verification userId={} emailHashPrefix={}", acc.getUserId(), SensitiveValueMasker.hashPrefix(primaryHash));
-                }
+            if (verifiedByHash) {
+                accounts.setVerified(acc.getUserId(), true);
+                acc.setIsVerified(true);
+                log.info("auth.login restored_verification userId={} emailHashPrefix={}", acc.getUserId(), SensitiveValueMasker.hashPrefix(primaryHash));
             }
 
             if (Boolean.FALSE.equals(acc.getIsVerified())) {
@@ -114,27 +169,72 @@ public class AuthServiceImpl implements AuthService {
                 throw new EmailNotVerifiedException();
             }
 
-            acc.setLoginFailCount(0);
+            if (passwordEncoder.upgradeEncoding(stored)) {
+                try {
+                    acc.setPasswordHash(passwordEncoder.encode(rawPassword));
+                    log.info("auth.login rehashed_password userId={}", acc.getUserId());
+                } catch (PasswordHashingBusyException e) {
+                    log.debug("auth.login rehash_skipped_busy userId={}", acc.getUserId());
+                }
+            }
+
+            final Instant now = Instant.now();
+            if (acc.getLoginFailCount() != null && acc.getLoginFailCount() != 0) {
+                acc.setLoginFailCount(0);
+            }
             acc.setLockUntil(null);
-            acc.setLastLoginAt(Instant.now());
-            acc.setLastLoginIp(ip);
-            acc.setLastLoginUserAgent(userAgent);
-            acc.setUpdatedAt(Instant.now());
-            accounts.save(acc);
-
-            final String token = jwtTokenService.issueAccessToken(acc.getUserId(), normalizedEmail);
-            DecodedJWT decoded = jwtTokenService.parseAccess(token);
+            if (!lastLogins.isEnabled()) {
+                acc.setLastLoginAt(now);
+                acc.setLastLoginIp(ip);
+                acc.setLastLoginUserAgent(userAgent);
+            }
+            // lockout and credential fields stay synchronous; telemetry alone does not force a write
+            final boolean accountDirty = !acc.changedAttributes().isEmpty();
+            if (accountDirty) {
+                acc.setUpdatedAt(now);
+            }
+
+            final String token = accessTokens.issueAccessToken(acc.getUserId(), normalizedEmail);
+            DecodedJWT decoded = accessTokens.parseAccess(token);
             String jti = decoded.getId();
             if (jti == null || jti.isBlank() || decoded.getExpiresAt() == null) {
                 log.error("auth.login token_missing_jti_or_exp userId={}", acc.getUserId());
                 throw new IllegalStateException("Token missing jti/exp");
             }
-            long exp = decoded.getExpiresAt().toInstant().getEpochSecond();
-            sessionRepository.createSession(jti, acc.getUserId(), exp, ip, userAgent);
+            // with a refresh token the session row lives for the refresh TTL, not the access token's
+            final String refreshSecret = refreshProps.isEnabled() ? RefreshTokens.newSecret() : null;
+            final String refreshHash = refreshSecret == null ? null : RefreshTokens.hash(refreshSecret);
+            final long exp = refreshSecret == null
+                    ? decoded.getExpiresAt().toInstant().getEpochSecond()
+                    : now.getEpochSecond() + refreshProps.getTtlSeconds();
+            if (loginProps.isParallel() && accountDirty) {
+                try (var scope = new FailFastScope()) {
+                    scope.fork(() -> {
+                        accounts.saveChanges(acc);
+                        return null;
+                    });
+                    scope.fork(() -> {
+                        openSession(jti, acc.getUserId(), exp, ip, userAgent, refreshHash);
+                        return null;
+                    });
+                    scope.join();
+                }
+            } else {
+                if (accountDirty) {
+                    accounts.saveChanges(acc);
+                }
+                openSession(jti, acc.getUserId(), exp, ip, userAgent, refreshHash);
+            }
+            if (lastLogins.isEnabled()) {
+                lastLogins.record(acc.getUserId(), now, ip, userAgent);
+            }
 
             TokenResponse res = new TokenResponse();
             res.setAccessToken(token);
-            res.setExpiresIn((long) jwtTokenService.getAccessTtlSeconds());
+            res.setExpiresIn(accessTokens.getAccessTtlSeconds());
+            if (refreshSecret != null) {
+                res.setRefreshToken(RefreshTokens.format(acc.getUserId(), jti, refreshSecret));
+            }
 
             log.info("auth.login success userId={} inMs={}", acc.getUserId(), System.currentTimeMillis() - t0);
             return res;
@@ -146,34 +246,242 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    private void openSession(String jti, String userId, long exp, String ip, String userAgent, String refreshHash) {
+        int cap = sessionStoreProps.getMaxPerUser();
+        if (cap <= 0) {
+            sessionRepository.createSession(jti, userId, exp, ip, userAgent, refreshHash);
+            return;
+        }
+        List<SessionItem> evicted = sessionRepository.createSessionWithinCap(jti, userId, exp, ip, userAgent, refreshHash, cap);
+        if (evicted.isEmpty()) {
+            return;
+        }
+        // an evicted session's token is still signature-valid until exp
+        for (SessionItem session : evicted) {
+            if (session.getExpiresAt() != null) {
+                tokenRevocations.revoke(session.getSessionId(), accessExpiryBound(session.getExpiresAt()));
+            }
+        }
+        log.info("auth.login evicted_sessions userId={} count={}", userId, evicted.size());
+    }
+
+    // a refreshable session row outlives its access token, which expires within one access TTL from now
+    private long accessExpiryBound(long sessionExpiresAt) {
+        if (!refreshProps.isEnabled()) {
+            return sessionExpiresAt;
+        }
+        return Math.min(sessionExpiresAt, Instant.now().getEpochSecond() + accessTokens.getAccessTtlSeconds());
+    }
+
+    private void dummyPasswordCheck(String rawPassword) {
+        String dummy = dummyPasswordHash;
+        if (dummy == null) {
+            dummy = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyPasswordHash = dummy;
+        }
+        passwordMatches(rawPassword, dummy);
+    }
+
+    private boolean passwordMatches(String rawPassword, String stored) {
+        return stored != null && !stored.isBlank() && passwordEncoder.matches(rawPassword, stored);
+    }
+
+    private boolean hasVerifiedEntry(List<String> emailHashes) {
+        for (String candidate : emailHashes) {
+            if (verificationRepository.hasVerifiedEntryForEmailHash(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
-    public void logout(String authorizationHeader) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            log.warn("auth.logout missing_or_bad_authorization_header");
+    public void logout(AuthenticatedPrincipal principal) {
+        String jti = principal.jti();
+        if (jti == null || jti.isBlank() || principal.sub() == null || principal.sub().isBlank()) {
+            log.warn("auth.logout missing_jti_or_sub");
             throw new InvalidCredentialsException();
         }
-        String token = authorizationHeader.substring(7).trim();
-        DecodedJWT jwt;
-        try {
-            jwt = jwtTokenService.parseAccess(token);
-        } catch (JwtVerificationException ex) {
+
+        Optional<SessionItem> revoked = sessionRepository.revokeIfActive(principal.sub(), jti, Instant.now().getEpochSecond());
+        if (revoked.isEmpty()) {
+            throw new InvalidCredentialsException();
+        }
+        Long exp = principal.expiresAt() != null
+                ? principal.expiresAtEpochSecond()
+                : revoked.get().getExpiresAt();
+        if (exp != null) {
+            tokenRevocations.revoke(jti, exp);
+        }
+
+        log.info("auth.logout revoked jti={} sub={}", jti, principal.sub());
+    }
+
+    @Override
+    public TokenResponse refresh(String refreshToken, String ip, String userAgent) {
+        if (!refreshProps.isEnabled()) {
+            throw new InvalidCredentialsException();
+        }
+        RefreshTokens.Parsed presented = RefreshTokens.parse(refreshToken).orElseThrow(() -> {
+            log.warn("auth.refresh malformed_token");
+            return new InvalidCredentialsException();
+        });
+        final String userId = presented.userId();
+        final long now = Instant.now().getEpochSecond();
+
+        SessionItem session = sessionRepository.findSession(userId, presented.sessionId())
+                .filter(s -> userId.equals(s.getUserId()))
+                .filter(s -> s.getExpiresAt() != null && s.getExpiresAt() > now)
+                .orElseThrow(() -> {
+                    log.warn("auth.refresh session_not_active sessionId={} sub={}", presented.sessionId(), userId);
+                    return new InvalidCredentialsException();
+                });
+        if (!RefreshTokens.matches(presented.secret(), session.getRefreshTokenHash())) {
+            log.warn("auth.refresh secret_mismatch sessionId={} sub={}", presented.sessionId(), userId);
+            throw new InvalidCredentialsException();
+        }
+
+        Account acc = accounts.findByUserId(userId).orElseThrow(() -> {
+            log.warn("auth.refresh no_account sub={}", userId);
+            return new InvalidCredentialsException();
+        });
+        Instant validAfter = acc.getTokensValidAfter();
+        if (validAfter != null && (session.getCreatedAt() == null || session.getCreatedAt().isBefore(validAfter))) {
+            log.warn("auth.refresh session_before_epoch sessionId={} sub={}", presented.sessionId(), userId);
             throw new InvalidCredentialsException();
         }
+        String email = emailCrypto.normalize(emailCrypto.decrypt(acc.getEmailEnc()));
 
-        String jti = jwt.getId();
+        String token = accessTokens.issueAccessToken(userId, email);
+        DecodedJWT decoded = accessTokens.parseAccess(token);
+        String jti = decoded.getId();
         if (jti == null || jti.isBlank()) {
-            log.warn("auth.logout missing_jti");
+            log.error("auth.refresh token_missing_jti sub={}", userId);
+            throw new IllegalStateException("Token missing jti");
+        }
+
+        // the session moves to the new jti so logout, revocation and listing keep keying on it;
+        // expiry and createdAt carry over, so rotating never extends the session
+        String secret = RefreshTokens.newSecret();
+        SessionItem next = new SessionItem();
+        next.setSessionId(jti);
+        next.setUserId(userId);
+        next.setCreatedAt(session.getCreatedAt());
+        next.setExpiresAt(session.getExpiresAt());
+        next.setIp(ip != null ? ip : session.getIp());
+        next.setUserAgent(userAgent != null ? userAgent : session.getUserAgent());
+        next.setLastSeenAt(Instant.now());
+        next.setRefreshTokenHash(RefreshTokens.hash(secret));
+        if (!sessionRepository.rotateSession(userId, presented.sessionId(), session.getRefreshTokenHash(), next, now)) {
+            log.warn("auth.refresh already_rotated sessionId={} sub={}", presented.sessionId(), userId);
             throw new InvalidCredentialsException();
         }
 
-        if (!sessionRepository.isSessionActive(jti)) {
+        TokenResponse res = new TokenResponse();
+        res.setAccessToken(token);
+        res.setTokenType("Bearer");
+        res.setExpiresIn(accessTokens.getAccessTtlSeconds());
+        res.setRefreshToken(RefreshTokens.format(userId, jti, secret));
+        log.info("auth.refresh rotated sub={} fromSessionId={} toSessionId={}", userId, presented.sessionId(), jti);
+        return res;
+    }
+
+    @Override
+    public int logoutAll(AuthenticatedPrincipal principal) {
+        tokenRevocations.ensureNotRevoked(principal);
+
+        String userId = principal.sub();
+        if (userId == null || userId.isBlank()) {
+            log.warn("auth.logoutAll missing_sub");
             throw new InvalidCredentialsException();
         }
-        sessionRepository.revokeSession(jti);
 
-        log.info("auth.logout revoked jti={} sub={}", jti, jwt.getSubject());
+        // the epoch invalidates every outstanding token at once; the batch delete only reclaims rows
+        tokenRevocations.revokeAllForUser(userId);
+        int removed = sessionRepository.revokeAllForUser(userId);
+        log.info("auth.logoutAll revoked sessions={} sub={}", removed, userId);
+        return removed;
     }
 
+    @Override
+    public SessionListResponse listSessions(AuthenticatedPrincipal principal, Integer limit, String cursor) {
+        tokenRevocations.ensureNotRevoked(principal);
+
+        String userId = principal.sub();
+        if (userId == null || userId.isBlank()) {
+            throw new InvalidCredentialsException();
+        }
+        int pageSize = limit == null ? DEFAULT_SESSION_PAGE : Math.min(Math.max(limit, 1), MAX_SESSION_PAGE);
+        SessionPage page = sessionRepository.listActiveSessionsByUser(userId, pageSize, cursor);
+
+        SessionListResponse res = new SessionListResponse();
+        for (SessionItem item : page.sessions()) {
+            SessionSummary summary = new SessionSummary();
+            summary.setSessionId(item.getSessionId());
+            summary.setCreatedAt(item.getCreatedAt() == null ? null : item.getCreatedAt().atOffset(ZoneOffset.UTC));
+            summary.setIp(item.getIp());
+            summary.setUserAgent(item.getUserAgent());
+            summary.setLastSeenAt(item.getLastSeenAt() == null ? null : item.getLastSeenAt().atOffset(ZoneOffset.UTC));
+            summary.setCurrent(item.getSessionId() != null && item.getSessionId().equals(principal.jti()));
+            res.addSessionsItem(summary);
+        }
+        res.setNextCursor(page.nextCursor());
+        return res;
+    }
+
+    @Override
+    public TokenContentBatchResponse introspect(List<String> tokens) {
+        Map<String, AuthenticatedPrincipal> verified = new HashMap<>();
+        Map<String, String> userIdBySessionId = new HashMap<>();
+        for (String token : tokens) {
+            // computeIfAbsent would not store a null, so invalid tokens would be verified again on every repeat
+            if (!verified.containsKey(token)) {
+                verified.put(token, verifiedPrincipal(token));
+            }
+            AuthenticatedPrincipal principal = verified.get(token);
+            if (principal != null && principal.jti() != null && principal.sub() != null) {
+                userIdBySessionId.putIfAbsent(principal.jti(), principal.sub());
+            }
+        }
+        Set<String> activeSessions = userIdBySessionId.isEmpty()
+                ? Set.of()
+                : sessionRepository.findActiveSessionIds(userIdBySessionId, Instant.now().getEpochSecond());
+
+        TokenContentBatchResponse res = new TokenContentBatchResponse();
+        res.setResults(new ArrayList<>(tokens.size()));
+        for (String token : tokens) {
+            AuthenticatedPrincipal principal = verified.get(token);
+            TokenContentBatchResult result = new TokenContentBatchResult();
+            result.setValid(principal != null);
+            result.setSessionActive(principal != null && activeSessions.contains(principal.jti()));
+            if (principal != null) {
+                result.setSub(principal.sub());
+                result.setEmail(principal.email());
+                result.setRoles(new ArrayList<>(principal.roles()));
+                result.setIat(principal.issuedAtEpochSecond());
+                result.setExp(principal.expiresAtEpochSecond());
+            }
+            res.addResultsItem(result);
+        }
+        log.debug("auth.introspect tokens={} valid={} sessionLookups={} activeSessions={}",
+                tokens.size(), verified.values().stream().filter(Objects::nonNull).count(),
+                userIdBySessionId.size(), activeSessions.size());
+        return res;
+    }
+
+    // null for a token that fails signature, expiry or revocation checks
+    private AuthenticatedPrincipal verifiedPrincipal(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            AuthenticatedPrincipal principal = AuthenticatedPrincipal.from(accessTokens.parseAccess(token.trim()));
+            tokenRevocations.ensureNotRevoked(principal);
+            return principal;
+        } catch (JwtVerificationException | InvalidCredentialsException e) {
+            return null;
+        }
+    }
 }
 
 
@@ -0,0 +1,116 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.impl;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.LastLoginProps;
+import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import com.nimbly.phshoesbackend.useraccount.core.util.WritePacer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for last-login telemetry. Logins only record the latest value per user in
+ * memory; a scheduled flush writes them with partial updates, at most once per user per
+ * {@code minIntervalPerUserSeconds}. Flushes write at most {@code maxBatch} users, longest-pending
+ * first and one at a time through a {@link WritePacer}, so the accounts table's provisioned writes
+ * stay free for lockout and login updates; whatever does not fit stays pending for the next flush.
+ * Pending values are drained on shutdown for up to {@code drainTimeoutMs}.
+ */
+@Slf4j
+@Component
+public class LastLoginWriteBehind {
+
+    // seq orders users by when they first became pending, so a later login does not requeue them
+    record LastLogin(Instant at, String ip, String userAgent, long seq) {
+    }
+
+    private final AccountRepository accounts;
+    private final LastLoginProps props;
+
+    private final Map<String, LastLogin> pending = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastWritten = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final WritePacer pacer;
+
+    public LastLoginWriteBehind(AccountRepository accounts, LastLoginProps props) {
+        this.accounts = accounts;
+        this.props = props;
+        this.pacer = new WritePacer(props.getMaxWritesPerSecond());
+    }
+
+    public boolean isEnabled() {
+        return props.isWriteBehind();
+    }
+
+    public void record(String userId, Instant at, String ip, String userAgent) {
+        pending.merge(userId, new LastLogin(at, ip, userAgent, sequence.incrementAndGet()),
+                (prev, next) -> new LastLogin(next.at(), next.ip(), next.userAgent(), prev.seq()));
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        flush(false);
+    }
+
+    @PreDestroy
+    public void drain() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(props.getDrainTimeoutMs());
+        while (!pending.isEmpty()) {
+            if (System.nanoTime() >= deadline || flush(true) == 0) {
+                log.warn("auth.lastLogin drain_incomplete pending={}", pending.size());
+                return;
+            }
+        }
+    }
+
+    private int flush(boolean ignoreThrottle) {
+        Instant now = Instant.now();
+        Instant throttleCutoff = now.minusSeconds(props.getMinIntervalPerUserSeconds());
+        lastWritten.values().removeIf(written -> written.isBefore(throttleCutoff));
+
+        List<Map.Entry<String, LastLogin>> batch = new ArrayList<>();
+        for (Map.Entry<String, LastLogin> entry : pending.entrySet()) {
+            if (!ignoreThrottle && lastWritten.containsKey(entry.getKey())) continue;
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batch.sort(Comparator.comparingLong(entry -> entry.getValue().seq()));
+        if (batch.size() > props.getMaxBatch()) {
+            batch = batch.subList(0, Math.max(1, props.getMaxBatch()));
+        }
+
+        // UpdateItem per user: BatchWriteItem only supports whole-item puts
+        int failed = 0;
+        for (Map.Entry<String, LastLogin> entry : batch) {
+            String userId = entry.getKey();
+            LastLogin value = entry.getValue();
+            pending.remove(userId, value);
+            pacer.awaitSlot();
+            try {
+                accounts.updateLastLogin(userId, value.at(), value.ip(), value.userAgent());
+                lastWritten.put(userId, now);
+            } catch (RuntimeException e) {
+                pending.putIfAbsent(userId, value);
+                failed++;
+                log.warn("auth.lastLogin flush_failed userId={} msg={}", userId, e.toString());
+            }
+        }
+        log.debug("auth.lastLogin flushed count={} failed={} pending={}", batch.size(), failed, pending.size());
+        return batch.size() - failed;
+    }
+}
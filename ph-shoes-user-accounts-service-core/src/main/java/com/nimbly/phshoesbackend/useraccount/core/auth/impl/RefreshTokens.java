@@ -0,0 +1,58 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Refresh tokens are {@code userId.sessionId.secret}. The ids locate the session row without an index;
+ * only the SHA-256 of the secret is stored, so a leaked table does not leak usable tokens.
+ */
+final class RefreshTokens {
+    private RefreshTokens() {}
+
+    record Parsed(String userId, String sessionId, String secret) {
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int SECRET_BYTES = 32;
+
+    static String newSecret() {
+        byte[] bytes = new byte[SECRET_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String format(String userId, String sessionId, String secret) {
+        return userId + "." + sessionId + "." + secret;
+    }
+
+    static Optional<Parsed> parse(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String[] parts = token.trim().split("\\.", -1);
+        if (parts.length != 3 || parts[0].isBlank() || parts[1].isBlank() || parts[2].isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Parsed(parts[0], parts[1], parts[2]));
+    }
+
+    static String hash(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    static boolean matches(String secret, String storedHash) {
+        return storedHash != null && MessageDigest.isEqual(
+                hash(secret).getBytes(StandardCharsets.US_ASCII),
+                storedHash.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,43 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.LoginProps;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Node-local, size- and TTL-bounded set of primary email hashes known to have no account.
+ * Registration invalidates the hash it creates; other nodes converge when the entry expires.
+ */
+@Component
+public class UnknownEmailCache {
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> unknown;
+
+    public UnknownEmailCache(LoginProps props) {
+        this.enabled = props.isNegativeCacheEnabled();
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(props.getNegativeCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(props.getNegativeCacheTtlSeconds()))
+                .build();
+    }
+
+    public boolean isKnownMissing(String primaryHash) {
+        return enabled && primaryHash != null && unknown.getIfPresent(primaryHash) != null;
+    }
+
+    public void markMissing(String primaryHash) {
+        if (enabled && primaryHash != null) {
+            unknown.put(primaryHash, Boolean.TRUE);
+        }
+    }
+
+    public void invalidate(String primaryHash) {
+        if (primaryHash != null) {
+            unknown.invalidate(primaryHash);
+        }
+    }
+}
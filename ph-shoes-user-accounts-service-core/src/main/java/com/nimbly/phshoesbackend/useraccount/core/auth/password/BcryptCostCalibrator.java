@@ -0,0 +1,52 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.password;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Picks the strongest BCrypt cost whose measured hashing time on this host fits a latency budget.
+ */
+@Slf4j
+public final class BcryptCostCalibrator {
+
+    private static final String SAMPLE = "calibration-Sample-Passw0rd!";
+    private static final int SAMPLES = 3;
+
+    private BcryptCostCalibrator() {
+    }
+
+    /**
+     * Measures costs from {@code minStrength} upwards and returns the highest one whose median hash
+     * time stays within {@code targetMs}; never returns less than {@code minStrength}.
+     */
+    public static int calibrate(int minStrength, int maxStrength, long targetMs) {
+        int chosen = minStrength;
+        // warm up the JIT so the first measurement is not inflated
+        new BCryptPasswordEncoder(minStrength).encode(SAMPLE);
+
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long medianMs = medianHashMillis(strength);
+            log.info("auth.password calibrate strength={} medianMs={}", strength, medianMs);
+            if (medianMs > targetMs) {
+                break;
+            }
+            chosen = strength;
+        }
+        log.info("auth.password calibrated strength={} targetMs={}", chosen, targetMs);
+        return chosen;
+    }
+
+    private static long medianHashMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long t0 = System.nanoTime();
+            encoder.encode(SAMPLE);
+            samples[i] = (System.nanoTime() - t0) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,97 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.revocation;
+
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionRevocationProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.RevokedSession;
+import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRevocationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of revoked access-token ids, each kept only until the token's own {@code exp}.
+ * Local revocations land immediately; revocations from other nodes are pulled incrementally from
+ * {@code session_revocations} on a schedule. Lookups never touch DynamoDB.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevokedSessionIndex {
+
+    private final SessionRevocationRepository revocations;
+    private final SessionRevocationProps props;
+    private final JwtTokenService jwtTokenService;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile Instant watermark;
+
+    public void revoke(String jti, long expiresAtEpochSec) {
+        Instant now = Instant.now();
+        if (expiresAtEpochSec <= now.getEpochSecond()) {
+            return;
+        }
+        revoked.put(jti, expiresAtEpochSec);
+        try {
+            revocations.recordRevocation(jti, expiresAtEpochSec, now);
+        } catch (RuntimeException e) {
+            // the session row is already gone; only other nodes' caches lag until the token expires
+            log.error("auth.revocation publish_failed jti={} msg={}", jti, e.toString());
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Long exp = revoked.get(jti);
+        return exp != null && exp > Instant.now().getEpochSecond();
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!props.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        // nothing issued before one access TTL ago can still be presented
+        Instant oldestLive = now.minusSeconds(jwtTokenService.getAccessTtlSeconds());
+        Instant from = watermark == null ? oldestLive : watermark.minusSeconds(props.getClockSkewSeconds());
+        if (from.isBefore(oldestLive)) {
+            from = oldestLive;
+        }
+        long nowSec = now.getEpochSecond();
+
+        List<RevokedSession> fresh;
+        try {
+            fresh = revocations.findRevokedSince(from);
+        } catch (RuntimeException e) {
+            log.warn("auth.revocation refresh_failed msg={}", e.toString());
+            return;
+        }
+        Instant newest = watermark == null ? from : watermark;
+        for (RevokedSession session : fresh) {
+            if (session.expiresAtEpochSec() > nowSec) {
+                revoked.put(session.jti(), session.expiresAtEpochSec());
+            }
+            if (session.revokedAt().isAfter(newest)) {
+                newest = session.revokedAt();
+            }
+        }
+        // everything recorded before this refresh has been read, so an idle index keeps its window at
+        // the last few seconds instead of re-reading every day since the last revocation
+        Instant caughtUp = now.minusSeconds(props.getClockSkewSeconds());
+        watermark = newest.isAfter(caughtUp) ? newest : caughtUp;
+        revoked.values().removeIf(exp -> exp <= nowSec);
+        log.debug("auth.revocation refreshed fetched={} size={}", fresh.size(), revoked.size());
+    }
+}
@@ -0,0 +1,44 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.revocation;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionRevocationProps;
+import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Node-local cache of each user's {@code tokensValidAfter} epoch. Local updates are written through;
+ * other nodes pick up a new epoch when their entry expires, bounding staleness to the cache TTL.
+ */
+@Component
+public class TokenEpochCache {
+
+    private final AccountRepository accounts;
+    private final LoadingCache<String, Instant> epochs;
+
+    public TokenEpochCache(AccountRepository accounts, SessionRevocationProps props) {
+        this.accounts = accounts;
+        this.epochs = Caffeine.newBuilder()
+                .maximumSize(props.getEpochCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(props.getEpochCacheTtlSeconds()))
+                // EPOCH stands for "no epoch set", which accepts every token
+                .build(userId -> accounts.findTokensValidAfter(userId).orElse(Instant.EPOCH));
+    }
+
+    /** Tokens issued before the returned instant are revoked. */
+    public Instant validAfter(String userId) {
+        return epochs.get(userId);
+    }
+
+    public void revokeAllIssuedBefore(String userId, Instant validAfter) {
+        accounts.setTokensValidAfter(userId, validAfter);
+        epochs.put(userId, validAfter);
+    }
+
+    public void markDeleted(String userId) {
+        epochs.put(userId, Instant.MAX);
+    }
+}
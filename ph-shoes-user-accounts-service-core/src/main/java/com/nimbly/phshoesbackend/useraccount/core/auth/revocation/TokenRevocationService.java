@@ -0,0 +1,61 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.revocation;
+
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionRevocationProps;
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Single place authenticated paths ask whether a signature-valid access token has been revoked.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final RevokedSessionIndex revokedSessions;
+    private final TokenEpochCache tokenEpochs;
+    private final SessionRevocationProps props;
+
+    public void revoke(String jti, long expiresAtEpochSec) {
+        revokedSessions.revoke(jti, expiresAtEpochSec);
+    }
+
+    /**
+     * Revokes every access token the user holds in one write. Tokens issued within the same second
+     * as the call are still accepted, since {@code iat} has second precision.
+     */
+    public void revokeAllForUser(String userId) {
+        Instant validAfter = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        tokenEpochs.revokeAllIssuedBefore(userId, validAfter);
+        log.info("auth.token revoked_all sub={} validAfter={}", userId, validAfter);
+    }
+
+    public void userDeleted(String userId) {
+        tokenEpochs.markDeleted(userId);
+    }
+
+    public void ensureNotRevoked(AuthenticatedPrincipal principal) {
+        if (!props.isEnabled()) {
+            return;
+        }
+        if (revokedSessions.isRevoked(principal.jti())) {
+            log.warn("auth.token revoked jti={} sub={}", principal.jti(), principal.sub());
+            throw new InvalidCredentialsException();
+        }
+        String sub = principal.sub();
+        if (sub != null) {
+            Instant validAfter = tokenEpochs.validAfter(sub);
+            Instant issuedAt = principal.issuedAt() == null ? Instant.EPOCH : principal.issuedAt();
+            if (issuedAt.isBefore(validAfter)) {
+                log.warn("auth.token issued_before_epoch jti={} sub={}", principal.jti(), sub);
+                throw new InvalidCredentialsException();
+            }
+        }
+    }
+}
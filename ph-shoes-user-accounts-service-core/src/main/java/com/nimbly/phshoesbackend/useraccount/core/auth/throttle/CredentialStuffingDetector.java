@@ -0,0 +1,115 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.throttle;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.StuffingDetectionProps;
+import com.nimbly.phshoesbackend.useraccount.core.exception.LoginThrottledException;
+import com.nimbly.phshoesbackend.useraccount.core.util.SensitiveValueMasker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks failed logins per client IP and per email hash in fixed-size sliding-window count-min
+ * sketches, so keys that exceed their budget are rejected before any DynamoDB or bcrypt work.
+ * The heaviest keys of each kind are published, masked, as the {@code auth.login.stuffing.failures} gauge.
+ */
+@Slf4j
+@Component
+public class CredentialStuffingDetector {
+
+    static final String SCOPE_IP = "ip";
+    static final String SCOPE_EMAIL = "email";
+
+    private final StuffingDetectionProps props;
+    private final WindowedCountMinSketch byIp;
+    private final WindowedCountMinSketch byEmail;
+    private final Map<String, Integer> topIps = new ConcurrentHashMap<>();
+    private final Map<String, Integer> topEmails = new ConcurrentHashMap<>();
+    private final MultiGauge heavyHitters;
+
+    @Autowired
+    public CredentialStuffingDetector(StuffingDetectionProps props, MeterRegistry meterRegistry) {
+        this(props, meterRegistry, Clock.systemUTC());
+    }
+
+    CredentialStuffingDetector(StuffingDetectionProps props, MeterRegistry meterRegistry, Clock clock) {
+        this.props = props;
+        long windowMillis = props.getWindowSeconds() * 1000;
+        this.byIp = new WindowedCountMinSketch(props.getDepth(), props.getWidth(), windowMillis, props.getWindowBuckets(), clock);
+        this.byEmail = new WindowedCountMinSketch(props.getDepth(), props.getWidth(), windowMillis, props.getWindowBuckets(), clock);
+        this.heavyHitters = MultiGauge.builder("auth.login.stuffing.failures")
+                .description("Estimated failed logins in the detection window for the heaviest keys")
+                .register(meterRegistry);
+    }
+
+    /** Rejects the attempt when the client IP or email hash already exceeded its failure budget. */
+    public void checkAllowed(String ip, String emailHash) {
+        if (!props.isEnabled()) {
+            return;
+        }
+        if (ip != null && byIp.estimate(ip) >= props.getMaxFailuresPerIp()) {
+            log.warn("auth.login throttled scope=ip ip={}", ip);
+            throw new LoginThrottledException(SCOPE_IP);
+        }
+        if (emailHash != null && byEmail.estimate(emailHash) >= props.getMaxFailuresPerEmail()) {
+            log.warn("auth.login throttled scope=email emailHashPrefix={}", SensitiveValueMasker.hashPrefix(emailHash));
+            throw new LoginThrottledException(SCOPE_EMAIL);
+        }
+    }
+
+    public void recordFailure(String ip, String emailHash) {
+        if (!props.isEnabled()) {
+            return;
+        }
+        if (ip != null) {
+            track(topIps, ip, byIp.increment(ip));
+        }
+        if (emailHash != null) {
+            track(topEmails, emailHash, byEmail.increment(emailHash));
+        }
+    }
+
+    // keeps only the K largest estimates per kind; bounded like the sketches themselves
+    private void track(Map<String, Integer> top, String key, int estimate) {
+        top.put(key, estimate);
+        if (top.size() > props.getHeavyHitters()) {
+            top.entrySet().stream()
+                    .min(Map.Entry.comparingByValue())
+                    .ifPresent(min -> top.remove(min.getKey(), min.getValue()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.stuffing.metrics-interval-ms:30000}")
+    public void publishHeavyHitters() {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        addRows(rows, SCOPE_IP, topIps, byIp);
+        addRows(rows, SCOPE_EMAIL, topEmails, byEmail);
+        heavyHitters.register(rows, true);
+    }
+
+    // keys are exported masked (IPs to their network, hashes to a prefix); keys that mask alike are summed
+    private void addRows(List<MultiGauge.Row<?>> rows, String kind, Map<String, Integer> top, WindowedCountMinSketch sketch) {
+        Map<String, Integer> byTag = new LinkedHashMap<>();
+        for (String key : List.copyOf(top.keySet())) {
+            int estimate = sketch.estimate(key);
+            if (estimate <= 0) {
+                top.remove(key);
+                continue;
+            }
+            top.put(key, estimate);
+            String tag = SCOPE_EMAIL.equals(kind) ? SensitiveValueMasker.hashPrefix(key) : SensitiveValueMasker.maskIp(key);
+            byTag.merge(tag, estimate, Integer::sum);
+        }
+        byTag.forEach((tag, estimate) -> rows.add(MultiGauge.Row.of(Tags.of("kind", kind, "key", tag), estimate)));
+    }
+}
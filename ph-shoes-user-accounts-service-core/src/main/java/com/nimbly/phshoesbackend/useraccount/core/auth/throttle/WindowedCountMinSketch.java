@@ -0,0 +1,101 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.throttle;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over a sliding window, kept as a ring of sub-window sketches. Memory is fixed
+ * at {@code buckets * depth * width} counters regardless of how many distinct keys are seen;
+ * estimates never under-count within the window.
+ */
+final class WindowedCountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long bucketMillis;
+    private final AtomicIntegerArray[] buckets;
+    private final AtomicLongArray bucketEpochs;
+    private final Clock clock;
+
+    WindowedCountMinSketch(int depth, int width, long windowMillis, int bucketCount, Clock clock) {
+        this.depth = depth;
+        this.width = width;
+        this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+        this.buckets = new AtomicIntegerArray[bucketCount];
+        this.bucketEpochs = new AtomicLongArray(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new AtomicIntegerArray(depth * width);
+            bucketEpochs.set(i, Long.MIN_VALUE / 2);
+        }
+        this.clock = clock;
+    }
+
+    /** Adds one occurrence of {@code key} and returns its estimated count over the window. */
+    int increment(String key) {
+        long epoch = currentEpoch();
+        AtomicIntegerArray bucket = bucketFor(epoch);
+        long hash = fnv1a64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            bucket.incrementAndGet(row * width + index(h1, h2, row));
+        }
+        return estimate(hash, epoch);
+    }
+
+    int estimate(String key) {
+        return estimate(fnv1a64(key), currentEpoch());
+    }
+
+    private int estimate(long hash, long epoch) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int idx = row * width + index(h1, h2, row);
+            int sum = 0;
+            for (int b = 0; b < buckets.length; b++) {
+                if (epoch - bucketEpochs.get(b) < buckets.length) {
+                    sum += buckets[b].get(idx);
+                }
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    private long currentEpoch() {
+        return clock.millis() / bucketMillis;
+    }
+
+    private AtomicIntegerArray bucketFor(long epoch) {
+        int slot = (int) (epoch % buckets.length);
+        if (bucketEpochs.get(slot) != epoch) {
+            synchronized (this) {
+                if (bucketEpochs.get(slot) != epoch) {
+                    AtomicIntegerArray bucket = buckets[slot];
+                    for (int i = 0; i < bucket.length(); i++) {
+                        bucket.set(i, 0);
+                    }
+                    bucketEpochs.set(slot, epoch);
+                }
+            }
+        }
+        return buckets[slot];
+    }
+
+    // Kirsch-Mitzenmacher double hashing: row i uses h1 + i*h2
+    private int index(int h1, int h2, int row) {
+        return Math.floorMod(h1 + row * h2, width);
+    }
+
+    private static long fnv1a64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,114 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.token;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
+import com.nimbly.phshoesbackend.useraccount.core.auth.token.SigningKeyRing.SigningKey;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps.SigningAlgorithm;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies access tokens. In HS256 mode this is the shared-secret {@link JwtTokenService};
+ * in RS256/ES256 mode tokens are signed with the ring's current key and carry its kid, so other services
+ * can verify them against the published JWK set. HS256 tokens issued before {@code auth.jwt.hs256-cutover-at}
+ * are still accepted until they expire; anything minted with the shared secret after that is rejected.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccessTokenService {
+
+    private static final String EMAIL_CLAIM = "email";
+
+    private final JwtTokenService jwtTokenService;
+    private final SigningKeyRing keys;
+    private final JwtSigningProps props;
+
+    private final Map<String, JWTVerifier> verifiers = new ConcurrentHashMap<>();
+
+    public boolean isAsymmetric() {
+        return keys.isAsymmetric();
+    }
+
+    public long getAccessTtlSeconds() {
+        return jwtTokenService.getAccessTtlSeconds();
+    }
+
+    public String issueAccessToken(String userId, String email) {
+        if (!keys.isAsymmetric()) {
+            return jwtTokenService.issueAccessToken(userId, email);
+        }
+        Instant now = Instant.now();
+        SigningKey key = keys.current(now);
+        return JWT.create()
+                .withKeyId(key.kid())
+                .withIssuer(props.getIssuer())
+                .withSubject(userId)
+                .withClaim(EMAIL_CLAIM, email)
+                .withJWTId(UUID.randomUUID().toString())
+                .withIssuedAt(now)
+                .withExpiresAt(now.plusSeconds(getAccessTtlSeconds()))
+                .sign(algorithm(key));
+    }
+
+    /** Verifies signature, issuer and expiry; throws {@link JwtVerificationException} otherwise. */
+    public DecodedJWT parseAccess(String token) {
+        if (!keys.isAsymmetric()) {
+            return jwtTokenService.parseAccess(token);
+        }
+        DecodedJWT unverified;
+        try {
+            unverified = JWT.decode(token);
+        } catch (JWTDecodeException e) {
+            throw new JwtVerificationException("Malformed access token", e);
+        }
+        if (SigningAlgorithm.HS256.name().equals(unverified.getAlgorithm())) {
+            requireIssuedBeforeCutover(unverified);
+            return jwtTokenService.parseAccess(token);
+        }
+        SigningKey key = keys.find(unverified.getKeyId(), Instant.now())
+                .orElseThrow(() -> new JwtVerificationException("Unknown or retired signing key", null));
+        try {
+            return verifiers.computeIfAbsent(key.kid(), kid -> JWT.require(algorithm(key))
+                    .withIssuer(props.getIssuer())
+                    .build()).verify(unverified);
+        } catch (JWTVerificationException e) {
+            throw new JwtVerificationException("Invalid access token", e);
+        }
+    }
+
+    // iat alone could be backdated by whoever holds the secret, so exp must also fall within one TTL of the cutover
+    private void requireIssuedBeforeCutover(DecodedJWT unverified) {
+        Instant cutover = props.getHs256CutoverAt();
+        Instant issuedAt = unverified.getIssuedAtAsInstant();
+        Instant expiresAt = unverified.getExpiresAtAsInstant();
+        if (cutover == null || issuedAt == null || expiresAt == null
+                || !issuedAt.isBefore(cutover)
+                || expiresAt.isAfter(cutover.plusSeconds(getAccessTtlSeconds()))) {
+            throw new JwtVerificationException("HS256 access tokens are no longer accepted", null);
+        }
+    }
+
+    private Algorithm algorithm(SigningKey key) {
+        return switch (keys.algorithm()) {
+            case RS256 -> Algorithm.RSA256((RSAPublicKey) key.publicKey(), (RSAPrivateKey) key.privateKey());
+            case ES256 -> Algorithm.ECDSA256((ECPublicKey) key.publicKey(), (ECPrivateKey) key.privateKey());
+            case HS256 -> throw new IllegalStateException("HS256 tokens are issued by JwtTokenService");
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.token;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps.SigningAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The asymmetric signing keys from {@code auth.jwt.keys}, ordered by activation. The newest activated
+ * key signs; a key activating later is published ahead of use, and a superseded key stays published
+ * and accepted for {@code auth.jwt.overlap-seconds} so tokens and cached key sets issued before a
+ * rotation keep verifying. Empty in HS256 mode.
+ */
+@Slf4j
+@Component
+public class SigningKeyRing {
+
+    public record SigningKey(String kid, PublicKey publicKey, PrivateKey privateKey, Instant activateAt) {
+        boolean canSign() {
+            return privateKey != null;
+        }
+    }
+
+    /** The serialized JWK set and its strong ETag. */
+    public record Jwks(String json, String etag) {
+    }
+
+    private final JwtSigningProps props;
+    private final ObjectMapper mapper;
+    private final List<SigningKey> keys;
+
+    private volatile List<String> jwksKids = List.of();
+    private volatile Jwks jwks;
+
+    public SigningKeyRing(JwtSigningProps props, ObjectMapper mapper) {
+        this.props = props;
+        this.mapper = mapper;
+        this.keys = isAsymmetric() ? load(props) : List.of();
+        if (isAsymmetric()) {
+            current(Instant.now());
+            log.info("auth.jwt signing algorithm={} kids={}", props.getAlgorithm(),
+                    keys.stream().map(SigningKey::kid).toList());
+        }
+    }
+
+    public boolean isAsymmetric() {
+        return props.getAlgorithm() != SigningAlgorithm.HS256;
+    }
+
+    public SigningAlgorithm algorithm() {
+        return props.getAlgorithm();
+    }
+
+    /** The key that signs at {@code now}: the last one, in activation order, that has activated and has a private key. */
+    public SigningKey current(Instant now) {
+        SigningKey out = null;
+        for (SigningKey key : keys) {
+            if (key.canSign() && !key.activateAt().isAfter(now)) {
+                out = key;
+            }
+        }
+        if (out == null) {
+            throw new IllegalStateException("No activated auth.jwt signing key with a private key");
+        }
+        return out;
+    }
+
+    /** Keys that are published and accepted at {@code now}. */
+    public List<SigningKey> published(Instant now) {
+        List<SigningKey> out = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Instant supersededAt = null;
+            for (int j = i + 1; j < keys.size(); j++) {
+                if (keys.get(j).canSign()) {
+                    supersededAt = keys.get(j).activateAt();
+                    break;
+                }
+            }
+            if (supersededAt == null || now.isBefore(supersededAt.plusSeconds(props.getOverlapSeconds()))) {
+                out.add(keys.get(i));
+            }
+        }
+        return out;
+    }
+
+    public Optional<SigningKey> find(String kid, Instant now) {
+        if (kid == null) {
+            return Optional.empty();
+        }
+        return published(now).stream().filter(k -> k.kid().equals(kid)).findFirst();
+    }
+
+    /** The published keys as a JWK set; rebuilt only when the set of published kids changes. */
+    public Jwks jwks(Instant now) {
+        List<SigningKey> published = published(now);
+        List<String> kids = published.stream().map(SigningKey::kid).toList();
+        Jwks cached = jwks;
+        if (cached != null && kids.equals(jwksKids)) {
+            return cached;
+        }
+        List<Map<String, String>> jwkList = published.stream().map(this::toJwk).toList();
+        try {
+            String json = mapper.writeValueAsString(Map.of("keys", jwkList));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            Jwks built = new Jwks(json, "\"" + base64Url(digest) + "\"");
+            jwks = built;
+            jwksKids = kids;
+            return built;
+        } catch (JsonProcessingException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot serialize JWK set", e);
+        }
+    }
+
+    private Map<String, String> toJwk(SigningKey key) {
+        Map<String, String> jwk = new LinkedHashMap<>();
+        if (key.publicKey() instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("kid", key.kid());
+            jwk.put("use", "sig");
+            jwk.put("alg", SigningAlgorithm.RS256.name());
+            jwk.put("n", base64Url(unsigned(rsa.getModulus(), 0)));
+            jwk.put("e", base64Url(unsigned(rsa.getPublicExponent(), 0)));
+        } else if (key.publicKey() instanceof ECPublicKey ec) {
+            jwk.put("kty", "EC");
+            jwk.put("kid", key.kid());
+            jwk.put("use", "sig");
+            jwk.put("alg", SigningAlgorithm.ES256.name());
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(unsigned(ec.getW().getAffineX(), 32)));
+            jwk.put("y", base64Url(unsigned(ec.getW().getAffineY(), 32)));
+        }
+        return jwk;
+    }
+
+    private static List<SigningKey> load(JwtSigningProps props) {
+        String keyAlgorithm = props.getAlgorithm() == SigningAlgorithm.RS256 ? "RSA" : "EC";
+        List<SigningKey> out = new ArrayList<>();
+        var kids = new HashSet<String>();
+        for (JwtSigningProps.Key key : props.getKeys()) {
+            if (key.getKid() == null || key.getKid().isBlank() || !kids.add(key.getKid())) {
+                throw new IllegalStateException("auth.jwt.keys need unique, non-blank kids");
+            }
+            if (key.getPublicKey() == null || key.getPublicKey().isBlank()) {
+                throw new IllegalStateException("auth.jwt key " + key.getKid() + " has no public key");
+            }
+            try {
+                KeyFactory factory = KeyFactory.getInstance(keyAlgorithm);
+                PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(der(key.getPublicKey())));
+                PrivateKey privateKey = key.getPrivateKey() == null || key.getPrivateKey().isBlank()
+                        ? null
+                        : factory.generatePrivate(new PKCS8EncodedKeySpec(der(key.getPrivateKey())));
+                if (publicKey instanceof ECPublicKey ec && ec.getParams().getCurve().getField().getFieldSize() != 256) {
+                    throw new IllegalStateException("auth.jwt key " + key.getKid() + " is not a P-256 key");
+                }
+                Instant activateAt = key.getActivateAt() == null ? Instant.EPOCH : key.getActivateAt();
+                out.add(new SigningKey(key.getKid(), publicKey, privateKey, activateAt));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                throw new IllegalStateException("auth.jwt key " + key.getKid() + " is not a valid " + keyAlgorithm + " key", e);
+            }
+        }
+        out.sort(Comparator.comparing(SigningKey::activateAt));
+        return List.copyOf(out);
+    }
+
+    private static byte[] der(String pemOrBase64) {
+        String body = pemOrBase64.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    // JWK integers are unsigned big-endian; EC coordinates keep their full field length
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length >= length) {
+            return bytes;
+        }
+        byte[] padded = new byte[length];
+        System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+        return padded;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
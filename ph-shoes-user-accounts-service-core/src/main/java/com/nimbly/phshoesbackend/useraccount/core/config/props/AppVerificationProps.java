@@ -13,4 +13,14 @@ public class AppVerificationProps {
     private String verificationLink;
     private String notMeLink;
     private String unsubscribeLink;
+    /**
+     * Whether links in the pre-v2 format, which only sign the verificationId and need a table read to
+     * check, still decode; can be turned off once one TTL has passed since v2 links went out.
+     */
+    private boolean acceptLegacyTokens = true;
+
+    /** Remember recently finalized verificationIds so repeated clicks and link scanners skip the table. */
+    private boolean outcomeCacheEnabled = true;
+    private long outcomeCacheMaxSize = 10_000;
+    private long outcomeCacheTtlSeconds = 300;
 }
@@ -0,0 +1,45 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.jwt")
+public class JwtSigningProps {
+
+    public enum SigningAlgorithm { HS256, RS256, ES256 }
+
+    /**
+     * HS256 keeps the shared-secret tokens of {@code phshoes.security.jwt}; RS256 and ES256 sign with
+     * {@link #keys} and publish their public halves at {@code /.well-known/jwks.json}.
+     */
+    private SigningAlgorithm algorithm = SigningAlgorithm.HS256;
+    private String issuer = "ph-shoes";
+    /** The newest key whose activateAt has passed signs; keys activating later are published ahead of use. */
+    private List<Key> keys = new ArrayList<>();
+    /** How long a superseded key stays published and accepted; should cover the access TTL plus the JWKS max-age. */
+    private long overlapSeconds = 900;
+    private long jwksMaxAgeSeconds = 300;
+    /**
+     * When RS256/ES256 signing went live. HS256 tokens are only accepted in asymmetric mode if issued
+     * before this and expiring within one access TTL of it; unset rejects them outright.
+     */
+    private Instant hs256CutoverAt;
+
+    @Data
+    public static class Key {
+        private String kid;
+        /** PKCS#8, PEM or bare base64; leave unset for a key that is only published for verification. */
+        private String privateKey;
+        /** X.509 SubjectPublicKeyInfo, PEM or bare base64. */
+        private String publicKey;
+        /** When the key starts signing; unset means from the start. */
+        private Instant activateAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.last-login")
+public class LastLoginProps {
+    /** Buffer lastLoginAt/Ip/UserAgent in memory and write them off the login path. */
+    private boolean writeBehind = true;
+    private long flushIntervalMs = 5_000;
+    /** A user's telemetry is written at most once per this many seconds; newer values coalesce. */
+    private long minIntervalPerUserSeconds = 300;
+    /**
+     * Writes per flush, paced to {@code maxWritesPerSecond}. Keep the batch under rate times interval
+     * so a flush finishes before the next one is due.
+     */
+    private int maxBatch = 5;
+    private int maxWritesPerSecond = 1;
+    private long drainTimeoutMs = 10_000;
+}
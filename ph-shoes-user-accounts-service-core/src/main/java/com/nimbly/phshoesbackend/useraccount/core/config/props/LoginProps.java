@@ -0,0 +1,18 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.login")
+public class LoginProps {
+    /** Overlap independent login steps (bcrypt with verification restore, account update with session write). */
+    private boolean parallel = true;
+
+    /** Remember primary email hashes with no account so repeated misses skip the GSI queries. */
+    private boolean negativeCacheEnabled = true;
+    private long negativeCacheMaxSize = 100_000;
+    private long negativeCacheTtlSeconds = 300;
+}
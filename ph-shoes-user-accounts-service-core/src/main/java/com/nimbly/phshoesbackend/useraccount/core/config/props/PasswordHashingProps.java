@@ -0,0 +1,24 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.password")
+public class PasswordHashingProps {
+    /** Hashing threads; 0 means one per available processor. */
+    private int threads = 0;
+    private int queueCapacity = 64;
+    private long queueWaitMs = 250;
+
+    /** Measure BCrypt at startup and pick the strongest cost within {@code targetHashMs}. */
+    private boolean calibrate = true;
+    private long targetHashMs = 80;
+    /** Fleet-wide floor: no node hashes below it, and stored hashes under it are upgraded on login. */
+    private int minStrength = 10;
+    private int maxStrength = 14;
+    /** Cost used when calibration is disabled; raised to {@link #minStrength} if lower. */
+    private int strength = 10;
+}
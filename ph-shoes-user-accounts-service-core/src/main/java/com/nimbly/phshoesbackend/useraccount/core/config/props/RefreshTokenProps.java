@@ -0,0 +1,15 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.refresh")
+public class RefreshTokenProps {
+    /** Issue a single-use refresh token with each login so access tokens can stay short-lived. */
+    private boolean enabled = true;
+    /** Absolute session lifetime; rotating the refresh token does not extend it. */
+    private long ttlSeconds = 2_592_000;
+}
@@ -0,0 +1,20 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "accounts.repepper")
+public class RepepperProps {
+    private boolean enabled = true;
+    private int segments = 4;
+    private int pageSize = 100;
+    /** Each rewrite also updates gsi_email, so this spends two WCUs per account. */
+    private int maxWritesPerSecond = 1;
+    /** Length of the fleet-wide scan lease; the running node renews it at a third of this. */
+    private long leaseSeconds = 300;
+    private long initialDelayMs = 60_000;
+    private long intervalMs = 3_600_000;
+}
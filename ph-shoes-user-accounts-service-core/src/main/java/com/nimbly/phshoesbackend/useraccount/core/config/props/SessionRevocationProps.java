@@ -0,0 +1,26 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.revocation")
+public class SessionRevocationProps {
+    /** Answer per-request revocation checks from the in-memory index. */
+    private boolean enabled = true;
+    /** How often revocations made on other nodes are pulled into the local index. */
+    private long refreshIntervalMs = 5_000;
+    /** Each refresh re-reads this far behind the watermark to absorb clock skew between nodes. */
+    private long clockSkewSeconds = 5;
+    /**
+     * Each day's revocations are spread over this many partition keys by jti, so a mass logout does
+     * not throttle on one key; every refresh queries all of them. Changing it strands the current
+     * day's revocations on the old shards until their tokens expire.
+     */
+    private int bucketShards = 4;
+    /** Per-user "tokens valid after" epochs; another node's epoch change is seen within the TTL. */
+    private long epochCacheMaxSize = 100_000;
+    private long epochCacheTtlSeconds = 30;
+}
@@ -0,0 +1,47 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.sessions")
+public class SessionStoreProps {
+
+    /**
+     * Rollout order: LEGACY, then DUAL_WRITE until the backfill reports done, then V2.
+     * Reads follow login_sessions until V2.
+     */
+    public enum Mode { LEGACY, DUAL_WRITE, V2 }
+
+    private Mode mode = Mode.LEGACY;
+
+    /** Oldest sessions are evicted at login beyond this many per user; 0 disables the cap. */
+    private int maxPerUser = 20;
+
+    /**
+     * Authenticated requests record the session's lastSeenAt in memory; a scheduled flush writes at
+     * most one update per session per {@code lastSeenFlushIntervalMs}, paced to
+     * {@code lastSeenMaxWritesPerSecond} and capped at {@code lastSeenMaxBatch} writes per flush.
+     * Keep the batch under rate times interval so a flush finishes before the next one is due.
+     */
+    private boolean lastSeenEnabled = true;
+    private long lastSeenFlushIntervalMs = 60_000;
+    private int lastSeenMaxBatch = 50;
+    private int lastSeenMaxWritesPerSecond = 1;
+    private long lastSeenDrainTimeoutMs = 10_000;
+
+    /**
+     * Copies login_sessions into user_sessions; only runs while mode is DUAL_WRITE, on one node at a
+     * time under a lease of {@code backfillLeaseSeconds}. The rate covers every read and write of the
+     * copy and should match the provisioned capacity of user_sessions.
+     */
+    private boolean backfillEnabled = false;
+    private int backfillSegments = 4;
+    private int backfillPageSize = 100;
+    private int backfillMaxWritesPerSecond = 1;
+    private long backfillLeaseSeconds = 300;
+    private long backfillInitialDelayMs = 60_000;
+    private long backfillIntervalMs = 3_600_000;
+}
@@ -0,0 +1,22 @@
+package com.nimbly.phshoesbackend.useraccount.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.stuffing")
+public class StuffingDetectionProps {
+    private boolean enabled = true;
+    private long windowSeconds = 600;
+    private int windowBuckets = 5;
+    /** Count-min sketch rows (hash functions) and counters per row. */
+    private int depth = 4;
+    private int width = 16_384;
+    /** Failed logins within the window after which further attempts are rejected up front. */
+    private int maxFailuresPerIp = 50;
+    private int maxFailuresPerEmail = 20;
+    private int heavyHitters = 10;
+    private long metricsIntervalMs = 30_000;
+}
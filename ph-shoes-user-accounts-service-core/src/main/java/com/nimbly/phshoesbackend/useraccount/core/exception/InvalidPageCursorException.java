@@ -0,0 +1,6 @@
+package com.nimbly.phshoesbackend.useraccount.core.exception;
+
+public class InvalidPageCursorException extends RuntimeException {
+    public InvalidPageCursorException() { super(); }
+    public InvalidPageCursorException(String msg) { super(msg); }
+}
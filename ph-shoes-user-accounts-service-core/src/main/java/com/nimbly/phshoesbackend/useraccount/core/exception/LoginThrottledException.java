@@ -0,0 +1,14 @@
+package com.nimbly.phshoesbackend.useraccount.core.exception;
+
+public class LoginThrottledException extends RuntimeException {
+    private final String scope;
+
+    public LoginThrottledException(String scope) {
+        super("Too many failed sign-in attempts for " + scope);
+        this.scope = scope;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+}
@@ -0,0 +1,7 @@
+package com.nimbly.phshoesbackend.useraccount.core.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        super("Password hashing capacity exhausted. Try again shortly.");
+    }
+}
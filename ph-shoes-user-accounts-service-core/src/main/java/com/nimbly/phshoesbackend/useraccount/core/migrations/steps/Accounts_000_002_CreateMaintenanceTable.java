@@ -0,0 +1,38 @@
+package com.nimbly.phshoesbackend.useraccount.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import com.nimbly.phshoesbackend.commons.core.migrations.utility.TableCreator;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.MaintenanceAttrs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class Accounts_000_002_CreateMaintenanceTable implements UpgradeStep {
+
+    private static final BillingMode BILLING_MODE = BillingMode.PROVISIONED;
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private final TableCreator tables;
+
+    @Override public String service()     { return "accounts_service"; }
+    @Override public String fromVersion() { return "0.0.1"; }
+    @Override public String toVersion()   { return "0.0.2"; }
+    @Override public String description() { return "Create account_maintenance (background job watermarks)"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final String maintenance = ctx.tbl(MaintenanceAttrs.TABLE);
+        tables.createTableIfNotExists(
+                maintenance,
+                List.of(AttributeDefinition.builder().attributeName(MaintenanceAttrs.PK_NAME).attributeType(ScalarAttributeType.S).build()),
+                List.of(KeySchemaElement.builder().attributeName(MaintenanceAttrs.PK_NAME).keyType(KeyType.HASH).build()),
+                BILLING_MODE, DEFAULT_RCU, DEFAULT_WCU
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package com.nimbly.phshoesbackend.useraccount.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import com.nimbly.phshoesbackend.commons.core.migrations.utility.TableCreator;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.RevocationAttrs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class Accounts_000_003_CreateSessionRevocationsTable implements UpgradeStep {
+
+    private static final BillingMode BILLING_MODE = BillingMode.PROVISIONED;
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private final TableCreator tables;
+
+    @Override public String service()     { return "accounts_service"; }
+    @Override public String fromVersion() { return "0.0.2"; }
+    @Override public String toVersion()   { return "0.0.3"; }
+    @Override public String description() { return "Create session_revocations (revoked jtis by day, sorted by revocation time)"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final ScalarAttributeType S = ScalarAttributeType.S;
+        final String revocations = ctx.tbl(RevocationAttrs.TABLE);
+        tables.createTableIfNotExists(
+                revocations,
+                List.of(
+                        AttributeDefinition.builder().attributeName(RevocationAttrs.PK_BUCKET).attributeType(S).build(),
+                        AttributeDefinition.builder().attributeName(RevocationAttrs.SK_REVOKED).attributeType(S).build()
+                ),
+                List.of(
+                        KeySchemaElement.builder().attributeName(RevocationAttrs.PK_BUCKET).keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName(RevocationAttrs.SK_REVOKED).keyType(KeyType.RANGE).build()
+                ),
+                BILLING_MODE, DEFAULT_RCU, DEFAULT_WCU
+        );
+        tables.enableTtlIfDisabled(revocations, RevocationAttrs.EXPIRES_AT);
+    }
+}
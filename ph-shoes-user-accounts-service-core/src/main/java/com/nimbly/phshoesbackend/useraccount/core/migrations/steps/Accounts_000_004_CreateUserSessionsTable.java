@@ -0,0 +1,46 @@
+package com.nimbly.phshoesbackend.useraccount.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import com.nimbly.phshoesbackend.commons.core.migrations.utility.TableCreator;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.SessionAttrs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class Accounts_000_004_CreateUserSessionsTable implements UpgradeStep {
+
+    private static final BillingMode BILLING_MODE = BillingMode.PROVISIONED;
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private final TableCreator tables;
+
+    @Override public String service()     { return "accounts_service"; }
+    @Override public String fromVersion() { return "0.0.3"; }
+    @Override public String toVersion()   { return "0.0.4"; }
+    @Override public String description() { return "Create user_sessions (userId + sessionId composite key, no GSI)"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final ScalarAttributeType S = ScalarAttributeType.S;
+        final String sessions = ctx.tbl(SessionAttrs.TABLE_V2);
+        tables.createTableIfNotExists(
+                sessions,
+                List.of(
+                        AttributeDefinition.builder().attributeName(SessionAttrs.USER_ID).attributeType(S).build(),
+                        AttributeDefinition.builder().attributeName(SessionAttrs.PK_SESSION).attributeType(S).build()
+                ),
+                List.of(
+                        KeySchemaElement.builder().attributeName(SessionAttrs.USER_ID).keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName(SessionAttrs.PK_SESSION).keyType(KeyType.RANGE).build()
+                ),
+                BILLING_MODE, DEFAULT_RCU, DEFAULT_WCU
+        );
+        tables.enableTtlIfDisabled(sessions, SessionAttrs.EXPIRES_AT);
+    }
+}
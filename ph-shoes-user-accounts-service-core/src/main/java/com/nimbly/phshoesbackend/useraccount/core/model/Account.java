@@ -1,12 +1,21 @@
 package com.nimbly.phshoesbackend.useraccount.core.model;
 
 import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.AccountAttrs;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.ToString;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
 
@@ -97,4 +106,62 @@ public class Account {
     })
     @Setter
     private String lastLoginUserAgent;
-}
\ No newline at end of file
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AccountAttrs.TOKENS_VALID_AFTER)
+    })
+    @Setter
+    private Instant tokensValidAfter;
+
+    // attribute values as last read from / written to the table; null until then
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Map<String, Object> persistedState;
+
+    /** Whether this instance was loaded from or already written to the table. */
+    public boolean wasLoaded() {
+        return persistedState != null;
+    }
+
+    /** Attribute names whose values differ from the last persisted snapshot (excluding the key). */
+    public Set<String> changedAttributes() {
+        Map<String, Object> current = attributeValues();
+        current.remove(AccountAttrs.PK_USERID);
+        if (persistedState == null) {
+            return current.keySet();
+        }
+        Set<String> changed = new LinkedHashSet<>();
+        current.forEach((attr, value) -> {
+            if (!Objects.equals(value, persistedState.get(attr))) {
+                changed.add(attr);
+            }
+        });
+        return changed;
+    }
+
+    /** Records the current field values as the persisted baseline. */
+    public void markPersisted() {
+        persistedState = new HashMap<>(attributeValues());
+    }
+
+    private Map<String, Object> attributeValues() {
+        Map<String, Object> values = new LinkedHashMap<>(16);
+        values.put(AccountAttrs.PK_USERID, userId);
+        values.put(AccountAttrs.EMAIL_HASH, emailHash);
+        values.put(AccountAttrs.EMAIL_ENC, emailEnc);
+        values.put(AccountAttrs.PASSWORD_HASH, passwordHash);
+        values.put(AccountAttrs.IS_VERIFIED, isVerified);
+        values.put(AccountAttrs.CREATED_AT, createdAt);
+        values.put(AccountAttrs.UPDATED_AT, updatedAt);
+        values.put(AccountAttrs.SETTINGS_JSON, settingsJson);
+        values.put(AccountAttrs.LOGIN_FAIL_COUNT, loginFailCount);
+        values.put(AccountAttrs.LOCK_UNTIL, lockUntil);
+        values.put(AccountAttrs.LAST_LOGIN_AT, lastLoginAt);
+        values.put(AccountAttrs.LAST_LOGIN_IP, lastLoginIp);
+        values.put(AccountAttrs.LAST_LOGIN_UA, lastLoginUserAgent);
+        values.put(AccountAttrs.TOKENS_VALID_AFTER, tokensValidAfter);
+        return values;
+    }
+}
@@ -0,0 +1,14 @@
+package com.nimbly.phshoesbackend.useraccount.core.model;
+
+import java.time.Instant;
+
+/**
+ * Outcome of recording a failed login: the counter value after the increment and,
+ * when the attempt crossed the lockout threshold, the instant the lock expires.
+ */
+public record LoginFailure(int failCount, Instant lockUntil) {
+
+    public boolean locked() {
+        return lockUntil != null;
+    }
+}
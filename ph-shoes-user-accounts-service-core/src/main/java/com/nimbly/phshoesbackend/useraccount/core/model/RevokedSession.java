@@ -0,0 +1,9 @@
+package com.nimbly.phshoesbackend.useraccount.core.model;
+
+import java.time.Instant;
+
+/**
+ * A revoked access token, kept until the token itself would have expired.
+ */
+public record RevokedSession(String jti, long expiresAtEpochSec, Instant revokedAt) {
+}
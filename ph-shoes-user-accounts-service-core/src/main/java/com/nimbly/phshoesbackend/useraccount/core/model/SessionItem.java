@@ -52,6 +52,18 @@ public class SessionItem {
     @Setter
     private String userAgent;
 
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("lastSeenAt")
+    })
+    @Setter
+    private Instant lastSeenAt;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("refreshTokenHash")
+    })
+    @Setter
+    private String refreshTokenHash;
+
     @Getter(onMethod_ = {
             @DynamoDbAttribute("dataJson")
     })
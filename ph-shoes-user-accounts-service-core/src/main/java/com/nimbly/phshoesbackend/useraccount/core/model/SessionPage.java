@@ -0,0 +1,9 @@
+package com.nimbly.phshoesbackend.useraccount.core.model;
+
+import java.util.List;
+
+/**
+ * One page of a user's sessions. {@code nextCursor} is opaque to callers and null on the last page.
+ */
+public record SessionPage(List<SessionItem> sessions, String nextCursor) {
+}
@@ -0,0 +1,105 @@
+package com.nimbly.phshoesbackend.useraccount.core.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+
+/**
+ * A row of the per-user sessions table: same attributes as {@link SessionItem}, keyed by
+ * userId (partition) and sessionId (sort).
+ */
+@Data
+@NoArgsConstructor
+@DynamoDbBean
+public class UserSessionItem {
+
+    @Getter(onMethod_ = {
+            @DynamoDbPartitionKey,
+            @DynamoDbAttribute("userId")
+    })
+    @Setter
+    private String userId;
+
+    @Getter(onMethod_ = {
+            @DynamoDbSortKey,
+            @DynamoDbAttribute("sessionId")
+    })
+    @Setter
+    private String sessionId;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("createdAt")
+    })
+    @Setter
+    private Instant createdAt;
+
+    // TTL (epoch seconds)
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("expiresAt")
+    })
+    @Setter
+    private Long expiresAt;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("ip")
+    })
+    @Setter
+    private String ip;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("userAgent")
+    })
+    @Setter
+    private String userAgent;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("lastSeenAt")
+    })
+    @Setter
+    private Instant lastSeenAt;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("refreshTokenHash")
+    })
+    @Setter
+    private String refreshTokenHash;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute("dataJson")
+    })
+    @Setter
+    private String dataJson;
+
+    public static UserSessionItem from(SessionItem s) {
+        var out = new UserSessionItem();
+        out.setUserId(s.getUserId());
+        out.setSessionId(s.getSessionId());
+        out.setCreatedAt(s.getCreatedAt());
+        out.setExpiresAt(s.getExpiresAt());
+        out.setIp(s.getIp());
+        out.setUserAgent(s.getUserAgent());
+        out.setLastSeenAt(s.getLastSeenAt());
+        out.setRefreshTokenHash(s.getRefreshTokenHash());
+        out.setDataJson(s.getDataJson());
+        return out;
+    }
+
+    public SessionItem toSessionItem() {
+        var out = new SessionItem();
+        out.setUserId(userId);
+        out.setSessionId(sessionId);
+        out.setCreatedAt(createdAt);
+        out.setExpiresAt(expiresAt);
+        out.setIp(ip);
+        out.setUserAgent(userAgent);
+        out.setLastSeenAt(lastSeenAt);
+        out.setRefreshTokenHash(refreshTokenHash);
+        out.setDataJson(dataJson);
+        return out;
+    }
+}
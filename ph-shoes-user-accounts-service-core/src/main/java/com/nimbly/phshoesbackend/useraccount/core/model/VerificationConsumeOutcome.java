@@ -0,0 +1,14 @@
+package com.nimbly.phshoesbackend.useraccount.core.model;
+
+/**
+ * Result of consuming a verification entry and verifying its account in one transaction. Anything but
+ * {@link #CONSUMED} means neither write was applied.
+ */
+public enum VerificationConsumeOutcome {
+    CONSUMED,
+    NOT_FOUND,
+    EXPIRED,
+    /** The entry is no longer pending, or the account was already verified. */
+    ALREADY_USED,
+    ACCOUNT_MISSING
+}
@@ -18,4 +18,5 @@ public final class AccountAttrs {
     public static final String LAST_LOGIN_AT     = "lastLoginAt";
     public static final String LAST_LOGIN_IP     = "lastLoginIp";
     public static final String LAST_LOGIN_UA     = "lastLoginUserAgent";
+    public static final String TOKENS_VALID_AFTER = "tokensValidAfter"; // access tokens issued earlier are revoked
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.nimbly.phshoesbackend.useraccount.core.model.dynamo;
+
+public final class MaintenanceAttrs {
+    private MaintenanceAttrs() {}
+
+    public static final String TABLE           = "account_maintenance";
+    public static final String PK_NAME         = "name";
+    public static final String GENERATION      = "generation";   // fingerprint of the primary email pepper
+    public static final String UPDATED_AT      = "updatedAt";
+    public static final String LEASE_OWNER     = "leaseOwner";
+    public static final String LEASE_UNTIL     = "leaseUntil";   // epoch seconds
+    public static final String COMPLETED_AT    = "completedAt";
+
+    public static final String EMAIL_PEPPER_WATERMARK = "email_pepper_watermark";
+    public static final String SESSION_BACKFILL       = "session_backfill";
+    public static final String EMAIL_REPEPPER         = "email_repepper";
+}
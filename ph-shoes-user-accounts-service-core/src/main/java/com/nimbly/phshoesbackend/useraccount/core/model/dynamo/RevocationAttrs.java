@@ -0,0 +1,12 @@
+package com.nimbly.phshoesbackend.useraccount.core.model.dynamo;
+
+public final class RevocationAttrs {
+    private RevocationAttrs() {}
+
+    public static final String TABLE       = "session_revocations";
+    public static final String PK_BUCKET   = "bucket";      // UTC day of the revocation + "#" + shard, yyyy-MM-dd#n
+    public static final String SK_REVOKED  = "revokedKey";  // zero-padded revokedAt epoch millis + "#" + jti
+    public static final String JTI         = "jti";
+    public static final String REVOKED_AT  = "revokedAt";   // epoch millis
+    public static final String EXPIRES_AT  = "expiresAt";   // epoch seconds (TTL), the token's exp
+}
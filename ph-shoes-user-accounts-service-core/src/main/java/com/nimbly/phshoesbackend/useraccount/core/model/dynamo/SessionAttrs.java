@@ -4,11 +4,14 @@ public class SessionAttrs {
     private SessionAttrs() {}
 
     public static final String TABLE      = "login_sessions";
+    public static final String TABLE_V2   = "user_sessions";   // PK userId, SK sessionId
     public static final String PK_SESSION = "sessionId";
     public static final String USER_ID    = "userId";
     public static final String CREATED_AT = "createdAt";
     public static final String EXPIRES_AT = "expiresAt";   // epoch seconds (TTL)
     public static final String IP         = "ip";
     public static final String USER_AGENT = "userAgent";
+    public static final String LAST_SEEN_AT = "lastSeenAt";   // written behind, at most once per flush interval
+    public static final String REFRESH_HASH = "refreshTokenHash";   // SHA-256 of the current refresh secret
     public static final String DATA_JSON  = "dataJson";    // optional blob
 }
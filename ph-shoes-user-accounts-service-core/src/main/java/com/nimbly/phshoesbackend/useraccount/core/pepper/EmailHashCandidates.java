@@ -0,0 +1,57 @@
+package com.nimbly.phshoesbackend.useraccount.core.pepper;
+
+import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
+import com.nimbly.phshoesbackend.useraccount.core.repository.EmailPepperWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hash candidates to use for account lookups. Until the re-pepper job has recorded that every
+ * account hash was migrated to the current primary pepper, all legacy candidates are returned;
+ * afterwards only the primary hash is.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailHashCandidates {
+
+    // fixed input whose primary hash identifies the pepper generation without storing the pepper
+    private static final String GENERATION_PROBE = "pepper-generation-probe@ph-shoes.invalid";
+
+    private final EmailCrypto emailCrypto;
+    private final EmailPepperWatermarkRepository watermarks;
+
+    private volatile boolean primaryOnly;
+
+    public List<String> forLookup(String normalizedEmail) {
+        List<String> candidates = emailCrypto.hashCandidates(normalizedEmail);
+        if (!primaryOnly || candidates == null || candidates.size() <= 1) {
+            return candidates;
+        }
+        return List.of(candidates.get(0));
+    }
+
+    public String currentGeneration() {
+        return emailCrypto.hash(GENERATION_PROBE);
+    }
+
+    /** Re-reads the watermark; returns whether lookups are now restricted to the primary hash. */
+    public boolean refresh() {
+        String generation = currentGeneration();
+        boolean complete = watermarks.findCompletedGeneration()
+                .map(generation::equals)
+                .orElse(false);
+        if (complete != primaryOnly) {
+            log.info("pepper.candidates primaryOnly={}", complete);
+        }
+        primaryOnly = complete;
+        return complete;
+    }
+
+    public boolean isPrimaryOnly() {
+        return primaryOnly;
+    }
+}
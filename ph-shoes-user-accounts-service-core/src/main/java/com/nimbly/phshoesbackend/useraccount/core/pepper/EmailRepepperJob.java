@@ -0,0 +1,181 @@
+package com.nimbly.phshoesbackend.useraccount.core.pepper;
+
+import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.RepepperProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.MaintenanceAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.EmailPepperWatermarkRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.MaintenanceLeaseRepository;
+import com.nimbly.phshoesbackend.useraccount.core.util.SensitiveValueMasker;
+import com.nimbly.phshoesbackend.useraccount.core.util.WritePacer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-hashes every account email to the primary pepper with a segmented parallel scan, then records
+ * the pepper generation as complete so lookups can skip the legacy candidates. A lease in
+ * {@code account_maintenance} keeps the scan to one node at a time; it is given back after every run
+ * because the next pepper rotation needs the job again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailRepepperJob {
+
+    private final AccountRepository accounts;
+    private final EmailPepperWatermarkRepository watermarks;
+    private final EmailHashCandidates candidates;
+    private final EmailCrypto emailCrypto;
+    private final RepepperProps props;
+    private final MaintenanceLeaseRepository leases;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Scheduled(initialDelayString = "${accounts.repepper.initial-delay-ms:60000}",
+            fixedDelayString = "${accounts.repepper.interval-ms:3600000}")
+    public void run() {
+        if (!props.isEnabled()) {
+            return;
+        }
+        try {
+            if (candidates.refresh()) {
+                return;
+            }
+            if (!renewLease()) {
+                log.debug("pepper.repepper lease held by another node");
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.error("pepper.repepper error msg={}", e.toString(), e);
+            return;
+        }
+        try {
+            String generation = candidates.currentGeneration();
+            RunStats stats = migrate(true);
+            log.info("pepper.repepper done scanned={} rehashed={} unresolved={}",
+                    stats.scanned.get(), stats.rehashed.get(), stats.unresolved.get());
+            if (stats.unresolved.get() == 0) {
+                watermarks.markCompleted(generation);
+                candidates.refresh();
+            }
+        } catch (RuntimeException e) {
+            log.error("pepper.repepper error msg={}", e.toString(), e);
+        } finally {
+            leases.release(MaintenanceAttrs.EMAIL_REPEPPER, owner);
+        }
+    }
+
+    RunStats migrate() {
+        return migrate(false);
+    }
+
+    private RunStats migrate(boolean leased) {
+        int segments = Math.max(1, props.getSegments());
+        // run() has just taken the lease
+        RunStats stats = new RunStats(Math.max(1, props.getMaxWritesPerSecond()), leased,
+                Instant.now().getEpochSecond() + leaseSeconds() / 3);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(segments);
+            for (int segment = 0; segment < segments; segment++) {
+                final int seg = segment;
+                workers.add(executor.submit(() -> accounts.scanEmailIdentities(
+                        seg, segments, props.getPageSize(), page -> page.forEach(acc -> rehash(acc, stats)))));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Re-pepper interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+        return stats;
+    }
+
+    private void rehash(Account acc, RunStats stats) {
+        renewLeaseIfDue(stats);
+        stats.scanned.incrementAndGet();
+        String current = acc.getEmailHash();
+        String primary;
+        try {
+            String normalized = emailCrypto.normalize(emailCrypto.decrypt(acc.getEmailEnc()));
+            primary = normalized == null || normalized.isBlank() ? null : emailCrypto.hash(normalized);
+        } catch (RuntimeException e) {
+            primary = null;
+        }
+        if (primary == null || current == null) {
+            stats.unresolved.incrementAndGet();
+            log.warn("pepper.repepper unresolved userId={}", acc.getUserId());
+            return;
+        }
+        if (primary.equals(current)) {
+            return;
+        }
+
+        stats.awaitWriteSlot();
+        // a failed condition means a concurrent login already rewrote the hash
+        if (accounts.replaceEmailHash(acc.getUserId(), current, primary)) {
+            stats.rehashed.incrementAndGet();
+            log.debug("pepper.repepper rehashed userId={} emailHashPrefix={}", acc.getUserId(), SensitiveValueMasker.hashPrefix(primary));
+        }
+    }
+
+    // renew at a third of the lease so a slow page cannot let it lapse mid-run; losing it aborts the run
+    private void renewLeaseIfDue(RunStats stats) {
+        if (!stats.leased) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        long renewAt = stats.leaseRenewAt.get();
+        if (now >= renewAt && stats.leaseRenewAt.compareAndSet(renewAt, now + leaseSeconds() / 3)) {
+            if (!renewLease()) {
+                throw new IllegalStateException("Re-pepper lease lost");
+            }
+        }
+    }
+
+    private boolean renewLease() {
+        long now = Instant.now().getEpochSecond();
+        return leases.tryAcquire(MaintenanceAttrs.EMAIL_REPEPPER, owner, now + leaseSeconds(), now);
+    }
+
+    private long leaseSeconds() {
+        return Math.max(3, props.getLeaseSeconds());
+    }
+
+    static final class RunStats {
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong rehashed = new AtomicLong();
+        final AtomicLong unresolved = new AtomicLong();
+
+        // shared by all segments so the job as a whole stays under the configured write rate
+        private final WritePacer pacer;
+        final boolean leased;
+        final AtomicLong leaseRenewAt;
+
+        RunStats(int writesPerSecond, boolean leased, long leaseRenewAt) {
+            this.pacer = new WritePacer(writesPerSecond);
+            this.leased = leased;
+            this.leaseRenewAt = new AtomicLong(leaseRenewAt);
+        }
+
+        void awaitWriteSlot() {
+            pacer.awaitSlot();
+        }
+    }
+}
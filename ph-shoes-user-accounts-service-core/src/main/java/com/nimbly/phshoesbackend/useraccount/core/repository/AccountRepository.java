@@ -2,9 +2,13 @@ package com.nimbly.phshoesbackend.useraccount.core.repository;
 
 
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.model.LoginFailure;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AccountRepository {
     Optional<Account> findByUserId(String userId);
@@ -16,8 +20,41 @@ public interface AccountRepository {
 
     void save(Account account);
 
+    /**
+     * Writes only the attributes changed since the account was loaded, falling back to
+     * {@link #save(Account)} for accounts that were never persisted.
+     */
+    void saveChanges(Account account);
+
     void setVerified(String userId, boolean verified);
 
+    /** Writes only the last-login telemetry attributes of an existing account. */
+    void updateLastLogin(String userId, Instant lastLoginAt, String lastLoginIp, String lastLoginUserAgent);
+
+    /**
+     * Atomically increments the failed-login counter and locks the account for {@code lockDuration}
+     * once {@code maxFailures} is reached, resetting the counter when the lock is applied.
+     */
+    LoginFailure recordLoginFailure(String userId, int maxFailures, Duration lockDuration);
+
+    /** Revokes every access token issued before {@code validAfter} with a single update. */
+    void setTokensValidAfter(String userId, Instant validAfter);
+
+    /**
+     * Reads only the token epoch. Empty when the account has none; {@link Instant#MAX} when the
+     * account no longer exists, so tokens of deleted users are rejected.
+     */
+    Optional<Instant> findTokensValidAfter(String userId);
+
     void deleteByUserId(String userId);
+
+    /**
+     * Scans one segment of a parallel scan, handing each page of accounts (key, email hash and
+     * encrypted email only) to {@code pageConsumer}.
+     */
+    void scanEmailIdentities(int segment, int totalSegments, int pageSize, Consumer<List<Account>> pageConsumer);
+
+    /** Replaces the email hash only if it still equals {@code expectedHash}; returns whether it did. */
+    boolean replaceEmailHash(String userId, String expectedHash, String newHash);
 }
 
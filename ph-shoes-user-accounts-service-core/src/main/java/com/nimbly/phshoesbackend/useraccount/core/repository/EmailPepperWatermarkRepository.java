@@ -0,0 +1,10 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository;
+
+import java.util.Optional;
+
+public interface EmailPepperWatermarkRepository {
+    /** Pepper generation every account email hash has been migrated to, if a migration completed. */
+    Optional<String> findCompletedGeneration();
+
+    void markCompleted(String generation);
+}
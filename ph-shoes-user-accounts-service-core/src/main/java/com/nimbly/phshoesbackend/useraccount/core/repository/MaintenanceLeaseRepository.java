@@ -0,0 +1,20 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository;
+
+/**
+ * Fleet-wide lease and completion marker for a background job, so only one node runs it at a time
+ * and no node reruns it once it has finished.
+ */
+public interface MaintenanceLeaseRepository {
+    /**
+     * Takes or renews the lease for {@code owner} until {@code leaseUntilEpochSeconds}; false if another
+     * owner holds an unexpired lease or the job is already completed.
+     */
+    boolean tryAcquire(String job, String owner, long leaseUntilEpochSeconds, long nowEpochSeconds);
+
+    /** Gives the lease up early if {@code owner} still holds it. */
+    void release(String job, String owner);
+
+    void markCompleted(String job);
+
+    boolean isCompleted(String job);
+}
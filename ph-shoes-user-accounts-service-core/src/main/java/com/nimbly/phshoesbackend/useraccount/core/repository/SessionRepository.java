@@ -1,10 +1,68 @@
 package com.nimbly.phshoesbackend.useraccount.core.repository;
 
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionPage;
+
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 public interface SessionRepository {
-    void createSession(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent);
-    boolean isSessionActive(String sessionId);
-    void revokeSession(String sessionId);
+    /** {@code refreshTokenHash} is null when the session was opened without a refresh token. */
+    void createSession(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent,
+                       String refreshTokenHash);
+
+    /**
+     * Creates the session and, in the same batch write, deletes as many of the user's oldest live sessions
+     * as needed to keep at most {@code maxSessions}, bounded per call. Expired rows are left to TTL.
+     * Returns the deleted sessions.
+     */
+    List<SessionItem> createSessionWithinCap(String sessionId, String userId, long expiresAtEpochSec,
+                                             String ip, String userAgent, String refreshTokenHash, int maxSessions);
+
+    /** Strongly consistent read of one session row, expired or not. */
+    Optional<SessionItem> findSession(String userId, String sessionId);
+
+    /**
+     * Replaces the session with {@code next} in one transaction, but only while the stored refresh hash
+     * still equals {@code expectedRefreshHash} and the session has not expired. Returns false when another
+     * refresh already consumed the token or the session is gone.
+     */
+    boolean rotateSession(String userId, String sessionId, String expectedRefreshHash, SessionItem next,
+                          long nowEpochSeconds);
+
+    boolean isSessionActive(String userId, String sessionId);
+
+    /**
+     * Of the given sessions (sessionId to its userId), the ids that exist and have not expired, read with
+     * strongly consistent BatchGetItem calls of up to 100 keys.
+     */
+    Set<String> findActiveSessionIds(Map<String, String> userIdBySessionId, long nowEpochSeconds);
+
+    void revokeSession(String userId, String sessionId);
+
+    /**
+     * Deletes the session only if it exists and has not expired, in one conditional call.
+     * Returns the revoked session, or empty when there was no active session to revoke.
+     */
+    Optional<SessionItem> revokeIfActive(String userId, String sessionId, long nowEpochSeconds);
+
+    /**
+     * Sets the session's lastSeenAt with a partial update; does nothing when the session row is gone
+     * (revoked, evicted or removed by TTL) rather than recreating it.
+     */
+    void updateLastSeen(String userId, String sessionId, Instant lastSeenAt);
+
     List<String> listActiveSessionIdsByUser(String userId, int limit);
+
+    /**
+     * Reads up to {@code limit} unexpired sessions of the user (sessionId, createdAt, ip and userAgent
+     * only), continuing after {@code cursor} when one from a previous page is given.
+     */
+    SessionPage listActiveSessionsByUser(String userId, int limit, String cursor);
+
+    /** Removes every session row of the user in batched deletes; returns how many were removed. */
+    int revokeAllForUser(String userId);
 }
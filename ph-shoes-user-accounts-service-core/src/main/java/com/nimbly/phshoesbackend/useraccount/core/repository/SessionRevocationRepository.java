@@ -0,0 +1,13 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository;
+
+import com.nimbly.phshoesbackend.useraccount.core.model.RevokedSession;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SessionRevocationRepository {
+    void recordRevocation(String jti, long expiresAtEpochSec, Instant revokedAt);
+
+    /** Revocations recorded strictly after {@code since}, oldest first. */
+    List<RevokedSession> findRevokedSince(Instant since);
+}
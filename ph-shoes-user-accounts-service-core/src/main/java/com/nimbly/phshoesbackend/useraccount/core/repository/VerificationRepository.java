@@ -1,6 +1,7 @@
 package com.nimbly.phshoesbackend.useraccount.core.repository;
 
 
+import com.nimbly.phshoesbackend.useraccount.core.model.VerificationConsumeOutcome;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationEntry;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationStatus;
 
@@ -9,7 +10,14 @@ import java.util.Optional;
 public interface VerificationRepository {
     void put(VerificationEntry entry);
     Optional<VerificationEntry> getById(String verificationId, boolean consistentRead);
-    void markUsedIfPendingAndNotExpired(String verificationId, long nowEpochSeconds);
+
+    /**
+     * Marks the pending, unexpired entry VERIFIED and sets the account's isVerified in one
+     * TransactWriteItems, classifying a cancelled transaction from the items' old values. With a null
+     * {@code userId} only the entry is consumed.
+     */
+    VerificationConsumeOutcome consumeAndVerifyAccount(String verificationId, String userId, long nowEpochSeconds);
+
     void markStatusIfPending(String verificationId, VerificationStatus newStatus);
     boolean hasVerifiedEntryForEmailHash(String emailHash);
 }
@@ -2,24 +2,36 @@
 package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
 
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.model.LoginFailure;
 import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.AccountAttrs;
 import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
 public class DynamoDbAccountRepository implements AccountRepository {
 
     private final DynamoDbClient ddb;
+    private final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @Override
     public Optional<Account> findByUserId(String userId) {
@@ -48,21 +60,59 @@ public class DynamoDbAccountRepository implements AccountRepository {
         return Optional.of(mapToAccount(query.items().get(0)));
     }
 
+    /**
+     * Queries every candidate hash concurrently on virtual threads and returns the match with the
+     * highest priority (the order given, primary pepper first); lower-priority lookups still in
+     * flight are cancelled once it is known.
+     */
     @Override
     public Optional<Account> findByAnyEmailHash(List<String> emailHashes) {
         if (emailHashes == null || emailHashes.isEmpty()) {
             return Optional.empty();
         }
-        for (String emailHash : emailHashes) {
-            if (emailHash == null || emailHash.isBlank()) {
-                continue;
-            }
-            Optional<Account> account = findByEmailHash(emailHash);
-            if (account.isPresent()) {
-                return account;
+        List<String> candidates = emailHashes.stream()
+                .filter(h -> h != null && !h.isBlank())
+                .distinct()
+                .toList();
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        if (candidates.size() == 1) {
+            return findByEmailHash(candidates.get(0));
+        }
+
+        List<Future<Optional<Account>>> lookups = new ArrayList<>(candidates.size());
+        for (String emailHash : candidates) {
+            lookups.add(lookupExecutor.submit(() -> findByEmailHash(emailHash)));
+        }
+        try {
+            for (Future<Optional<Account>> lookup : lookups) {
+                Optional<Account> account = await(lookup);
+                if (account.isPresent()) {
+                    return account;
+                }
             }
+            return Optional.empty();
+        } finally {
+            lookups.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving email hash candidates", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
         }
-        return Optional.empty();
+    }
+
+    @PreDestroy
+    void shutdownLookups() {
+        lookupExecutor.shutdownNow();
     }
 
     @Override
@@ -80,6 +130,66 @@ public class DynamoDbAccountRepository implements AccountRepository {
 
     @Override
     public void save(Account account) {
+        ddb.putItem(PutItemRequest.builder()
+                .tableName(AccountAttrs.TABLE)
+                .item(toItem(account))
+                .build());
+        account.markPersisted();
+    }
+
+    @Override
+    public void saveChanges(Account account) {
+        if (!account.wasLoaded()) {
+            save(account);
+            return;
+        }
+        Set<String> changed = account.changedAttributes();
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        var item = toItem(account);
+        var names = new HashMap<String, String>();
+        var values = new HashMap<String, AttributeValue>();
+        var sets = new ArrayList<String>();
+        var removes = new ArrayList<String>();
+        names.put("#pk", AccountAttrs.PK_USERID);
+
+        int i = 0;
+        for (String attr : changed) {
+            String name = "#a" + i;
+            names.put(name, attr);
+            AttributeValue value = item.get(attr);
+            if (value == null) {
+                removes.add(name);
+            } else {
+                String placeholder = ":v" + i;
+                values.put(placeholder, value);
+                sets.add(name + " = " + placeholder);
+            }
+            i++;
+        }
+
+        var expression = new StringBuilder();
+        if (!sets.isEmpty()) expression.append("SET ").append(String.join(", ", sets));
+        if (!removes.isEmpty()) {
+            if (!expression.isEmpty()) expression.append(' ');
+            expression.append("REMOVE ").append(String.join(", ", removes));
+        }
+
+        var request = UpdateItemRequest.builder()
+                .tableName(AccountAttrs.TABLE)
+                .key(Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(account.getUserId())))
+                .updateExpression(expression.toString())
+                .conditionExpression("attribute_exists(#pk)")
+                .expressionAttributeNames(names);
+        if (!values.isEmpty()) request.expressionAttributeValues(values);
+
+        ddb.updateItem(request.build());
+        account.markPersisted();
+    }
+
+    private Map<String, AttributeValue> toItem(Account account) {
         var item = new LinkedHashMap<String, AttributeValue>(16);
 
         if (account.getUserId() != null)
@@ -108,11 +218,10 @@ public class DynamoDbAccountRepository implements AccountRepository {
             item.put(AccountAttrs.LAST_LOGIN_IP, AttributeValue.fromS(account.getLastLoginIp()));
         if (account.getLastLoginUserAgent() != null)
             item.put(AccountAttrs.LAST_LOGIN_UA, AttributeValue.fromS(account.getLastLoginUserAgent()));
+        if (account.getTokensValidAfter() != null)
+            item.put(AccountAttrs.TOKENS_VALID_AFTER, AttributeValue.fromS(account.getTokensValidAfter().toString()));
 
-        ddb.putItem(PutItemRequest.builder()
-                .tableName(AccountAttrs.TABLE)
-                .item(item)
-                .build());
+        return item;
     }
 
     @Override
@@ -135,6 +244,108 @@ public class DynamoDbAccountRepository implements AccountRepository {
     }
 
 
+    @Override
+    public void updateLastLogin(String userId, Instant lastLoginAt, String lastLoginIp, String lastLoginUserAgent) {
+        var values = new HashMap<String, AttributeValue>();
+        values.put(":at", AttributeValue.fromS(lastLoginAt.toString()));
+        var sets = new ArrayList<String>();
+        sets.add("#at = :at");
+        var removes = new ArrayList<String>();
+        if (lastLoginIp != null) {
+            values.put(":ip", AttributeValue.fromS(lastLoginIp));
+            sets.add("#ip = :ip");
+        } else {
+            removes.add("#ip");
+        }
+        if (lastLoginUserAgent != null) {
+            values.put(":ua", AttributeValue.fromS(lastLoginUserAgent));
+            sets.add("#ua = :ua");
+        } else {
+            removes.add("#ua");
+        }
+
+        try {
+            ddb.updateItem(UpdateItemRequest.builder()
+                    .tableName(AccountAttrs.TABLE)
+                    .key(Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(userId)))
+                    .updateExpression("SET " + String.join(", ", sets)
+                            + (removes.isEmpty() ? "" : " REMOVE " + String.join(", ", removes)))
+                    .conditionExpression("attribute_exists(#pk)")
+                    .expressionAttributeNames(Map.of(
+                            "#at", AccountAttrs.LAST_LOGIN_AT,
+                            "#ip", AccountAttrs.LAST_LOGIN_IP,
+                            "#ua", AccountAttrs.LAST_LOGIN_UA,
+                            "#pk", AccountAttrs.PK_USERID
+                    ))
+                    .expressionAttributeValues(values)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // account deleted since the login; nothing to record
+        }
+    }
+
+    @Override
+    public LoginFailure recordLoginFailure(String userId, int maxFailures, Duration lockDuration) {
+        var key = Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(userId));
+        Instant now = Instant.now();
+
+        int failCount;
+        try {
+            var response = ddb.updateItem(UpdateItemRequest.builder()
+                    .tableName(AccountAttrs.TABLE)
+                    .key(key)
+                    .updateExpression("ADD #c :one SET #u = :now")
+                    .conditionExpression("attribute_exists(#pk)")
+                    .expressionAttributeNames(Map.of(
+                            "#c", AccountAttrs.LOGIN_FAIL_COUNT,
+                            "#u", AccountAttrs.UPDATED_AT,
+                            "#pk", AccountAttrs.PK_USERID
+                    ))
+                    .expressionAttributeValues(Map.of(
+                            ":one", AttributeValue.fromN("1"),
+                            ":now", AttributeValue.fromS(now.toString())
+                    ))
+                    .returnValues(ReturnValue.UPDATED_NEW)
+                    .build());
+            var n = response.attributes().get(AccountAttrs.LOGIN_FAIL_COUNT);
+            failCount = n == null || n.n() == null ? 1 : Integer.parseInt(n.n());
+        } catch (ConditionalCheckFailedException e) {
+            // account vanished between lookup and update; nothing to count
+            return new LoginFailure(0, null);
+        }
+
+        if (failCount < maxFailures) {
+            return new LoginFailure(failCount, null);
+        }
+
+        // only the attempt that still sees the counter at/over the threshold applies the lock;
+        // concurrent attempts that crossed it too lose the condition once the counter is reset
+        Instant lockUntil = now.plus(lockDuration);
+        try {
+            ddb.updateItem(UpdateItemRequest.builder()
+                    .tableName(AccountAttrs.TABLE)
+                    .key(key)
+                    .updateExpression("SET #l = :lock, #c = :zero, #u = :now")
+                    .conditionExpression("#c >= :max")
+                    .expressionAttributeNames(Map.of(
+                            "#l", AccountAttrs.LOCK_UNTIL,
+                            "#c", AccountAttrs.LOGIN_FAIL_COUNT,
+                            "#u", AccountAttrs.UPDATED_AT
+                    ))
+                    .expressionAttributeValues(Map.of(
+                            ":lock", AttributeValue.fromS(lockUntil.toString()),
+                            ":zero", AttributeValue.fromN("0"),
+                            ":max", AttributeValue.fromN(Integer.toString(maxFailures)),
+                            ":now", AttributeValue.fromS(now.toString())
+                    ))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // a concurrent attempt already applied the lock
+        }
+        return new LoginFailure(failCount, lockUntil);
+    }
+
+
     private Account mapToAccount(Map<String, AttributeValue> item) {
         var account = new Account();
 
@@ -177,9 +388,47 @@ public class DynamoDbAccountRepository implements AccountRepository {
         v = item.get(AccountAttrs.LAST_LOGIN_UA);
         account.setLastLoginUserAgent(v == null ? null : v.s());
 
+        v = item.get(AccountAttrs.TOKENS_VALID_AFTER);
+        account.setTokensValidAfter(v == null || v.s() == null ? null : Instant.parse(v.s()));
+
+        account.markPersisted();
         return account;
     }
 
+    @Override
+    public void setTokensValidAfter(String userId, Instant validAfter) {
+        ddb.updateItem(UpdateItemRequest.builder()
+                .tableName(AccountAttrs.TABLE)
+                .key(Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(userId)))
+                .updateExpression("SET #t = :t, #u = :now")
+                .conditionExpression("attribute_exists(#pk)")
+                .expressionAttributeNames(Map.of(
+                        "#t", AccountAttrs.TOKENS_VALID_AFTER,
+                        "#u", AccountAttrs.UPDATED_AT,
+                        "#pk", AccountAttrs.PK_USERID
+                ))
+                .expressionAttributeValues(Map.of(
+                        ":t", AttributeValue.fromS(validAfter.toString()),
+                        ":now", AttributeValue.fromS(Instant.now().toString())
+                ))
+                .build());
+    }
+
+    @Override
+    public Optional<Instant> findTokensValidAfter(String userId) {
+        var response = ddb.getItem(GetItemRequest.builder()
+                .tableName(AccountAttrs.TABLE)
+                .key(Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(userId)))
+                .projectionExpression("#pk, #t")
+                .expressionAttributeNames(Map.of("#pk", AccountAttrs.PK_USERID, "#t", AccountAttrs.TOKENS_VALID_AFTER))
+                .build());
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return Optional.of(Instant.MAX);
+        }
+        var v = response.item().get(AccountAttrs.TOKENS_VALID_AFTER);
+        return v == null || v.s() == null ? Optional.empty() : Optional.of(Instant.parse(v.s()));
+    }
+
     @Override
     public void deleteByUserId(String userId) {
         ddb.deleteItem(DeleteItemRequest.builder()
@@ -187,5 +436,50 @@ public class DynamoDbAccountRepository implements AccountRepository {
                 .key(Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(userId)))
                 .build());
     }
-}
 
+    @Override
+    public void scanEmailIdentities(int segment, int totalSegments, int pageSize, Consumer<List<Account>> pageConsumer) {
+        var pages = ddb.scanPaginator(ScanRequest.builder()
+                .tableName(AccountAttrs.TABLE)
+                .segment(segment)
+                .totalSegments(totalSegments)
+                .limit(pageSize)
+                .projectionExpression("#pk, #e, #enc")
+                .expressionAttributeNames(Map.of(
+                        "#pk", AccountAttrs.PK_USERID,
+                        "#e", AccountAttrs.EMAIL_HASH,
+                        "#enc", AccountAttrs.EMAIL_ENC
+                ))
+                .build());
+
+        for (ScanResponse page : pages) {
+            if (page.hasItems() && !page.items().isEmpty()) {
+                pageConsumer.accept(page.items().stream().map(this::mapToAccount).toList());
+            }
+        }
+    }
+
+    @Override
+    public boolean replaceEmailHash(String userId, String expectedHash, String newHash) {
+        try {
+            ddb.updateItem(UpdateItemRequest.builder()
+                    .tableName(AccountAttrs.TABLE)
+                    .key(Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(userId)))
+                    .updateExpression("SET #e = :new, #u = :now")
+                    .conditionExpression("#e = :expected")
+                    .expressionAttributeNames(Map.of(
+                            "#e", AccountAttrs.EMAIL_HASH,
+                            "#u", AccountAttrs.UPDATED_AT
+                    ))
+                    .expressionAttributeValues(Map.of(
+                            ":new", AttributeValue.fromS(newHash),
+                            ":expected", AttributeValue.fromS(expectedHash),
+                            ":now", AttributeValue.fromS(Instant.now().toString())
+                    ))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
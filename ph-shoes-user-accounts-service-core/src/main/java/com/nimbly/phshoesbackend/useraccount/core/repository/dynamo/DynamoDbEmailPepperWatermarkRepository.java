@@ -0,0 +1,46 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.MaintenanceAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.EmailPepperWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class DynamoDbEmailPepperWatermarkRepository implements EmailPepperWatermarkRepository {
+
+    private final DynamoDbClient ddb;
+
+    @Override
+    public Optional<String> findCompletedGeneration() {
+        var response = ddb.getItem(GetItemRequest.builder()
+                .tableName(MaintenanceAttrs.TABLE)
+                .key(Map.of(MaintenanceAttrs.PK_NAME, AttributeValue.fromS(MaintenanceAttrs.EMAIL_PEPPER_WATERMARK)))
+                .consistentRead(true)
+                .build());
+
+        if (!response.hasItem()) return Optional.empty();
+        var generation = response.item().get(MaintenanceAttrs.GENERATION);
+        return generation == null || generation.s() == null ? Optional.empty() : Optional.of(generation.s());
+    }
+
+    @Override
+    public void markCompleted(String generation) {
+        ddb.putItem(PutItemRequest.builder()
+                .tableName(MaintenanceAttrs.TABLE)
+                .item(Map.of(
+                        MaintenanceAttrs.PK_NAME, AttributeValue.fromS(MaintenanceAttrs.EMAIL_PEPPER_WATERMARK),
+                        MaintenanceAttrs.GENERATION, AttributeValue.fromS(generation),
+                        MaintenanceAttrs.UPDATED_AT, AttributeValue.fromS(Instant.now().toString())
+                ))
+                .build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.MaintenanceAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.MaintenanceLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class DynamoDbMaintenanceLeaseRepository implements MaintenanceLeaseRepository {
+
+    private final DynamoDbClient ddb;
+
+    @Override
+    public boolean tryAcquire(String job, String owner, long leaseUntilEpochSeconds, long nowEpochSeconds) {
+        try {
+            ddb.updateItem(UpdateItemRequest.builder()
+                    .tableName(MaintenanceAttrs.TABLE)
+                    .key(key(job))
+                    .updateExpression("SET #o = :owner, #lu = :until, #u = :updatedAt")
+                    .conditionExpression("attribute_not_exists(#done) AND (attribute_not_exists(#lu) OR #lu < :now OR #o = :owner)")
+                    .expressionAttributeNames(Map.of(
+                            "#o", MaintenanceAttrs.LEASE_OWNER,
+                            "#lu", MaintenanceAttrs.LEASE_UNTIL,
+                            "#u", MaintenanceAttrs.UPDATED_AT,
+                            "#done", MaintenanceAttrs.COMPLETED_AT))
+                    .expressionAttributeValues(Map.of(
+                            ":owner", AttributeValue.fromS(owner),
+                            ":until", AttributeValue.fromN(Long.toString(leaseUntilEpochSeconds)),
+                            ":now", AttributeValue.fromN(Long.toString(nowEpochSeconds)),
+                            ":updatedAt", AttributeValue.fromS(Instant.now().toString())))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String job, String owner) {
+        try {
+            ddb.updateItem(UpdateItemRequest.builder()
+                    .tableName(MaintenanceAttrs.TABLE)
+                    .key(key(job))
+                    .updateExpression("REMOVE #o, #lu")
+                    .conditionExpression("#o = :owner")
+                    .expressionAttributeNames(Map.of(
+                            "#o", MaintenanceAttrs.LEASE_OWNER,
+                            "#lu", MaintenanceAttrs.LEASE_UNTIL))
+                    .expressionAttributeValues(Map.of(":owner", AttributeValue.fromS(owner)))
+                    .build());
+        } catch (ConditionalCheckFailedException ignored) {
+            // lease already expired and taken over; nothing to give back
+        }
+    }
+
+    @Override
+    public void markCompleted(String job) {
+        ddb.updateItem(UpdateItemRequest.builder()
+                .tableName(MaintenanceAttrs.TABLE)
+                .key(key(job))
+                .updateExpression("SET #done = :at, #u = :at REMOVE #o, #lu")
+                .expressionAttributeNames(Map.of(
+                        "#done", MaintenanceAttrs.COMPLETED_AT,
+                        "#u", MaintenanceAttrs.UPDATED_AT,
+                        "#o", MaintenanceAttrs.LEASE_OWNER,
+                        "#lu", MaintenanceAttrs.LEASE_UNTIL))
+                .expressionAttributeValues(Map.of(":at", AttributeValue.fromS(Instant.now().toString())))
+                .build());
+    }
+
+    @Override
+    public boolean isCompleted(String job) {
+        var response = ddb.getItem(GetItemRequest.builder()
+                .tableName(MaintenanceAttrs.TABLE)
+                .key(key(job))
+                .consistentRead(true)
+                .build());
+        return response.hasItem() && response.item().containsKey(MaintenanceAttrs.COMPLETED_AT);
+    }
+
+    private static Map<String, AttributeValue> key(String job) {
+        return Map.of(MaintenanceAttrs.PK_NAME, AttributeValue.fromS(job));
+    }
+}
@@ -1,16 +1,31 @@
 package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
 
 import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionPage;
 import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.SessionAttrs;
 import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.*;
 import software.amazon.awssdk.enhanced.dynamodb.model.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Sessions in the legacy {@code login_sessions} table, keyed by sessionId with per-user access
+ * through the {@code gsi_userId} index.
+ */
 @Repository
 @RequiredArgsConstructor
 public class DynamoDbSessionRepository implements SessionRepository {
@@ -25,7 +40,36 @@ public class DynamoDbSessionRepository implements SessionRepository {
     }
 
     @Override
-    public void createSession(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent) {
+    public void createSession(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent,
+                              String refreshTokenHash) {
+        table().putItem(newItem(sessionId, userId, expiresAtEpochSec, ip, userAgent, refreshTokenHash));
+    }
+
+    @Override
+    public List<SessionItem> createSessionWithinCap(String sessionId, String userId, long expiresAtEpochSec,
+                                                    String ip, String userAgent, String refreshTokenHash,
+                                                    int maxSessions) {
+        long now = Instant.now().getEpochSecond();
+        var existing = new ArrayList<SessionItem>();
+        var pages = byUserId().query(r -> r
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
+                .attributesToProject(SessionAttrs.PK_SESSION, SessionAttrs.CREATED_AT, SessionAttrs.EXPIRES_AT)
+                .filterExpression(SessionTableSupport.liveFilter(now))
+        );
+        for (Page<SessionItem> page : pages) {
+            existing.addAll(page.items());
+        }
+        var evicted = SessionTableSupport.pickEvictions(existing, maxSessions, now);
+        var deletes = evicted.stream()
+                .map(s -> Key.builder().partitionValue(s.getSessionId()).build())
+                .toList();
+        SessionTableSupport.putWithDeletes(enhanced, table(), SessionItem.class,
+                newItem(sessionId, userId, expiresAtEpochSec, ip, userAgent, refreshTokenHash), deletes);
+        return evicted;
+    }
+
+    private static SessionItem newItem(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent,
+                                       String refreshTokenHash) {
         var item = new SessionItem();
         item.setSessionId(sessionId);
         item.setUserId(userId);
@@ -33,37 +77,167 @@ public class DynamoDbSessionRepository implements SessionRepository {
         item.setExpiresAt(expiresAtEpochSec);
         item.setIp(ip);
         item.setUserAgent(userAgent);
-        table().putItem(item);
+        item.setRefreshTokenHash(refreshTokenHash);
+        return item;
+    }
+
+    @Override
+    public Optional<SessionItem> findSession(String userId, String sessionId) {
+        return Optional.ofNullable(table().getItem(r -> r.key(Key.builder().partitionValue(sessionId).build()).consistentRead(true)));
+    }
+
+    @Override
+    public boolean rotateSession(String userId, String sessionId, String expectedRefreshHash, SessionItem next,
+                                 long nowEpochSeconds) {
+        var table = table();
+        try {
+            enhanced.transactWriteItems(TransactWriteItemsEnhancedRequest.builder()
+                    .addDeleteItem(table, TransactDeleteItemEnhancedRequest.builder()
+                            .key(Key.builder().partitionValue(sessionId).build())
+                            .conditionExpression(SessionTableSupport.refreshMatchesCondition(expectedRefreshHash, nowEpochSeconds))
+                            .build())
+                    .addPutItem(table, TransactPutItemEnhancedRequest.builder(SessionItem.class)
+                            .item(next)
+                            .conditionExpression(SessionTableSupport.absentCondition())
+                            .build())
+                    .build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            return false;
+        }
     }
 
     @Override
-    public boolean isSessionActive(String sessionId) {
+    public boolean isSessionActive(String userId, String sessionId) {
         var out = table().getItem(r -> r.key(Key.builder().partitionValue(sessionId).build()).consistentRead(true));
         if (out == null || out.getExpiresAt() == null) return false;
         return out.getExpiresAt() > Instant.now().getEpochSecond();
     }
 
     @Override
-    public void revokeSession(String sessionId) {
+    public Set<String> findActiveSessionIds(Map<String, String> userIdBySessionId, long nowEpochSeconds) {
+        var keys = userIdBySessionId.keySet().stream()
+                .map(sessionId -> Key.builder().partitionValue(sessionId).build())
+                .toList();
+        var out = new HashSet<String>();
+        for (SessionItem item : SessionTableSupport.batchGet(enhanced, table(), SessionItem.class, keys)) {
+            // keyed by sessionId alone, so the row must also belong to the token's user
+            if (item.getExpiresAt() != null && item.getExpiresAt() > nowEpochSeconds
+                    && Objects.equals(item.getUserId(), userIdBySessionId.get(item.getSessionId()))) {
+                out.add(item.getSessionId());
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void revokeSession(String userId, String sessionId) {
         table().deleteItem(r -> r.key(Key.builder().partitionValue(sessionId).build()));
     }
 
+    @Override
+    public Optional<SessionItem> revokeIfActive(String userId, String sessionId, long nowEpochSeconds) {
+        try {
+            // the enhanced client deletes with ReturnValues ALL_OLD and maps the old item back
+            return Optional.ofNullable(table().deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(sessionId).build())
+                    .conditionExpression(SessionTableSupport.activeCondition(nowEpochSeconds))
+                    .build()));
+        } catch (ConditionalCheckFailedException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void updateLastSeen(String userId, String sessionId, Instant lastSeenAt) {
+        var item = new SessionItem();
+        item.setSessionId(sessionId);
+        item.setLastSeenAt(lastSeenAt);
+        try {
+            table().updateItem(UpdateItemEnhancedRequest.builder(SessionItem.class)
+                    .item(item)
+                    .ignoreNulls(true)
+                    .conditionExpression(SessionTableSupport.existsCondition())
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // session ended since the request was seen
+        }
+    }
+
     @Override
     public List<String> listActiveSessionIdsByUser(String userId, int limit) {
-        var now = Instant.now().getEpochSecond();
-        var out = new ArrayList<String>();
-        var q = byUserId().query(r -> r
+        return listActiveSessionsByUser(userId, limit, null).sessions().stream()
+                .map(SessionItem::getSessionId)
+                .toList();
+    }
+
+    @Override
+    public SessionPage listActiveSessionsByUser(String userId, int limit, String cursor) {
+        final int pageSize = limit <= 0 ? SessionTableSupport.DEFAULT_PAGE_SIZE : limit;
+        var request = QueryEnhancedRequest.builder()
                 .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
-                .limit(limit <= 0 ? 25 : limit)
+                .filterExpression(SessionTableSupport.liveFilter(Instant.now().getEpochSecond()))
+                .attributesToProject(SessionAttrs.PK_SESSION, SessionAttrs.CREATED_AT, SessionAttrs.IP, SessionAttrs.USER_AGENT,
+                        SessionAttrs.LAST_SEEN_AT)
+                .limit(pageSize);
+        if (cursor != null && !cursor.isBlank()) {
+            request.exclusiveStartKey(Map.of(
+                    SessionAttrs.PK_SESSION, AttributeValue.fromS(SessionTableSupport.decodeCursor(cursor)),
+                    SessionAttrs.USER_ID, AttributeValue.fromS(userId)));
+        }
+
+        var out = new ArrayList<SessionItem>(pageSize);
+        for (Page<SessionItem> page : byUserId().query(request.build())) {
+            var items = page.items();
+            for (int i = 0; i < items.size(); i++) {
+                out.add(items.get(i));
+                if (out.size() == pageSize) {
+                    boolean more = i < items.size() - 1 || page.lastEvaluatedKey() != null;
+                    return new SessionPage(out, more ? SessionTableSupport.encodeCursor(items.get(i).getSessionId()) : null);
+                }
+            }
+            if (page.lastEvaluatedKey() == null) {
+                break;
+            }
+        }
+        return new SessionPage(out, null);
+    }
+
+    @Override
+    public int revokeAllForUser(String userId) {
+        var table = table();
+        var pages = byUserId().query(r -> r
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
+                .attributesToProject(SessionAttrs.PK_SESSION)
         );
-        for (Page<SessionItem> page : q) {
+        int removed = 0;
+        var chunk = new ArrayList<Key>(SessionTableSupport.BATCH_WRITE_LIMIT);
+        for (Page<SessionItem> page : pages) {
             for (SessionItem si : page.items()) {
-                if (si.getExpiresAt() != null && si.getExpiresAt() > now) {
-                    out.add(si.getSessionId());
-                    if (out.size() >= (limit <= 0 ? 25 : limit)) return out;
+                chunk.add(Key.builder().partitionValue(si.getSessionId()).build());
+                if (chunk.size() == SessionTableSupport.BATCH_WRITE_LIMIT) {
+                    removed += SessionTableSupport.deleteBatch(enhanced, table, SessionItem.class, chunk);
+                    chunk.clear();
                 }
             }
         }
-        return out;
+        if (!chunk.isEmpty()) {
+            removed += SessionTableSupport.deleteBatch(enhanced, table, SessionItem.class, chunk);
+        }
+        return removed;
+    }
+
+    /** Scans one segment of a parallel scan of the whole table, handing each page to {@code pageConsumer}. */
+    public void scanSegment(int segment, int totalSegments, int pageSize, Consumer<List<SessionItem>> pageConsumer) {
+        var pages = table().scan(ScanEnhancedRequest.builder()
+                .segment(segment)
+                .totalSegments(totalSegments)
+                .limit(pageSize)
+                .build());
+        for (Page<SessionItem> page : pages) {
+            if (!page.items().isEmpty()) {
+                pageConsumer.accept(page.items());
+            }
+        }
     }
-}
\ No newline at end of file
+}
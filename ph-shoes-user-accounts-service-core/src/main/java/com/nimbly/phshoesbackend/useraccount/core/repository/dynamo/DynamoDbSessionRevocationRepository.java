@@ -0,0 +1,87 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionRevocationProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.RevokedSession;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.RevocationAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRevocationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class DynamoDbSessionRevocationRepository implements SessionRevocationRepository {
+
+    private final DynamoDbClient ddb;
+    private final SessionRevocationProps props;
+
+    @Override
+    public void recordRevocation(String jti, long expiresAtEpochSec, Instant revokedAt) {
+        ddb.putItem(PutItemRequest.builder()
+                .tableName(RevocationAttrs.TABLE)
+                .item(Map.of(
+                        RevocationAttrs.PK_BUCKET, AttributeValue.fromS(bucket(LocalDate.ofInstant(revokedAt, ZoneOffset.UTC), shardOf(jti))),
+                        RevocationAttrs.SK_REVOKED, AttributeValue.fromS(sortKey(revokedAt) + "#" + jti),
+                        RevocationAttrs.JTI, AttributeValue.fromS(jti),
+                        RevocationAttrs.REVOKED_AT, AttributeValue.fromN(Long.toString(revokedAt.toEpochMilli())),
+                        RevocationAttrs.EXPIRES_AT, AttributeValue.fromN(Long.toString(expiresAtEpochSec))
+                ))
+                .build());
+    }
+
+    @Override
+    public List<RevokedSession> findRevokedSince(Instant since) {
+        List<RevokedSession> out = new ArrayList<>();
+        // "~" sorts after "#", so the bound excludes every jti revoked at exactly `since`
+        String after = sortKey(since) + "~";
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (LocalDate day = LocalDate.ofInstant(since, ZoneOffset.UTC); !day.isAfter(today); day = day.plusDays(1)) {
+            for (int shard = 0; shard < shards(); shard++) {
+                var request = QueryRequest.builder()
+                        .tableName(RevocationAttrs.TABLE)
+                        .keyConditionExpression("#b = :b AND #k > :after")
+                        .expressionAttributeNames(Map.of("#b", RevocationAttrs.PK_BUCKET, "#k", RevocationAttrs.SK_REVOKED))
+                        .expressionAttributeValues(Map.of(
+                                ":b", AttributeValue.fromS(bucket(day, shard)),
+                                ":after", AttributeValue.fromS(after)))
+                        .build();
+                for (Map<String, AttributeValue> item : ddb.queryPaginator(request).items()) {
+                    out.add(new RevokedSession(
+                            item.get(RevocationAttrs.JTI).s(),
+                            Long.parseLong(item.get(RevocationAttrs.EXPIRES_AT).n()),
+                            Instant.ofEpochMilli(Long.parseLong(item.get(RevocationAttrs.REVOKED_AT).n()))));
+                }
+            }
+        }
+        // shards are each ordered; callers rely on oldest first across all of them
+        out.sort(Comparator.comparing(RevokedSession::revokedAt));
+        return out;
+    }
+
+    private int shards() {
+        return Math.max(1, props.getBucketShards());
+    }
+
+    private int shardOf(String jti) {
+        return Math.floorMod(jti.hashCode(), shards());
+    }
+
+    private static String bucket(LocalDate day, int shard) {
+        return day + "#" + shard;
+    }
+
+    private static String sortKey(Instant at) {
+        return String.format("%013d", at.toEpochMilli());
+    }
+}
@@ -0,0 +1,247 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionPage;
+import com.nimbly.phshoesbackend.useraccount.core.model.UserSessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.SessionAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.enhanced.dynamodb.model.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sessions in {@code user_sessions}, keyed by userId + sessionId. Per-user listing and bulk
+ * revocation are single-partition, strongly consistent queries.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DynamoDbUserSessionRepository implements SessionRepository {
+
+    private final DynamoDbEnhancedClient enhanced;
+
+    private DynamoDbTable<UserSessionItem> table() {
+        return enhanced.table(SessionAttrs.TABLE_V2, TableSchema.fromBean(UserSessionItem.class));
+    }
+
+    private static Key key(String userId, String sessionId) {
+        return Key.builder().partitionValue(userId).sortValue(sessionId).build();
+    }
+
+    @Override
+    public void createSession(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent,
+                              String refreshTokenHash) {
+        table().putItem(newItem(sessionId, userId, expiresAtEpochSec, ip, userAgent, refreshTokenHash));
+    }
+
+    @Override
+    public List<SessionItem> createSessionWithinCap(String sessionId, String userId, long expiresAtEpochSec,
+                                                    String ip, String userAgent, String refreshTokenHash,
+                                                    int maxSessions) {
+        long now = Instant.now().getEpochSecond();
+        var existing = new ArrayList<SessionItem>();
+        var pages = table().query(r -> r
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
+                .attributesToProject(SessionAttrs.PK_SESSION, SessionAttrs.CREATED_AT, SessionAttrs.EXPIRES_AT)
+                .filterExpression(SessionTableSupport.liveFilter(now))
+                .consistentRead(true)
+        );
+        for (Page<UserSessionItem> page : pages) {
+            page.items().forEach(s -> existing.add(s.toSessionItem()));
+        }
+        var evicted = SessionTableSupport.pickEvictions(existing, maxSessions, now);
+        var deletes = evicted.stream()
+                .map(s -> key(userId, s.getSessionId()))
+                .toList();
+        SessionTableSupport.putWithDeletes(enhanced, table(), UserSessionItem.class,
+                newItem(sessionId, userId, expiresAtEpochSec, ip, userAgent, refreshTokenHash), deletes);
+        return evicted;
+    }
+
+    private static UserSessionItem newItem(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent,
+                                           String refreshTokenHash) {
+        var item = new UserSessionItem();
+        item.setUserId(userId);
+        item.setSessionId(sessionId);
+        item.setCreatedAt(Instant.parse(Instant.now().toString()));
+        item.setExpiresAt(expiresAtEpochSec);
+        item.setIp(ip);
+        item.setUserAgent(userAgent);
+        item.setRefreshTokenHash(refreshTokenHash);
+        return item;
+    }
+
+    /** Copies a legacy row unless the session already exists here; returns whether it was written. */
+    public boolean copyIfAbsent(SessionItem session) {
+        try {
+            table().putItem(PutItemEnhancedRequest.builder(UserSessionItem.class)
+                    .item(UserSessionItem.from(session))
+                    .conditionExpression(Expression.builder()
+                            .expression("attribute_not_exists(#sid)")
+                            .putExpressionName("#sid", SessionAttrs.PK_SESSION)
+                            .build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<SessionItem> findSession(String userId, String sessionId) {
+        return Optional.ofNullable(table().getItem(r -> r.key(key(userId, sessionId)).consistentRead(true))).map(UserSessionItem::toSessionItem);
+    }
+
+    @Override
+    public boolean rotateSession(String userId, String sessionId, String expectedRefreshHash, SessionItem next,
+                                 long nowEpochSeconds) {
+        var table = table();
+        try {
+            enhanced.transactWriteItems(TransactWriteItemsEnhancedRequest.builder()
+                    .addDeleteItem(table, TransactDeleteItemEnhancedRequest.builder()
+                            .key(key(userId, sessionId))
+                            .conditionExpression(SessionTableSupport.refreshMatchesCondition(expectedRefreshHash, nowEpochSeconds))
+                            .build())
+                    .addPutItem(table, TransactPutItemEnhancedRequest.builder(UserSessionItem.class)
+                            .item(UserSessionItem.from(next))
+                            .conditionExpression(SessionTableSupport.absentCondition())
+                            .build())
+                    .build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isSessionActive(String userId, String sessionId) {
+        var out = table().getItem(r -> r.key(key(userId, sessionId)).consistentRead(true));
+        if (out == null || out.getExpiresAt() == null) return false;
+        return out.getExpiresAt() > Instant.now().getEpochSecond();
+    }
+
+    @Override
+    public Set<String> findActiveSessionIds(Map<String, String> userIdBySessionId, long nowEpochSeconds) {
+        var keys = userIdBySessionId.entrySet().stream()
+                .map(e -> key(e.getValue(), e.getKey()))
+                .toList();
+        var out = new HashSet<String>();
+        for (UserSessionItem item : SessionTableSupport.batchGet(enhanced, table(), UserSessionItem.class, keys)) {
+            if (item.getExpiresAt() != null && item.getExpiresAt() > nowEpochSeconds) {
+                out.add(item.getSessionId());
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void revokeSession(String userId, String sessionId) {
+        table().deleteItem(r -> r.key(key(userId, sessionId)));
+    }
+
+    @Override
+    public Optional<SessionItem> revokeIfActive(String userId, String sessionId, long nowEpochSeconds) {
+        try {
+            var old = table().deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(key(userId, sessionId))
+                    .conditionExpression(SessionTableSupport.activeCondition(nowEpochSeconds))
+                    .build());
+            return Optional.ofNullable(old).map(UserSessionItem::toSessionItem);
+        } catch (ConditionalCheckFailedException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void updateLastSeen(String userId, String sessionId, Instant lastSeenAt) {
+        var item = new UserSessionItem();
+        item.setUserId(userId);
+        item.setSessionId(sessionId);
+        item.setLastSeenAt(lastSeenAt);
+        try {
+            table().updateItem(UpdateItemEnhancedRequest.builder(UserSessionItem.class)
+                    .item(item)
+                    .ignoreNulls(true)
+                    .conditionExpression(SessionTableSupport.existsCondition())
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // session ended since the request was seen
+        }
+    }
+
+    @Override
+    public List<String> listActiveSessionIdsByUser(String userId, int limit) {
+        return listActiveSessionsByUser(userId, limit, null).sessions().stream()
+                .map(SessionItem::getSessionId)
+                .toList();
+    }
+
+    @Override
+    public SessionPage listActiveSessionsByUser(String userId, int limit, String cursor) {
+        final int pageSize = limit <= 0 ? SessionTableSupport.DEFAULT_PAGE_SIZE : limit;
+        var request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
+                .filterExpression(SessionTableSupport.liveFilter(Instant.now().getEpochSecond()))
+                .attributesToProject(SessionAttrs.PK_SESSION, SessionAttrs.CREATED_AT, SessionAttrs.IP, SessionAttrs.USER_AGENT,
+                        SessionAttrs.LAST_SEEN_AT)
+                .consistentRead(true)
+                .limit(pageSize);
+        if (cursor != null && !cursor.isBlank()) {
+            request.exclusiveStartKey(Map.of(
+                    SessionAttrs.USER_ID, AttributeValue.fromS(userId),
+                    SessionAttrs.PK_SESSION, AttributeValue.fromS(SessionTableSupport.decodeCursor(cursor))));
+        }
+
+        var out = new ArrayList<SessionItem>(pageSize);
+        for (Page<UserSessionItem> page : table().query(request.build())) {
+            var items = page.items();
+            for (int i = 0; i < items.size(); i++) {
+                out.add(items.get(i).toSessionItem());
+                if (out.size() == pageSize) {
+                    boolean more = i < items.size() - 1 || page.lastEvaluatedKey() != null;
+                    return new SessionPage(out, more ? SessionTableSupport.encodeCursor(items.get(i).getSessionId()) : null);
+                }
+            }
+            if (page.lastEvaluatedKey() == null) {
+                break;
+            }
+        }
+        return new SessionPage(out, null);
+    }
+
+    @Override
+    public int revokeAllForUser(String userId) {
+        var table = table();
+        var pages = table.query(r -> r
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
+                .attributesToProject(SessionAttrs.PK_SESSION)
+                .consistentRead(true)
+        );
+        int removed = 0;
+        var chunk = new ArrayList<Key>(SessionTableSupport.BATCH_WRITE_LIMIT);
+        for (Page<UserSessionItem> page : pages) {
+            for (UserSessionItem si : page.items()) {
+                chunk.add(key(userId, si.getSessionId()));
+                if (chunk.size() == SessionTableSupport.BATCH_WRITE_LIMIT) {
+                    removed += SessionTableSupport.deleteBatch(enhanced, table, UserSessionItem.class, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            removed += SessionTableSupport.deleteBatch(enhanced, table, UserSessionItem.class, chunk);
+        }
+        return removed;
+    }
+}
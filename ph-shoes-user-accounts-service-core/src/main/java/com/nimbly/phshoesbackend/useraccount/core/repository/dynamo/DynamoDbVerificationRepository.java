@@ -1,7 +1,9 @@
 package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
 
+import com.nimbly.phshoesbackend.useraccount.core.model.VerificationConsumeOutcome;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationEntry;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationStatus;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.AccountAttrs;
 import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.VerificationAttrs;
 import com.nimbly.phshoesbackend.useraccount.core.repository.VerificationRepository;
 import lombok.RequiredArgsConstructor;
@@ -10,16 +12,29 @@ import software.amazon.awssdk.core.pagination.sync.SdkIterable;
 import software.amazon.awssdk.enhanced.dynamodb.*;
 import software.amazon.awssdk.enhanced.dynamodb.model.*;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 @RequiredArgsConstructor
 public class DynamoDbVerificationRepository implements VerificationRepository {
 
+    private static final String CONDITION_FAILED = "ConditionalCheckFailed";
+
     private final DynamoDbEnhancedClient enhanced;
+    private final DynamoDbClient ddb;
 
     private DynamoDbTable<VerificationEntry> table() {
         return enhanced.table(VerificationAttrs.TABLE, TableSchema.fromBean(VerificationEntry.class));
@@ -40,25 +55,69 @@ public class DynamoDbVerificationRepository implements VerificationRepository {
     }
 
     @Override
-    public void markUsedIfPendingAndNotExpired(String verificationId, long nowEpochSeconds) {
-        var partial = new VerificationEntry();
-        partial.setVerificationId(verificationId);
-        partial.setStatus(VerificationStatus.VERIFIED);
-        partial.setVerifiedAt(Instant.ofEpochSecond(nowEpochSeconds)); // keep Instant type
-
-        var cond = Expression.builder()
-                .expression("#st = :pending AND #exp > :now")
-                .putExpressionName("#st", VerificationAttrs.STATUS)
-                .putExpressionName("#exp", VerificationAttrs.EXPIRES_AT)
-                .putExpressionValue(":pending", AttributeValue.fromS(VerificationStatus.PENDING.name()))
-                .putExpressionValue(":now", AttributeValue.fromN(Long.toString(nowEpochSeconds)))
-                .build();
+    public VerificationConsumeOutcome consumeAndVerifyAccount(String verificationId, String userId, long nowEpochSeconds) {
+        var items = new ArrayList<TransactWriteItem>(2);
+        items.add(TransactWriteItem.builder().update(Update.builder()
+                .tableName(VerificationAttrs.TABLE)
+                .key(Map.of(VerificationAttrs.PK_VERIFICATION_ID, AttributeValue.fromS(verificationId)))
+                .updateExpression("SET #st = :verified, #va = :at")
+                .conditionExpression("#st = :pending AND (attribute_not_exists(#exp) OR #exp > :now)")
+                .expressionAttributeNames(Map.of(
+                        "#st", VerificationAttrs.STATUS,
+                        "#va", VerificationAttrs.VERIFIED_AT,
+                        "#exp", VerificationAttrs.EXPIRES_AT))
+                .expressionAttributeValues(Map.of(
+                        ":verified", AttributeValue.fromS(VerificationStatus.VERIFIED.name()),
+                        ":pending", AttributeValue.fromS(VerificationStatus.PENDING.name()),
+                        ":at", AttributeValue.fromS(Instant.ofEpochSecond(nowEpochSeconds).toString()),
+                        ":now", AttributeValue.fromN(Long.toString(nowEpochSeconds))))
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build()).build());
+        if (userId != null) {
+            items.add(TransactWriteItem.builder().update(Update.builder()
+                    .tableName(AccountAttrs.TABLE)
+                    .key(Map.of(AccountAttrs.PK_USERID, AttributeValue.fromS(userId)))
+                    .updateExpression("SET #v = :true, #u = :updatedAt")
+                    .conditionExpression("attribute_exists(#pk) AND (attribute_not_exists(#v) OR #v = :false)")
+                    .expressionAttributeNames(Map.of(
+                            "#v", AccountAttrs.IS_VERIFIED,
+                            "#u", AccountAttrs.UPDATED_AT,
+                            "#pk", AccountAttrs.PK_USERID))
+                    .expressionAttributeValues(Map.of(
+                            ":true", AttributeValue.fromBool(true),
+                            ":false", AttributeValue.fromBool(false),
+                            ":updatedAt", AttributeValue.fromS(Instant.now().toString())))
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                    .build()).build());
+        }
+        try {
+            ddb.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+            return VerificationConsumeOutcome.CONSUMED;
+        } catch (TransactionCanceledException e) {
+            return classify(e);
+        }
+    }
 
-        table().updateItem(UpdateItemEnhancedRequest.builder(VerificationEntry.class)
-                .item(partial)
-                .ignoreNulls(true)
-                .conditionExpression(cond)
-                .build());
+    // reasons come back in item order: [0] the entry, [1] the account
+    static VerificationConsumeOutcome classify(TransactionCanceledException e) {
+        List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+        if (!reasons.isEmpty() && CONDITION_FAILED.equals(reasons.get(0).code())) {
+            Map<String, AttributeValue> old = reasons.get(0).item();
+            if (old == null || old.isEmpty()) {
+                return VerificationConsumeOutcome.NOT_FOUND;
+            }
+            AttributeValue status = old.get(VerificationAttrs.STATUS);
+            boolean pending = status != null && VerificationStatus.PENDING.name().equals(status.s());
+            return pending ? VerificationConsumeOutcome.EXPIRED : VerificationConsumeOutcome.ALREADY_USED;
+        }
+        if (reasons.size() > 1 && CONDITION_FAILED.equals(reasons.get(1).code())) {
+            Map<String, AttributeValue> old = reasons.get(1).item();
+            return old == null || old.isEmpty()
+                    ? VerificationConsumeOutcome.ACCOUNT_MISSING
+                    : VerificationConsumeOutcome.ALREADY_USED;
+        }
+        // conflicts with a concurrent transaction or throttling, not a business outcome
+        throw e;
     }
 
     @Override
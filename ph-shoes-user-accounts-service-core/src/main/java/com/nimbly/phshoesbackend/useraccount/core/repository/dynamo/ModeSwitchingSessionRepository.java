@@ -0,0 +1,123 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps.Mode;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionPage;
+import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The session store the service uses: routes each call to {@code login_sessions},
+ * {@code user_sessions} or both according to {@code auth.sessions.mode}.
+ */
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class ModeSwitchingSessionRepository implements SessionRepository {
+
+    private final DynamoDbSessionRepository legacy;
+    private final DynamoDbUserSessionRepository v2;
+    private final SessionStoreProps props;
+
+    private SessionRepository reads() {
+        return props.getMode() == Mode.V2 ? v2 : legacy;
+    }
+
+    private Optional<SessionRepository> shadow() {
+        return switch (props.getMode()) {
+            case DUAL_WRITE -> Optional.of(v2);
+            case LEGACY, V2 -> Optional.empty();
+        };
+    }
+
+    @Override
+    public void createSession(String sessionId, String userId, long expiresAtEpochSec, String ip, String userAgent,
+                              String refreshTokenHash) {
+        reads().createSession(sessionId, userId, expiresAtEpochSec, ip, userAgent, refreshTokenHash);
+        shadow().ifPresent(s -> s.createSession(sessionId, userId, expiresAtEpochSec, ip, userAgent, refreshTokenHash));
+    }
+
+    @Override
+    public List<SessionItem> createSessionWithinCap(String sessionId, String userId, long expiresAtEpochSec,
+                                                    String ip, String userAgent, String refreshTokenHash,
+                                                    int maxSessions) {
+        List<SessionItem> evicted = reads().createSessionWithinCap(sessionId, userId, expiresAtEpochSec, ip, userAgent,
+                refreshTokenHash, maxSessions);
+        shadow().ifPresent(s -> {
+            s.createSession(sessionId, userId, expiresAtEpochSec, ip, userAgent, refreshTokenHash);
+            evicted.forEach(e -> s.revokeSession(userId, e.getSessionId()));
+        });
+        return evicted;
+    }
+
+    @Override
+    public Optional<SessionItem> findSession(String userId, String sessionId) {
+        return reads().findSession(userId, sessionId);
+    }
+
+    // a shadow row not backfilled yet fails the condition and is copied later by the backfill
+    @Override
+    public boolean rotateSession(String userId, String sessionId, String expectedRefreshHash, SessionItem next,
+                                 long nowEpochSeconds) {
+        boolean rotated = reads().rotateSession(userId, sessionId, expectedRefreshHash, next, nowEpochSeconds);
+        if (rotated) {
+            shadow().ifPresent(s -> s.rotateSession(userId, sessionId, expectedRefreshHash, next, nowEpochSeconds));
+        }
+        return rotated;
+    }
+
+    @Override
+    public boolean isSessionActive(String userId, String sessionId) {
+        return reads().isSessionActive(userId, sessionId);
+    }
+
+    @Override
+    public Set<String> findActiveSessionIds(Map<String, String> userIdBySessionId, long nowEpochSeconds) {
+        return reads().findActiveSessionIds(userIdBySessionId, nowEpochSeconds);
+    }
+
+    @Override
+    public void revokeSession(String userId, String sessionId) {
+        reads().revokeSession(userId, sessionId);
+        shadow().ifPresent(s -> s.revokeSession(userId, sessionId));
+    }
+
+    @Override
+    public Optional<SessionItem> revokeIfActive(String userId, String sessionId, long nowEpochSeconds) {
+        Optional<SessionItem> revoked = reads().revokeIfActive(userId, sessionId, nowEpochSeconds);
+        shadow().ifPresent(s -> s.revokeSession(userId, sessionId));
+        return revoked;
+    }
+
+    @Override
+    public void updateLastSeen(String userId, String sessionId, Instant lastSeenAt) {
+        reads().updateLastSeen(userId, sessionId, lastSeenAt);
+        shadow().ifPresent(s -> s.updateLastSeen(userId, sessionId, lastSeenAt));
+    }
+
+    @Override
+    public List<String> listActiveSessionIdsByUser(String userId, int limit) {
+        return reads().listActiveSessionIdsByUser(userId, limit);
+    }
+
+    @Override
+    public SessionPage listActiveSessionsByUser(String userId, int limit, String cursor) {
+        return reads().listActiveSessionsByUser(userId, limit, cursor);
+    }
+
+    @Override
+    public int revokeAllForUser(String userId) {
+        int removed = reads().revokeAllForUser(userId);
+        shadow().ifPresent(s -> s.revokeAllForUser(userId));
+        return removed;
+    }
+}
@@ -0,0 +1,182 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidPageCursorException;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.SessionAttrs;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pieces shared by the legacy ({@code login_sessions}) and per-user ({@code user_sessions}) session tables.
+ */
+@Slf4j
+final class SessionTableSupport {
+    private SessionTableSupport() {}
+
+    static final int BATCH_WRITE_LIMIT = 25;
+    static final int BATCH_GET_LIMIT = 100;
+    static final int DEFAULT_PAGE_SIZE = 25;
+    // fits in the new session's own BatchWriteItem, so a login never waits on extra delete batches
+    static final int MAX_EVICTIONS_PER_LOGIN = BATCH_WRITE_LIMIT - 1;
+    private static final int MAX_BATCH_ATTEMPTS = 6;
+    private static final long BASE_BACKOFF_MS = 50;
+
+    static Expression activeCondition(long nowEpochSeconds) {
+        return Expression.builder()
+                .expression("attribute_exists(#sid) AND #exp > :now")
+                .putExpressionName("#sid", SessionAttrs.PK_SESSION)
+                .putExpressionName("#exp", SessionAttrs.EXPIRES_AT)
+                .putExpressionValue(":now", AttributeValue.fromN(Long.toString(nowEpochSeconds)))
+                .build();
+    }
+
+    static Expression refreshMatchesCondition(String refreshTokenHash, long nowEpochSeconds) {
+        return Expression.builder()
+                .expression("#rh = :rh AND #exp > :now")
+                .putExpressionName("#rh", SessionAttrs.REFRESH_HASH)
+                .putExpressionName("#exp", SessionAttrs.EXPIRES_AT)
+                .putExpressionValue(":rh", AttributeValue.fromS(refreshTokenHash))
+                .putExpressionValue(":now", AttributeValue.fromN(Long.toString(nowEpochSeconds)))
+                .build();
+    }
+
+    static Expression absentCondition() {
+        return Expression.builder()
+                .expression("attribute_not_exists(#sid)")
+                .putExpressionName("#sid", SessionAttrs.PK_SESSION)
+                .build();
+    }
+
+    static Expression existsCondition() {
+        return Expression.builder()
+                .expression("attribute_exists(#sid)")
+                .putExpressionName("#sid", SessionAttrs.PK_SESSION)
+                .build();
+    }
+
+    // expired rows linger until TTL deletes them; filter them out server-side
+    static Expression liveFilter(long nowEpochSeconds) {
+        return Expression.builder()
+                .expression("#exp > :now")
+                .putExpressionName("#exp", SessionAttrs.EXPIRES_AT)
+                .putExpressionValue(":now", AttributeValue.fromN(Long.toString(nowEpochSeconds)))
+                .build();
+    }
+
+    /**
+     * Reads the keys with consistent BatchGetItem calls of up to 100 keys each. Keys DynamoDB leaves
+     * unprocessed come back as further result pages, which the enhanced client requests in turn.
+     */
+    static <T> List<T> batchGet(DynamoDbEnhancedClient enhanced, DynamoDbTable<T> table, Class<T> itemClass, List<Key> keys) {
+        var out = new ArrayList<T>(keys.size());
+        for (int i = 0; i < keys.size(); i += BATCH_GET_LIMIT) {
+            var batch = ReadBatch.builder(itemClass).mappedTableResource(table);
+            for (Key key : keys.subList(i, Math.min(i + BATCH_GET_LIMIT, keys.size()))) {
+                batch.addGetItem(GetItemEnhancedRequest.builder().key(key).consistentRead(true).build());
+            }
+            var readBatch = batch.build();
+            enhanced.batchGetItem(r -> r.readBatches(readBatch)).resultsForTable(table).forEach(out::add);
+        }
+        return out;
+    }
+
+    /** Deletes up to 25 keys, retrying unprocessed ones with backoff; returns how many were deleted. */
+    static <T> int deleteBatch(DynamoDbEnhancedClient enhanced, DynamoDbTable<T> table, Class<T> itemClass, List<Key> keys) {
+        return writeBatch(enhanced, table, itemClass, List.of(), keys);
+    }
+
+    /**
+     * Writes up to 25 puts and deletes in one BatchWriteItem, retrying unprocessed ones with backoff.
+     * Puts still unprocessed after the retries are written one by one; returns how many deletes succeeded.
+     */
+    static <T> int writeBatch(DynamoDbEnhancedClient enhanced, DynamoDbTable<T> table, Class<T> itemClass,
+                              List<T> puts, List<Key> deletes) {
+        List<T> pendingPuts = puts;
+        List<Key> pendingDeletes = deletes;
+        for (int attempt = 1; ; attempt++) {
+            var batch = WriteBatch.builder(itemClass).mappedTableResource(table);
+            pendingPuts.forEach(batch::addPutItem);
+            pendingDeletes.forEach(batch::addDeleteItem);
+            var result = enhanced.batchWriteItem(r -> r.writeBatches(batch.build()));
+            pendingPuts = result.unprocessedPutItemsForTable(table);
+            pendingDeletes = result.unprocessedDeleteItemsForTable(table);
+            if (pendingPuts.isEmpty() && pendingDeletes.isEmpty()) {
+                return deletes.size();
+            }
+            if (attempt >= MAX_BATCH_ATTEMPTS || !backoff(attempt)) {
+                log.warn("sessions.batchWrite unprocessed_after_retries table={} puts={} deletes={}",
+                        table.tableName(), pendingPuts.size(), pendingDeletes.size());
+                pendingPuts.forEach(table::putItem);
+                return deletes.size() - pendingDeletes.size();
+            }
+        }
+    }
+
+    // full jitter so throttled callers do not retry in lockstep; false when interrupted
+    private static boolean backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MS << attempt));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Puts {@code item} together with the first 24 deletes in one batch; further deletes follow in chunks of 25. */
+    static <T> void putWithDeletes(DynamoDbEnhancedClient enhanced, DynamoDbTable<T> table, Class<T> itemClass,
+                                   T item, List<Key> deletes) {
+        int first = Math.min(deletes.size(), BATCH_WRITE_LIMIT - 1);
+        writeBatch(enhanced, table, itemClass, List.of(item), deletes.subList(0, first));
+        for (int i = first; i < deletes.size(); i += BATCH_WRITE_LIMIT) {
+            deleteBatch(enhanced, table, itemClass, deletes.subList(i, Math.min(i + BATCH_WRITE_LIMIT, deletes.size())));
+        }
+    }
+
+    /**
+     * Live sessions to delete so that, with one new session, the user holds at most {@code maxSessions}:
+     * the oldest first, at most {@link #MAX_EVICTIONS_PER_LOGIN} per call so later logins finish trimming
+     * an oversized backlog. Expired rows are left to TTL.
+     */
+    static List<SessionItem> pickEvictions(List<SessionItem> existing, int maxSessions, long nowEpochSeconds) {
+        var live = new ArrayList<SessionItem>();
+        for (SessionItem s : existing) {
+            if (s.getExpiresAt() != null && s.getExpiresAt() > nowEpochSeconds) live.add(s);
+        }
+        int excess = Math.min(live.size() - (maxSessions - 1), MAX_EVICTIONS_PER_LOGIN);
+        if (excess <= 0) {
+            return List.of();
+        }
+        live.sort(Comparator.comparing(SessionItem::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return new ArrayList<>(live.subList(0, excess));
+    }
+
+    // the cursor carries only the last sessionId; the userId always comes from the caller's token
+    static String encodeCursor(String sessionId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sessionId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        try {
+            String sessionId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (sessionId.isBlank()) throw new InvalidPageCursorException("empty cursor");
+            return sessionId;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageCursorException("malformed cursor");
+        }
+    }
+}
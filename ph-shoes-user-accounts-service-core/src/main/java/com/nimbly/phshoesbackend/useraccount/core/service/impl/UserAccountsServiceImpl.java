@@ -1,11 +1,12 @@
 package com.nimbly.phshoesbackend.useraccount.core.service.impl;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.auth.impl.UnknownEmailCache;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.pepper.EmailHashCandidates;
 import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
 import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
 import com.nimbly.phshoesbackend.useraccount.core.service.UserAccountsService;
 import com.nimbly.phshoesbackend.useraccount.core.util.SensitiveValueMasker;
@@ -19,7 +20,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -29,8 +29,10 @@ public class UserAccountsServiceImpl implements UserAccountsService {
 
     private final AccountRepository accountRepository;
     private final EmailCrypto emailCrypto;
-    private final JwtTokenService jwtTokenService;
     private final PasswordEncoder passwordEncoder;
+    private final EmailHashCandidates emailHashCandidates;
+    private final UnknownEmailCache unknownEmails;
+    private final TokenRevocationService tokenRevocations;
 
     @Override
     public CreateUserAccountResponse register(CreateUserAccountRequest request) {
@@ -39,7 +41,7 @@ public class UserAccountsServiceImpl implements UserAccountsService {
             throw new IllegalArgumentException("email must not be blank");
         }
 
-        List<String> emailHashes = emailCrypto.hashCandidates(normalized);
+        List<String> emailHashes = emailHashCandidates.forLookup(normalized);
         if (emailHashes == null || emailHashes.isEmpty()) {
             emailHashes = List.of(emailCrypto.hash(normalized));
         }
@@ -67,6 +69,7 @@ public class UserAccountsServiceImpl implements UserAccountsService {
         account.setCreatedAt(now);
         account.setUpdatedAt(now);
         accountRepository.save(account);
+        unknownEmails.invalidate(primaryHash);
 
         log.info("account register created userId={} emailHashPrefix={}", account.getUserId(), SensitiveValueMasker.hashPrefix(primaryHash));
         CreateUserAccountResponse response = new CreateUserAccountResponse();
@@ -77,45 +80,22 @@ public class UserAccountsServiceImpl implements UserAccountsService {
     }
 
     @Override
-    public TokenContentResponse getContentFromToken(String authorizationHeader) {
-        String token = authorizationHeader == null
-                ? null
-                : (authorizationHeader.startsWith("Bearer ")
-                    ? authorizationHeader.substring(7).trim()
-                    : authorizationHeader.trim());
-        if (token == null || token.isBlank()) {
-            throw new InvalidCredentialsException();
-        }
-        DecodedJWT jwt;
-        try {
-            jwt = jwtTokenService.parseAccess(token);
-        } catch (JwtVerificationException ex) {
-            log.error("user.accounts Invalid Credentials: {}", ex.getMessage());
-            throw new InvalidCredentialsException();
-        }
-
-        String sub = jwt.getSubject();
-        String email = jwt.getClaim("email").asString();
-        Long iat = jwt.getIssuedAt() == null ? null : jwt.getIssuedAt().toInstant().getEpochSecond();
-        Long exp = jwt.getExpiresAt() == null ? null : jwt.getExpiresAt().toInstant().getEpochSecond();
-        List<String> roles = Optional.ofNullable(jwt.getClaim("roles"))
-                .filter(claim -> !claim.isNull())
-                .map(claim -> claim.asList(String.class))
-                .map(List::copyOf)
-                .orElseGet(List::of);
+    public TokenContentResponse getContentFromToken(AuthenticatedPrincipal principal) {
+        tokenRevocations.ensureNotRevoked(principal);
 
         TokenContentResponse out = new TokenContentResponse();
-        out.setSub(sub);
-        out.setEmail(email);
-        out.setRoles(List.copyOf(roles));
-        out.setIat(iat);
-        out.setExp(exp);
+        out.setSub(principal.sub());
+        out.setEmail(principal.email());
+        out.setRoles(principal.roles());
+        out.setIat(principal.issuedAtEpochSecond());
+        out.setExp(principal.expiresAtEpochSecond());
         return out;
     }
 
     @Override
     public void deleteOwnAccount(String userId) {
         accountRepository.deleteByUserId(userId);
+        tokenRevocations.userDeleted(userId);
         log.info("accounts.delete userId={}", userId);
     }
 
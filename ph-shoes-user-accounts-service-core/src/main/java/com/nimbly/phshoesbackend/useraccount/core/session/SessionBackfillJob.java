@@ -0,0 +1,164 @@
+package com.nimbly.phshoesbackend.useraccount.core.session;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.MaintenanceAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.MaintenanceLeaseRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.dynamo.DynamoDbSessionRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.dynamo.DynamoDbUserSessionRepository;
+import com.nimbly.phshoesbackend.useraccount.core.util.WritePacer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies unexpired {@code login_sessions} rows into {@code user_sessions} with a segmented parallel
+ * scan while the store runs in DUAL_WRITE, so the mode can be switched to V2 once a run completes.
+ * A lease in {@code account_maintenance} keeps the scan to one node at a time and records completion
+ * for the whole fleet; every table operation of the copy goes through one pacer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionBackfillJob {
+
+    private final DynamoDbSessionRepository legacy;
+    private final DynamoDbUserSessionRepository v2;
+    private final SessionStoreProps props;
+    private final MaintenanceLeaseRepository leases;
+
+    private final String owner = UUID.randomUUID().toString();
+    private volatile boolean completed;
+
+    @Scheduled(initialDelayString = "${auth.sessions.backfill-initial-delay-ms:60000}",
+            fixedDelayString = "${auth.sessions.backfill-interval-ms:3600000}")
+    public void run() {
+        if (completed || !props.isBackfillEnabled() || props.getMode() != SessionStoreProps.Mode.DUAL_WRITE) {
+            return;
+        }
+        if (!renewLease()) {
+            if (leases.isCompleted(MaintenanceAttrs.SESSION_BACKFILL)) {
+                completed = true;
+                log.info("sessions.backfill already completed");
+            } else {
+                log.debug("sessions.backfill lease held by another node");
+            }
+            return;
+        }
+        try {
+            RunStats stats = backfill(true);
+            leases.markCompleted(MaintenanceAttrs.SESSION_BACKFILL);
+            completed = true;
+            log.info("sessions.backfill done scanned={} copied={} skippedExpired={} revokedDuringCopy={}",
+                    stats.scanned.get(), stats.copied.get(), stats.expired.get(), stats.revoked.get());
+        } catch (RuntimeException e) {
+            leases.release(MaintenanceAttrs.SESSION_BACKFILL, owner);
+            log.error("sessions.backfill error msg={}", e.toString(), e);
+        }
+    }
+
+    boolean isCompleted() {
+        return completed;
+    }
+
+    RunStats backfill() {
+        return backfill(false);
+    }
+
+    private RunStats backfill(boolean leased) {
+        int segments = Math.max(1, props.getBackfillSegments());
+        // run() has just taken the lease
+        RunStats stats = new RunStats(new WritePacer(props.getBackfillMaxWritesPerSecond()), leased,
+                Instant.now().getEpochSecond() + leaseSeconds() / 3);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(segments);
+            for (int segment = 0; segment < segments; segment++) {
+                final int seg = segment;
+                workers.add(executor.submit(() -> legacy.scanSegment(
+                        seg, segments, props.getBackfillPageSize(), page -> page.forEach(s -> copy(s, stats)))));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Session backfill interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+        return stats;
+    }
+
+    private void copy(SessionItem session, RunStats stats) {
+        renewLeaseIfDue(stats);
+        stats.scanned.incrementAndGet();
+        if (session.getUserId() == null || session.getExpiresAt() == null
+                || session.getExpiresAt() <= Instant.now().getEpochSecond()) {
+            stats.expired.incrementAndGet();
+            return;
+        }
+        stats.pacer.awaitSlot();
+        if (!v2.copyIfAbsent(session)) {
+            return; // dual-written already
+        }
+        stats.copied.incrementAndGet();
+        // a logout between the scan and the copy deleted the legacy row; do not resurrect it
+        stats.pacer.awaitSlot();
+        if (!legacy.isSessionActive(session.getUserId(), session.getSessionId())) {
+            stats.pacer.awaitSlot();
+            v2.revokeSession(session.getUserId(), session.getSessionId());
+            stats.revoked.incrementAndGet();
+        }
+    }
+
+    // renew at a third of the lease so a slow page cannot let it lapse mid-run; losing it aborts the run
+    private void renewLeaseIfDue(RunStats stats) {
+        if (!stats.leased) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        long renewAt = stats.leaseRenewAt.get();
+        if (now >= renewAt && stats.leaseRenewAt.compareAndSet(renewAt, now + leaseSeconds() / 3)) {
+            if (!renewLease()) {
+                throw new IllegalStateException("Session backfill lease lost");
+            }
+        }
+    }
+
+    private boolean renewLease() {
+        long now = Instant.now().getEpochSecond();
+        return leases.tryAcquire(MaintenanceAttrs.SESSION_BACKFILL, owner, now + leaseSeconds(), now);
+    }
+
+    private long leaseSeconds() {
+        return Math.max(3, props.getBackfillLeaseSeconds());
+    }
+
+    static final class RunStats {
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong copied = new AtomicLong();
+        final AtomicLong expired = new AtomicLong();
+        final AtomicLong revoked = new AtomicLong();
+        final WritePacer pacer;
+        final boolean leased;
+        final AtomicLong leaseRenewAt;
+
+        RunStats(WritePacer pacer, boolean leased, long leaseRenewAt) {
+            this.pacer = pacer;
+            this.leased = leased;
+            this.leaseRenewAt = new AtomicLong(leaseRenewAt);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.nimbly.phshoesbackend.useraccount.core.session;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
+import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRepository;
+import com.nimbly.phshoesbackend.useraccount.core.util.WritePacer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for session activity. Requests only keep the newest timestamp per session in
+ * memory; a scheduled flush writes each pending session once, so a busy session costs one update per
+ * flush interval instead of one per request. Flushes write at most {@code lastSeenMaxBatch} sessions,
+ * longest-pending first and one at a time through a {@link WritePacer}, so the session table's provisioned writes are never
+ * burst; whatever does not fit stays pending for the next flush. Pending values are drained on
+ * shutdown for up to {@code lastSeenDrainTimeoutMs}.
+ */
+@Slf4j
+@Component
+public class SessionLastSeenWriteBehind {
+
+    record SessionKey(String userId, String sessionId) {
+    }
+
+    // seq orders sessions by when they first became pending, so busy sessions cannot starve the rest
+    record Pending(Instant at, long seq) {
+    }
+
+    private final SessionRepository sessions;
+    private final SessionStoreProps props;
+
+    private final Map<SessionKey, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final WritePacer pacer;
+
+    public SessionLastSeenWriteBehind(SessionRepository sessions, SessionStoreProps props) {
+        this.sessions = sessions;
+        this.props = props;
+        this.pacer = new WritePacer(props.getLastSeenMaxWritesPerSecond());
+    }
+
+    public boolean isEnabled() {
+        return props.isLastSeenEnabled();
+    }
+
+    public void record(String userId, String sessionId, Instant at) {
+        if (!isEnabled() || userId == null || sessionId == null) {
+            return;
+        }
+        pending.merge(new SessionKey(userId, sessionId), new Pending(at, sequence.incrementAndGet()),
+                SessionLastSeenWriteBehind::newest);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.sessions.last-seen-flush-interval-ms:60000}")
+    public void flush() {
+        flushBatch();
+    }
+
+    @PreDestroy
+    public void drain() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(props.getLastSeenDrainTimeoutMs());
+        while (!pending.isEmpty()) {
+            if (System.nanoTime() >= deadline || flushBatch() == 0) {
+                log.warn("sessions.lastSeen drain_incomplete pending={}", pending.size());
+                return;
+            }
+        }
+    }
+
+    private int flushBatch() {
+        List<Map.Entry<SessionKey, Pending>> batch = new ArrayList<>();
+        for (Map.Entry<SessionKey, Pending> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batch.sort(Comparator.comparingLong(entry -> entry.getValue().seq()));
+        if (batch.size() > props.getLastSeenMaxBatch()) {
+            batch = batch.subList(0, Math.max(1, props.getLastSeenMaxBatch()));
+        }
+
+        // UpdateItem per session: BatchWriteItem only supports whole-item puts, which would race
+        // with logout and recreate deleted sessions
+        int failed = 0;
+        for (Map.Entry<SessionKey, Pending> entry : batch) {
+            SessionKey key = entry.getKey();
+            Pending value = entry.getValue();
+            pending.remove(key, value);
+            pacer.awaitSlot();
+            try {
+                sessions.updateLastSeen(key.userId(), key.sessionId(), value.at());
+            } catch (RuntimeException e) {
+                pending.merge(key, value, SessionLastSeenWriteBehind::newest);
+                failed++;
+                log.warn("sessions.lastSeen flush_failed sessionId={} msg={}", key.sessionId(), e.toString());
+            }
+        }
+        log.debug("sessions.lastSeen flushed count={} failed={} pending={}", batch.size(), failed, pending.size());
+        return batch.size() - failed;
+    }
+
+    // keeps the later timestamp and the earlier place in the queue
+    private static Pending newest(Pending a, Pending b) {
+        return new Pending(a.at().isAfter(b.at()) ? a.at() : b.at(), Math.min(a.seq(), b.seq()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.nimbly.phshoesbackend.useraccount.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Minimal shutdown-on-failure scope on virtual threads, standing in for
+ * {@code StructuredTaskScope.ShutdownOnFailure} (still a preview API on Java 21).
+ * Subtasks forked in the scope are joined together; the first failure cancels the others and is
+ * rethrown from {@link #join()}. Closing the scope cancels anything unfinished and waits for it.
+ */
+public final class FailFastScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+    private final List<Future<?>> forks = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = (Future<T>) completion.submit((Callable<Object>) task);
+        forks.add(future);
+        return future;
+    }
+
+    /** Waits for every subtask, failing fast with the first subtask's exception. */
+    public void join() {
+        try {
+            for (int i = 0; i < forks.size(); i++) {
+                Future<Object> done = completion.take();
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    cancelAll();
+                    if (e.getCause() instanceof RuntimeException re) throw re;
+                    if (e.getCause() instanceof Error err) throw err;
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while joining subtasks", e);
+        }
+    }
+
+    private void cancelAll() {
+        forks.forEach(f -> f.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.close();
+    }
+}
@@ -25,6 +25,22 @@ public final class SensitiveValueMasker {
         return email.charAt(0) + "***" + domainPart;
     }
 
+    /** Drops the host part of an address: IPv4 to its /24, IPv6 to its /48. */
+    public static String maskIp(String ip) {
+        if (ip == null || ip.isBlank()) {
+            return "(blank)";
+        }
+        if (ip.indexOf(':') >= 0) {
+            String[] groups = ip.split(":", -1);
+            if (groups.length < 3 || groups[0].isEmpty() || groups[1].isEmpty() || groups[2].isEmpty()) {
+                return "(ipv6)";
+            }
+            return groups[0] + ":" + groups[1] + ":" + groups[2] + "::/48";
+        }
+        int lastDot = ip.lastIndexOf('.');
+        return lastDot <= 0 ? "(unknown)" : ip.substring(0, lastDot) + ".0/24";
+    }
+
     public static String truncateForLog(String value, int max) {
         if (value == null || value.isBlank()) {
             return "unknown";
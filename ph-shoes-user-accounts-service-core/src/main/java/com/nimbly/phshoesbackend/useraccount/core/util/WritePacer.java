@@ -0,0 +1,27 @@
+package com.nimbly.phshoesbackend.useraccount.core.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spaces writes from any number of threads so a background job stays under a fixed write rate.
+ */
+public final class WritePacer {
+
+    private final long slotNanos;
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+    public WritePacer(int writesPerSecond) {
+        this.slotNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, writesPerSecond);
+    }
+
+    public void awaitSlot() {
+        long now = System.nanoTime();
+        long slot = nextSlot.getAndUpdate(prev -> Math.max(prev, now) + slotNanos);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.nimbly.phshoesbackend.useraccount.core.verification;
+
+/**
+ * What a verification link carries under its signature. v2 tokens carry the owner and expiry so a link
+ * can be checked without reading the entry; legacy tokens only carry {@code verificationId}.
+ */
+public record VerificationTokenClaims(String verificationId, String userId, String emailHash, Long expiresAt) {
+
+    public static VerificationTokenClaims legacy(String verificationId) {
+        return new VerificationTokenClaims(verificationId, null, null, null);
+    }
+
+    public boolean isSelfContained() {
+        return expiresAt != null;
+    }
+
+    public boolean isExpired(long nowEpochSeconds) {
+        return expiresAt != null && expiresAt <= nowEpochSeconds;
+    }
+}
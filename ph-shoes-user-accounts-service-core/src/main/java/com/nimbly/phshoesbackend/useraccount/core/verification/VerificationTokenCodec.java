@@ -3,6 +3,6 @@ package com.nimbly.phshoesbackend.useraccount.core.verification;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidVerificationTokenException;
 
 public interface VerificationTokenCodec {
-    String encode(String verificationId);
-    String decodeAndVerify(String token) throws InvalidVerificationTokenException;
+    String encode(VerificationTokenClaims claims);
+    VerificationTokenClaims decodeAndVerify(String token) throws InvalidVerificationTokenException;
 }
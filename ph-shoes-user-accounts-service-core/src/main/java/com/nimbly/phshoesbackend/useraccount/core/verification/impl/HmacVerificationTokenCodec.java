@@ -2,6 +2,7 @@ package com.nimbly.phshoesbackend.useraccount.core.verification.impl;
 
 import com.nimbly.phshoesbackend.useraccount.core.config.props.AppVerificationProps;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidVerificationTokenException;
+import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationTokenClaims;
 import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationTokenCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -11,54 +12,103 @@ import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
+/**
+ * v2 tokens are {@code v2.<payload>.<sig>}, the payload being {@code verificationId|userId|emailHash|expiresAt}
+ * and the HMAC covering {@code v2.<payload>}. Legacy tokens are {@code <verificationId>.<sig>} and decode to
+ * claims with only the id while {@code verification.accept-legacy-tokens} is on.
+ */
 @Component
 @RequiredArgsConstructor
 public class HmacVerificationTokenCodec implements VerificationTokenCodec {
 
+    private static final String V2 = "v2";
+    private static final String FIELD_SEPARATOR = "|";
+
     private final AppVerificationProps vprops;
 
     @Override
-    public String encode(String verificationId) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(vprops.getSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] sig = mac.doFinal(verificationId.getBytes(StandardCharsets.UTF_8));
-            return b64Url(verificationId.getBytes(StandardCharsets.UTF_8)) + "." + b64Url(sig);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    public String encode(VerificationTokenClaims claims) {
+        String payload = String.join(FIELD_SEPARATOR,
+                claims.verificationId(),
+                nullToEmpty(claims.userId()),
+                nullToEmpty(claims.emailHash()),
+                claims.expiresAt() == null ? "" : Long.toString(claims.expiresAt()));
+        String signed = V2 + "." + b64Url(payload.getBytes(StandardCharsets.UTF_8));
+        return signed + "." + b64Url(hmac(signed));
     }
 
     @Override
-    public String decodeAndVerify(String token) {
+    public VerificationTokenClaims decodeAndVerify(String token) {
         String[] parts = token == null ? new String[0] : token.split("\\.");
-        if (parts.length != 2) throw new InvalidVerificationTokenException("Invalid token format");
+        if (parts.length == 3 && V2.equals(parts[0])) {
+            return decodeV2(parts);
+        }
+        if (parts.length == 2 && vprops.isAcceptLegacyTokens()) {
+            return decodeLegacy(parts);
+        }
+        throw new InvalidVerificationTokenException("Invalid token format");
+    }
+
+    private VerificationTokenClaims decodeV2(String[] parts) {
+        verifySignature(parts[0] + "." + parts[1], parts[2]);
+        String payload = new String(b64UrlDecode(parts[1]), StandardCharsets.UTF_8);
+        String[] fields = payload.split("\\|", -1);
+        if (fields.length != 4 || fields[0].isEmpty() || fields[3].isEmpty()) {
+            throw new InvalidVerificationTokenException("Invalid token payload");
+        }
+        try {
+            return new VerificationTokenClaims(fields[0], emptyToNull(fields[1]), emptyToNull(fields[2]),
+                    Long.parseLong(fields[3]));
+        } catch (NumberFormatException e) {
+            throw new InvalidVerificationTokenException("Invalid token payload");
+        }
+    }
 
-        String id  = new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
-        byte[] sig = Base64.getUrlDecoder().decode(parts[1]);
+    private VerificationTokenClaims decodeLegacy(String[] parts) {
+        String id = new String(b64UrlDecode(parts[0]), StandardCharsets.UTF_8);
+        verifySignature(id, parts[1]);
+        return VerificationTokenClaims.legacy(id);
+    }
 
+    private void verifySignature(String signed, String sigPart) {
+        if (!constantTimeEquals(b64UrlDecode(sigPart), hmac(signed))) {
+            throw new InvalidVerificationTokenException("Invalid token signature");
+        }
+    }
+
+    private byte[] hmac(String value) {
         try {
             Mac mac = Mac.getInstance("HmacSHA256");
             mac.init(new SecretKeySpec(vprops.getSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] expected = mac.doFinal(id.getBytes(StandardCharsets.UTF_8));
-            if (!constantTimeEquals(sig, expected)) {
-                throw new InvalidVerificationTokenException("Invalid token signature");
-            }
-            return id;
-        } catch (InvalidVerificationTokenException e) {
-            throw e;
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
         } catch (Exception e) {
             throw new InvalidVerificationTokenException("Token verification failure");
         }
     }
 
+    private static byte[] b64UrlDecode(String value) {
+        try {
+            return Base64.getUrlDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidVerificationTokenException("Invalid token format");
+        }
+    }
+
     private static String b64Url(byte[] bytes) {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
     private static boolean constantTimeEquals(byte[] a, byte[] b) {
         if (a == null || b == null || a.length != b.length) return false;
         int r = 0; for (int i = 0; i < a.length; i++) r |= a[i] ^ b[i];
         return r == 0;
     }
-}
\ No newline at end of file
+}
@@ -32,13 +32,7 @@ final class VerificationEmailContextResolver {
             if (candidateHashes == null || candidateHashes.isEmpty()) {
                 throw new IllegalArgumentException("email must not be blank");
             }
-            Optional<Account> matchingAccount = Optional.empty();
-            for (String candidate : candidateHashes) {
-                matchingAccount = accountRepository.findByEmailHash(candidate);
-                if (matchingAccount.isPresent()) {
-                    break;
-                }
-            }
+            Optional<Account> matchingAccount = accountRepository.findByAnyEmailHash(candidateHashes);
             return new VerificationEmailContext(normalizedEmail, candidateHashes, matchingAccount, false);
         }
 
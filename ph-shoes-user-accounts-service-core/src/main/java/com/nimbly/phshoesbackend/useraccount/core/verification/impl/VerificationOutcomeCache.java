@@ -0,0 +1,53 @@
+package com.nimbly.phshoesbackend.useraccount.core.verification.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.AppVerificationProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.VerificationStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Node-local, size- and TTL-bounded map of verificationIds that reached a terminal status (VERIFIED,
+ * FAILED or EXPIRED), with the email hash they belong to. Only statuses actually read or written are
+ * recorded; EXPIRED comes from the expiry alone, so the table may still show such an entry as PENDING.
+ * Terminal statuses never change, so entries need no invalidation; other nodes simply pay the table
+ * reads once themselves.
+ */
+@Component
+public class VerificationOutcomeCache {
+
+    public record Finalized(VerificationStatus status, String emailHash) {
+    }
+
+    private static final Set<VerificationStatus> TERMINAL =
+            EnumSet.of(VerificationStatus.VERIFIED, VerificationStatus.FAILED, VerificationStatus.EXPIRED);
+
+    private final boolean enabled;
+    private final Cache<String, Finalized> finalized;
+
+    public VerificationOutcomeCache(AppVerificationProps props) {
+        this.enabled = props.isOutcomeCacheEnabled();
+        this.finalized = Caffeine.newBuilder()
+                .maximumSize(props.getOutcomeCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(props.getOutcomeCacheTtlSeconds()))
+                .build();
+    }
+
+    public Optional<Finalized> find(String verificationId) {
+        if (!enabled || verificationId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(finalized.getIfPresent(verificationId));
+    }
+
+    public void record(String verificationId, VerificationStatus status, String emailHash) {
+        if (enabled && verificationId != null && TERMINAL.contains(status)) {
+            finalized.put(verificationId, new Finalized(status, emailHash));
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.nimbly.phshoesbackend.notification.core.model.props.NotificationEmail
 import com.nimbly.phshoesbackend.notification.core.service.NotificationService;
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
 import com.nimbly.phshoesbackend.commons.core.model.SuppressionReason;
+import com.nimbly.phshoesbackend.useraccount.core.model.VerificationConsumeOutcome;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationEntry;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationStatus;
 import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
@@ -21,6 +22,7 @@ import com.nimbly.phshoesbackend.useraccount.core.service.SuppressionService;
 import com.nimbly.phshoesbackend.useraccount.core.unsubscribe.UnsubscribeService;
 import com.nimbly.phshoesbackend.useraccount.core.util.SensitiveValueMasker;
 import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationService;
+import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationTokenClaims;
 import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationTokenCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +30,7 @@ import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -46,6 +49,7 @@ public class VerificationServiceImpl implements VerificationService {
     private final AppVerificationProps verificationProps;
     private final EmailCrypto emailCrypto;
     private final UnsubscribeService unsubscribeService;
+    private final VerificationOutcomeCache outcomeCache;
 
     /**
      * Workflow: resolve email -> create verification entry -> dispatch notification.
@@ -87,7 +91,8 @@ public class VerificationServiceImpl implements VerificationService {
         log.info("verification.entry created id={} hashPrefix={} expiresAt={}",
                 verificationId, SensitiveValueMasker.hashPrefix(pendingEntry.getEmailHash()), expiresAtEpochSeconds);
 
-        String token = tokenCodec.encode(verificationId);
+        String token = tokenCodec.encode(new VerificationTokenClaims(
+                verificationId, pendingEntry.getUserId(), pendingEntry.getEmailHash(), expiresAtEpochSeconds));
         EmailRequest emailRequest = VerificationEmailComposer.compose(
                 context.normalizedEmail(),
                 pendingEntry.getEmailHash(),
@@ -126,90 +131,111 @@ public class VerificationServiceImpl implements VerificationService {
 
     @Override
     public boolean verify(String token) {
-        String verificationId = tokenCodec.decodeAndVerify(token);
+        VerificationTokenClaims claims = tokenCodec.decodeAndVerify(token);
+        String verificationId = claims.verificationId();
         long nowEpochSeconds = Instant.now().getEpochSecond();
 
-        VerificationEntry entry = verificationRepository
-                .getById(verificationId, true)
-                .orElseThrow(() -> new VerificationNotFoundException("id=" + verificationId));
-
-        if (entry.getExpiresAt() != null && entry.getExpiresAt() <= nowEpochSeconds) {
-            throw new VerificationExpiredException("expired");
-        }
-
-        boolean alreadyVerified = false;
-        if (entry.getUserId() != null && !entry.getUserId().isBlank()) {
-            alreadyVerified = accountRepository.findByUserId(entry.getUserId())
-                    .map(Account::getIsVerified)
-                    .map(Boolean::booleanValue)
-                    .orElse(false);
-        } else if (entry.getEmailHash() != null && !entry.getEmailHash().isBlank()) {
-            alreadyVerified = accountRepository.findByEmailHash(entry.getEmailHash())
-                    .map(Account::getIsVerified)
-                    .map(Boolean::booleanValue)
-                    .orElse(false);
-        }
-
-        if (entry.getStatus() != VerificationStatus.PENDING || alreadyVerified) {
-            throw new VerificationAlreadyUsedException("Verification token already consumed");
-        }
-
-        try {
-            verificationRepository.markUsedIfPendingAndNotExpired(verificationId, nowEpochSeconds);
-        } catch (ConditionalCheckFailedException concurrencyRace) {
-            VerificationEntry after = verificationRepository
+        // Double clicks and link scanners repeat finalized links; answer those from memory
+        outcomeCache.find(verificationId).ifPresent(finalized -> {
+            log.debug("verification.verify cached id={} status={}", verificationId, finalized.status());
+            throw finalizedException(finalized.status());
+        });
+
+        // v2 links carry owner and expiry under the signature, so expired ones never reach the table
+        String userId;
+        String emailHash;
+        if (claims.isSelfContained()) {
+            if (claims.isExpired(nowEpochSeconds)) {
+                throw new VerificationExpiredException("expired");
+            }
+            userId = claims.userId();
+            emailHash = claims.emailHash();
+        } else {
+            VerificationEntry entry = verificationRepository
                     .getById(verificationId, true)
                     .orElseThrow(() -> new VerificationNotFoundException("id=" + verificationId));
 
-            if (after.getExpiresAt() != null && after.getExpiresAt() <= nowEpochSeconds) {
+            if (entry.getExpiresAt() != null && entry.getExpiresAt() <= nowEpochSeconds) {
+                outcomeCache.record(verificationId, VerificationStatus.EXPIRED, entry.getEmailHash());
                 throw new VerificationExpiredException("expired");
             }
-            boolean alreadyVerifiedAfter = false;
-            if (after.getUserId() != null && !after.getUserId().isBlank()) {
-                alreadyVerifiedAfter = accountRepository.findByUserId(after.getUserId())
-                        .map(Account::getIsVerified)
-                        .map(Boolean::booleanValue)
-                        .orElse(false);
-            } else if (after.getEmailHash() != null && !after.getEmailHash().isBlank()) {
-                alreadyVerifiedAfter = accountRepository.findByEmailHash(after.getEmailHash())
-                        .map(Account::getIsVerified)
-                        .map(Boolean::booleanValue)
-                        .orElse(false);
-            }
 
-            if (after.getStatus() != VerificationStatus.PENDING || alreadyVerifiedAfter) {
+            if (entry.getStatus() != VerificationStatus.PENDING) {
+                outcomeCache.record(verificationId, entry.getStatus(), entry.getEmailHash());
                 throw new VerificationAlreadyUsedException("Verification token already consumed");
             }
-            // status somehow remained pending; retry once
-            verificationRepository.markUsedIfPendingAndNotExpired(verificationId, nowEpochSeconds);
+            userId = entry.getUserId();
+            emailHash = entry.getEmailHash();
         }
 
-        // Mark account verified (late-bind by hash if necessary)
-        String userId = entry.getUserId();
-        if (userId == null || userId.isBlank()) {
-            accountRepository.findByEmailHash(entry.getEmailHash())
-                    .ifPresent(acc -> accountRepository.setVerified(acc.getUserId(), true));
-        } else {
-            accountRepository.setVerified(userId, true);
+        // Entries written before the account existed are late-bound by hash
+        if (userId != null && userId.isBlank()) {
+            userId = null;
+        }
+        if (userId == null && emailHash != null && !emailHash.isBlank()) {
+            userId = accountRepository.findByEmailHash(emailHash)
+                    .map(Account::getUserId)
+                    .orElse(null);
+        }
+
+        // Consuming the entry and flipping the account flag commit together or not at all
+        VerificationConsumeOutcome outcome =
+                verificationRepository.consumeAndVerifyAccount(verificationId, userId, nowEpochSeconds);
+        switch (outcome) {
+            case CONSUMED -> outcomeCache.record(verificationId, VerificationStatus.VERIFIED, emailHash);
+            case EXPIRED -> {
+                outcomeCache.record(verificationId, VerificationStatus.EXPIRED, emailHash);
+                throw new VerificationExpiredException("expired");
+            }
+            // not cached: the entry may be VERIFIED, FAILED, or still PENDING with the account verified elsewhere
+            case ALREADY_USED -> throw new VerificationAlreadyUsedException("Verification token already consumed");
+            case NOT_FOUND -> throw new VerificationNotFoundException("id=" + verificationId);
+            case ACCOUNT_MISSING -> throw new VerificationNotFoundException("account userId=" + userId);
         }
 
         log.info("verification.verified id={} userId={}",
-                verificationId, (userId == null ? "(late-bound)" : userId));
+                verificationId, (userId == null ? "(no account)" : userId));
 
         return true;
     }
 
     @Override
     public boolean notMe(String token) {
-        String verificationId = tokenCodec.decodeAndVerify(token);
+        VerificationTokenClaims claims = tokenCodec.decodeAndVerify(token);
+        String verificationId = claims.verificationId();
+
+        // A repeated "not me" was already suppressed; other finalized links skip the read
+        Optional<VerificationOutcomeCache.Finalized> finalized = outcomeCache.find(verificationId);
+        if (finalized.isPresent() && finalized.get().status() == VerificationStatus.FAILED) {
+            log.debug("verification.not_me cached id={}", verificationId);
+            return finalized.get().emailHash() != null && !finalized.get().emailHash().isBlank();
+        }
 
-        VerificationEntry entry = verificationRepository
-                .getById(verificationId, true)
-                .orElseThrow(() -> new VerificationNotFoundException("id=" + verificationId));
+        // v2 links carry the hash, so the entry is only read for legacy links; the conditional update
+        // is a no-op for entries that are gone or no longer pending
+        String emailHash;
+        boolean pending;
+        boolean failed = false;
+        if (finalized.isPresent()) {
+            emailHash = finalized.get().emailHash();
+            // an expired entry can still read PENDING in the table, so it still gets the conditional update
+            pending = finalized.get().status() == VerificationStatus.EXPIRED;
+        } else if (claims.isSelfContained()) {
+            emailHash = claims.emailHash();
+            pending = true;
+        } else {
+            VerificationEntry entry = verificationRepository
+                    .getById(verificationId, true)
+                    .orElseThrow(() -> new VerificationNotFoundException("id=" + verificationId));
+            emailHash = entry.getEmailHash();
+            pending = entry.getStatus() == VerificationStatus.PENDING;
+            failed = entry.getStatus() == VerificationStatus.FAILED;
+        }
 
-        if (entry.getStatus() == VerificationStatus.PENDING) {
+        if (pending) {
             try {
                 verificationRepository.markStatusIfPending(verificationId, VerificationStatus.FAILED);
+                failed = true;
                 log.info("verification.not_me marked_failed id={}", verificationId);
             } catch (ConditionalCheckFailedException ignored) {
                 log.debug("verification.not_me status_changed_before_update id={}", verificationId);
@@ -217,7 +243,6 @@ public class VerificationServiceImpl implements VerificationService {
         }
 
         // Prefer hash-based suppression (no plaintext storage)
-        String emailHash = entry.getEmailHash();
         if (emailHash != null && !emailHash.isBlank()) {
             suppressionService.suppressHash(
                     emailHash,
@@ -226,13 +251,25 @@ public class VerificationServiceImpl implements VerificationService {
                     "User clicked 'Not me'",
                     null
             );
+            if (failed) {
+                outcomeCache.record(verificationId, VerificationStatus.FAILED, emailHash);
+            }
             log.warn("verification.not_me id={} emailHash={}", verificationId, SensitiveValueMasker.hashPrefix(emailHash));
             return true;
         }
 
+        if (failed) {
+            outcomeCache.record(verificationId, VerificationStatus.FAILED, emailHash);
+        }
         log.warn("verification.not_me id={} emailHash missing", verificationId);
         return false;
     }
 
+    private static RuntimeException finalizedException(VerificationStatus status) {
+        return status == VerificationStatus.EXPIRED
+                ? new VerificationExpiredException("expired")
+                : new VerificationAlreadyUsedException("Verification token already consumed");
+    }
+
 }
 
@@ -0,0 +1,64 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthenticatedPrincipalTest {
+
+    @Test
+    void from_copiesClaims() {
+        // Arrange
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        Claim emailClaim = mock(Claim.class);
+        Claim rolesClaim = mock(Claim.class);
+        when(decoded.getSubject()).thenReturn("user-1");
+        when(decoded.getId()).thenReturn("jti-1");
+        when(decoded.getClaim("email")).thenReturn(emailClaim);
+        when(emailClaim.asString()).thenReturn("user@example.com");
+        when(decoded.getIssuedAt()).thenReturn(Date.from(Instant.ofEpochSecond(100)));
+        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.ofEpochSecond(200)));
+        when(decoded.getClaim("roles")).thenReturn(rolesClaim);
+        when(rolesClaim.isNull()).thenReturn(false);
+        when(rolesClaim.asList(String.class)).thenReturn(List.of("USER"));
+
+        // Act
+        AuthenticatedPrincipal principal = AuthenticatedPrincipal.from(decoded);
+
+        // Assert
+        assertEquals("user-1", principal.sub());
+        assertEquals("jti-1", principal.jti());
+        assertEquals("user@example.com", principal.email());
+        assertEquals(List.of("USER"), principal.roles());
+        assertEquals(Long.valueOf(100L), principal.issuedAtEpochSecond());
+        assertEquals(Long.valueOf(200L), principal.expiresAtEpochSecond());
+    }
+
+    @Test
+    void from_defaultsMissingRolesAndDates() {
+        // Arrange
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        Claim emailClaim = mock(Claim.class);
+        Claim rolesClaim = mock(Claim.class);
+        when(decoded.getClaim("email")).thenReturn(emailClaim);
+        when(decoded.getClaim("roles")).thenReturn(rolesClaim);
+        when(rolesClaim.isNull()).thenReturn(true);
+
+        // Act
+        AuthenticatedPrincipal principal = AuthenticatedPrincipal.from(decoded);
+
+        // Assert
+        assertEquals(List.of(), principal.roles());
+        assertNull(principal.issuedAtEpochSecond());
+        assertNull(principal.expiresAtEpochSecond());
+    }
+}
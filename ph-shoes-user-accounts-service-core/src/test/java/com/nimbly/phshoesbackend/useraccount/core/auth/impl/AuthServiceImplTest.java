@@ -1,37 +1,67 @@
 package com.nimbly.phshoesbackend.useraccount.core.auth.impl;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
 import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.AccountLockedException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
 import com.nimbly.phshoesbackend.useraccount.core.config.props.LockoutProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.LoginProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.RefreshTokenProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
 import com.nimbly.phshoesbackend.useraccount.core.exception.EmailNotVerifiedException;
+import com.nimbly.phshoesbackend.useraccount.core.exception.LoginThrottledException;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.token.AccessTokenService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.throttle.CredentialStuffingDetector;
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.model.LoginFailure;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionPage;
+import com.nimbly.phshoesbackend.useraccount.core.pepper.EmailHashCandidates;
 import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.EmailPepperWatermarkRepository;
 import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRepository;
 import com.nimbly.phshoesbackend.useraccount.core.repository.VerificationRepository;
 import com.nimbly.phshoesbackend.useraccounts.model.LoginRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.SessionListResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchResult;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,28 +73,52 @@ class AuthServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     @Mock
-    private JwtTokenService jwtTokenService;
+    private AccessTokenService accessTokens;
     @Mock
     private EmailCrypto emailCrypto;
     @Mock
     private SessionRepository sessionRepository;
     @Mock
     private VerificationRepository verificationRepository;
+    @Mock
+    private EmailPepperWatermarkRepository watermarkRepository;
+    @Mock
+    private LastLoginWriteBehind lastLogins;
+    @Mock
+    private CredentialStuffingDetector stuffingDetector;
+    @Mock
+    private TokenRevocationService tokenRevocations;
 
     private LockoutProps lockoutProps;
+    private LoginProps loginProps;
+    private SessionStoreProps sessionStoreProps;
+    private RefreshTokenProps refreshTokenProps;
+    private UnknownEmailCache unknownEmailCache;
     private AuthServiceImpl service;
 
     @BeforeEach
     void setUp() {
         lockoutProps = new LockoutProps();
+        loginProps = new LoginProps();
+        sessionStoreProps = new SessionStoreProps();
+        refreshTokenProps = new RefreshTokenProps();
+        unknownEmailCache = new UnknownEmailCache(loginProps);
         service = new AuthServiceImpl(
                 accounts,
                 passwordEncoder,
-                jwtTokenService,
+                accessTokens,
                 lockoutProps,
                 emailCrypto,
                 sessionRepository,
-                verificationRepository
+                verificationRepository,
+                new EmailHashCandidates(emailCrypto, watermarkRepository),
+                loginProps,
+                lastLogins,
+                unknownEmailCache,
+                stuffingDetector,
+                tokenRevocations,
+                sessionStoreProps,
+                refreshTokenProps
         );
     }
 
@@ -86,6 +140,46 @@ class AuthServiceImplTest {
         assertNotNull(exception);
     }
 
+    @Test
+    void login_answersRepeatedMissFromCache_withDummyPasswordCheck() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("password");
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy");
+
+        // Act
+        assertThrows(InvalidCredentialsException.class, () -> service.login(request, "127.0.0.1", "ua"));
+        assertThrows(InvalidCredentialsException.class, () -> service.login(request, "127.0.0.1", "ua"));
+
+        // Assert
+        verify(accounts, times(1)).findByAnyEmailHash(List.of("hash1"));
+        verify(passwordEncoder, times(2)).matches("password", "dummy");
+    }
+
+    @Test
+    void login_rejectsThrottledClient_beforeAnyLookup() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("password");
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        doThrow(new LoginThrottledException("ip")).when(stuffingDetector).checkAllowed("127.0.0.1", "hash1");
+
+        // Act
+        assertThrows(LoginThrottledException.class, () -> service.login(request, "127.0.0.1", "ua"));
+
+        // Assert
+        verify(accounts, never()).findByAnyEmailHash(any());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
     @Test
     void login_throwsAccountLocked_whenLocked() {
         // Arrange
@@ -110,6 +204,36 @@ class AuthServiceImplTest {
         assertNotNull(exception);
     }
 
+    @Test
+    void login_recordsFailureAtomically_whenPasswordWrong() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("wrong");
+
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailHash("hash1");
+        account.setPasswordHash("encoded");
+        account.setIsVerified(true);
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches("wrong", "encoded")).thenReturn(false);
+        when(accounts.recordLoginFailure("user-1", 5, Duration.ofSeconds(900)))
+                .thenReturn(new LoginFailure(1, null));
+
+        // Act
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> service.login(request, "127.0.0.1", "ua"));
+
+        // Assert
+        assertNotNull(exception);
+        verify(accounts).recordLoginFailure("user-1", 5, Duration.ofSeconds(900));
+        verify(stuffingDetector).recordFailure("127.0.0.1", "hash1");
+        verify(accounts, never()).saveChanges(any(Account.class));
+    }
+
     @Test
     void login_returnsToken_whenCredentialsValid() {
         // Arrange
@@ -131,9 +255,9 @@ class AuthServiceImplTest {
         when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
         when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.of(account));
         when(passwordEncoder.matches("password", "encoded")).thenReturn(true);
-        when(jwtTokenService.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
-        when(jwtTokenService.parseAccess("token")).thenReturn(decoded);
-        when(jwtTokenService.getAccessTtlSeconds()).thenReturn(3600L);
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
+        when(accessTokens.parseAccess("token")).thenReturn(decoded);
+        when(accessTokens.getAccessTtlSeconds()).thenReturn(3600L);
 
         // Act
         TokenResponse response = service.login(request, "127.0.0.1", "ua");
@@ -141,8 +265,84 @@ class AuthServiceImplTest {
         // Assert
         assertEquals("token", response.getAccessToken());
         assertEquals(Long.valueOf(3600L), response.getExpiresIn());
-        verify(accounts).save(any(Account.class));
-        verify(sessionRepository).createSession(anyString(), anyString(), anyLong(), anyString(), anyString());
+        verify(accounts).saveChanges(any(Account.class));
+        verify(sessionRepository).createSessionWithinCap(anyString(), anyString(), anyLong(), anyString(), anyString(), anyString(), eq(20));
+    }
+
+    @Test
+    void login_revokesTokensOfSessionsEvictedByCap() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("password");
+
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailHash("hash1");
+        account.setPasswordHash("encoded");
+        account.setIsVerified(true);
+
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        when(decoded.getId()).thenReturn("jti-new");
+        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.now().plusSeconds(600)));
+        SessionItem oldest = new SessionItem();
+        oldest.setSessionId("jti-old");
+        oldest.setExpiresAt(4_000_000_000L);
+        sessionStoreProps.setMaxPerUser(2);
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches("password", "encoded")).thenReturn(true);
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
+        when(accessTokens.parseAccess("token")).thenReturn(decoded);
+        when(sessionRepository.createSessionWithinCap(eq("jti-new"), eq("user-1"), anyLong(), anyString(), anyString(), anyString(), eq(2)))
+                .thenReturn(List.of(oldest));
+        when(accessTokens.getAccessTtlSeconds()).thenReturn(300L);
+
+        // Act
+        long before = Instant.now().getEpochSecond();
+        service.login(request, "127.0.0.1", "ua");
+
+        // Assert
+        // the row lives for the refresh TTL, but its access token is gone within one access TTL
+        verify(tokenRevocations).revoke(eq("jti-old"), longThat(exp -> exp >= before + 300 && exp < 4_000_000_000L));
+        verify(sessionRepository, never()).createSession(anyString(), anyString(), anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void login_rehashesPassword_whenCostDiffersFromTarget() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("password");
+
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailHash("hash1");
+        account.setPasswordHash("old-cost");
+        account.setIsVerified(true);
+
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        when(decoded.getId()).thenReturn("jti-1");
+        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.now().plusSeconds(600)));
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches("password", "old-cost")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("old-cost")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("new-cost");
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
+        when(accessTokens.parseAccess("token")).thenReturn(decoded);
+
+        // Act
+        service.login(request, "127.0.0.1", "ua");
+
+        // Assert
+        ArgumentCaptor<Account> saved = ArgumentCaptor.forClass(Account.class);
+        verify(accounts).saveChanges(saved.capture());
+        assertEquals("new-cost", saved.getValue().getPasswordHash());
     }
 
     @Test
@@ -172,31 +372,383 @@ class AuthServiceImplTest {
     }
 
     @Test
-    void logout_throwsInvalidCredentials_whenHeaderMissing() {
+    void login_restoresVerification_whenVerifiedEntryExists() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("password");
+
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailHash("hash1");
+        account.setPasswordHash("encoded");
+        account.setIsVerified(false);
+
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        when(decoded.getId()).thenReturn("jti-1");
+        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.now().plusSeconds(600)));
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches("password", "encoded")).thenReturn(true);
+        when(verificationRepository.hasVerifiedEntryForEmailHash("hash1")).thenReturn(true);
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
+        when(accessTokens.parseAccess("token")).thenReturn(decoded);
+
+        // Act
+        TokenResponse response = service.login(request, "127.0.0.1", "ua");
+
+        // Assert
+        assertEquals("token", response.getAccessToken());
+        verify(accounts).setVerified("user-1", true);
+        verify(sessionRepository).createSessionWithinCap(anyString(), anyString(), anyLong(), anyString(), anyString(), anyString(), eq(20));
+    }
+
+    @Test
+    void login_buffersLastLogin_andSkipsAccountWrite_whenNothingElseChanged() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("password");
+
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailHash("hash1");
+        account.setPasswordHash("encoded");
+        account.setIsVerified(true);
+        account.markPersisted();
+
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        when(decoded.getId()).thenReturn("jti-1");
+        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.now().plusSeconds(600)));
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches("password", "encoded")).thenReturn(true);
+        when(lastLogins.isEnabled()).thenReturn(true);
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
+        when(accessTokens.parseAccess("token")).thenReturn(decoded);
+
+        // Act
+        service.login(request, "127.0.0.1", "ua");
+
+        // Assert
+        verify(lastLogins).record(eq("user-1"), any(Instant.class), eq("127.0.0.1"), eq("ua"));
+        verify(accounts, never()).saveChanges(any(Account.class));
+        verify(sessionRepository).createSessionWithinCap(anyString(), anyString(), anyLong(), anyString(), anyString(), anyString(), eq(20));
+    }
+
+    private static AuthenticatedPrincipal principal(String sub, String jti) {
+        return new AuthenticatedPrincipal(sub, "user@example.com", jti, Instant.now(), null, List.of());
+    }
+
+    @Test
+    void logout_throwsInvalidCredentials_whenJtiMissing() {
         // Arrange
-        String authorizationHeader = null;
+        AuthenticatedPrincipal principal = principal("user-1", null);
 
         // Act
-        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> service.logout(authorizationHeader));
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> service.logout(principal));
 
         // Assert
         assertNotNull(exception);
+        verify(sessionRepository, never()).revokeIfActive(anyString(), anyString(), anyLong());
     }
 
     @Test
     void logout_revokesSession_whenValid() {
         // Arrange
+        SessionItem session = new SessionItem();
+        session.setExpiresAt(4_000_000_000L);
+        when(sessionRepository.revokeIfActive(eq("user-1"), eq("jti-1"), anyLong())).thenReturn(Optional.of(session));
+
+        // Act
+        service.logout(principal("user-1", "jti-1"));
+
+        // Assert
+        verify(sessionRepository).revokeIfActive(eq("user-1"), eq("jti-1"), anyLong());
+        verify(sessionRepository, never()).isSessionActive(anyString(), anyString());
+        verify(tokenRevocations).revoke("jti-1", 4_000_000_000L);
+    }
+
+    @Test
+    void logoutAll_bumpsEpochAndRemovesSessionRows() {
+        // Arrange
+        AuthenticatedPrincipal principal = principal("user-1", "jti-1");
+        when(sessionRepository.revokeAllForUser("user-1")).thenReturn(4);
+
+        // Act
+        int removed = service.logoutAll(principal);
+
+        // Assert
+        assertEquals(4, removed);
+        verify(tokenRevocations).ensureNotRevoked(principal);
+        verify(tokenRevocations).revokeAllForUser("user-1");
+    }
+
+    @Test
+    void listSessions_marksCurrentSession_andPassesCursorThrough() {
+        // Arrange
+        SessionItem first = new SessionItem();
+        first.setSessionId("jti-1");
+        first.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        first.setIp("1.1.1.1");
+        SessionItem second = new SessionItem();
+        second.setSessionId("jti-2");
+        when(sessionRepository.listActiveSessionsByUser("user-1", 100, "c1"))
+                .thenReturn(new SessionPage(List.of(first, second), "c2"));
+
+        // Act
+        SessionListResponse response = service.listSessions(principal("user-1", "jti-2"), 500, "c1");
+
+        // Assert
+        assertEquals(2, response.getSessions().size());
+        assertEquals("1.1.1.1", response.getSessions().get(0).getIp());
+        assertFalse(response.getSessions().get(0).getCurrent());
+        assertTrue(response.getSessions().get(1).getCurrent());
+        assertEquals("c2", response.getNextCursor());
+    }
+
+    @Test
+    void logoutAll_throwsInvalidCredentials_whenSubMissing() {
+        // Act
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
+                () -> service.logoutAll(principal(null, "jti-1")));
+
+        // Assert
+        assertNotNull(exception);
+        verify(sessionRepository, never()).revokeAllForUser(anyString());
+    }
+
+    @Test
+    void logout_throwsInvalidCredentials_whenSessionNotActive() {
+        // Arrange
+        when(sessionRepository.revokeIfActive(eq("user-1"), eq("jti-1"), anyLong())).thenReturn(Optional.empty());
+
+        // Act
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
+                () -> service.logout(principal("user-1", "jti-1")));
+
+        // Assert
+        assertNotNull(exception);
+    }
+
+    @Test
+    void login_returnsRefreshToken_andStoresOnlyItsHash() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setEmail("user@example.com");
+        request.setPassword("password");
+
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailHash("hash1");
+        account.setPasswordHash("encoded");
+        account.setIsVerified(true);
+
         DecodedJWT decoded = mock(DecodedJWT.class);
-        when(jwtTokenService.parseAccess("token")).thenReturn(decoded);
         when(decoded.getId()).thenReturn("jti-1");
-        when(decoded.getSubject()).thenReturn("user-1");
-        when(sessionRepository.isSessionActive("jti-1")).thenReturn(true);
+        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.now().plusSeconds(300)));
+
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
+        when(accounts.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.of(account));
+        when(passwordEncoder.matches("password", "encoded")).thenReturn(true);
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
+        when(accessTokens.parseAccess("token")).thenReturn(decoded);
 
         // Act
-        service.logout("Bearer token");
+        TokenResponse response = service.login(request, "127.0.0.1", "ua");
 
         // Assert
-        verify(sessionRepository).revokeSession("jti-1");
+        String[] parts = response.getRefreshToken().split("\\.");
+        assertEquals("user-1", parts[0]);
+        assertEquals("jti-1", parts[1]);
+        ArgumentCaptor<Long> exp = ArgumentCaptor.forClass(Long.class);
+        verify(sessionRepository).createSessionWithinCap(eq("jti-1"), eq("user-1"), exp.capture(), eq("127.0.0.1"), eq("ua"),
+                eq(RefreshTokens.hash(parts[2])), eq(20));
+        assertTrue(exp.getValue() > Instant.now().getEpochSecond() + 86_400);
     }
-}
 
+    @Test
+    void refresh_rotatesSessionToNewJti_andReturnsNewRefreshToken() {
+        // Arrange
+        Instant createdAt = Instant.now().minusSeconds(3600);
+        long sessionExp = Instant.now().getEpochSecond() + 86_400;
+        SessionItem session = new SessionItem();
+        session.setSessionId("jti-1");
+        session.setUserId("user-1");
+        session.setCreatedAt(createdAt);
+        session.setExpiresAt(sessionExp);
+        session.setRefreshTokenHash(RefreshTokens.hash("secret-1"));
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailEnc("enc");
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        when(decoded.getId()).thenReturn("jti-2");
+
+        when(sessionRepository.findSession("user-1", "jti-1")).thenReturn(Optional.of(session));
+        when(accounts.findByUserId("user-1")).thenReturn(Optional.of(account));
+        when(emailCrypto.decrypt("enc")).thenReturn("user@example.com");
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token-2");
+        when(accessTokens.parseAccess("token-2")).thenReturn(decoded);
+        when(accessTokens.getAccessTtlSeconds()).thenReturn(300L);
+        when(sessionRepository.rotateSession(eq("user-1"), eq("jti-1"), eq(RefreshTokens.hash("secret-1")), any(SessionItem.class), anyLong()))
+                .thenReturn(true);
+
+        // Act
+        TokenResponse response = service.refresh("user-1.jti-1.secret-1", "10.0.0.1", "ua-2");
+
+        // Assert
+        assertEquals("token-2", response.getAccessToken());
+        assertEquals(Long.valueOf(300L), response.getExpiresIn());
+        assertTrue(response.getRefreshToken().startsWith("user-1.jti-2."));
+        ArgumentCaptor<SessionItem> next = ArgumentCaptor.forClass(SessionItem.class);
+        verify(sessionRepository).rotateSession(eq("user-1"), eq("jti-1"), anyString(), next.capture(), anyLong());
+        assertEquals("jti-2", next.getValue().getSessionId());
+        assertEquals(createdAt, next.getValue().getCreatedAt());
+        assertEquals(Long.valueOf(sessionExp), next.getValue().getExpiresAt());
+        assertEquals("10.0.0.1", next.getValue().getIp());
+        assertEquals(RefreshTokens.hash(response.getRefreshToken().substring("user-1.jti-2.".length())),
+                next.getValue().getRefreshTokenHash());
+    }
+
+    @Test
+    void refresh_throwsInvalidCredentials_whenTokenAlreadyRotated() {
+        // Arrange
+        SessionItem session = new SessionItem();
+        session.setSessionId("jti-1");
+        session.setUserId("user-1");
+        session.setCreatedAt(Instant.now().minusSeconds(60));
+        session.setExpiresAt(Instant.now().getEpochSecond() + 86_400);
+        session.setRefreshTokenHash(RefreshTokens.hash("secret-1"));
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setEmailEnc("enc");
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        when(decoded.getId()).thenReturn("jti-2");
+
+        when(sessionRepository.findSession("user-1", "jti-1")).thenReturn(Optional.of(session));
+        when(accounts.findByUserId("user-1")).thenReturn(Optional.of(account));
+        when(emailCrypto.decrypt("enc")).thenReturn("user@example.com");
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(accessTokens.issueAccessToken("user-1", "user@example.com")).thenReturn("token-2");
+        when(accessTokens.parseAccess("token-2")).thenReturn(decoded);
+        when(sessionRepository.rotateSession(anyString(), anyString(), anyString(), any(SessionItem.class), anyLong()))
+                .thenReturn(false);
+
+        // Act
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
+                () -> service.refresh("user-1.jti-1.secret-1", "ip", "ua"));
+
+        // Assert
+        assertNotNull(exception);
+    }
+
+    @Test
+    void refresh_throwsInvalidCredentials_whenSecretDoesNotMatch() {
+        // Arrange
+        SessionItem session = new SessionItem();
+        session.setSessionId("jti-1");
+        session.setUserId("user-1");
+        session.setExpiresAt(Instant.now().getEpochSecond() + 86_400);
+        session.setRefreshTokenHash(RefreshTokens.hash("secret-1"));
+        when(sessionRepository.findSession("user-1", "jti-1")).thenReturn(Optional.of(session));
+
+        // Act
+        assertThrows(InvalidCredentialsException.class, () -> service.refresh("user-1.jti-1.guessed", "ip", "ua"));
+
+        // Assert
+        verify(accessTokens, never()).issueAccessToken(anyString(), anyString());
+        verify(sessionRepository, never()).rotateSession(anyString(), anyString(), anyString(), any(), anyLong());
+    }
+
+    @Test
+    void refresh_throwsInvalidCredentials_whenSessionPredatesLogoutAll() {
+        // Arrange
+        SessionItem session = new SessionItem();
+        session.setSessionId("jti-1");
+        session.setUserId("user-1");
+        session.setCreatedAt(Instant.now().minusSeconds(600));
+        session.setExpiresAt(Instant.now().getEpochSecond() + 86_400);
+        session.setRefreshTokenHash(RefreshTokens.hash("secret-1"));
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setTokensValidAfter(Instant.now().minusSeconds(60));
+        when(sessionRepository.findSession("user-1", "jti-1")).thenReturn(Optional.of(session));
+        when(accounts.findByUserId("user-1")).thenReturn(Optional.of(account));
+
+        // Act
+        assertThrows(InvalidCredentialsException.class, () -> service.refresh("user-1.jti-1.secret-1", "ip", "ua"));
+
+        // Assert
+        verify(accessTokens, never()).issueAccessToken(anyString(), anyString());
+    }
+
+    @Test
+    void refresh_throwsInvalidCredentials_whenTokenMalformed() {
+        // Act
+        assertThrows(InvalidCredentialsException.class, () -> service.refresh("not-a-refresh-token", "ip", "ua"));
+
+        // Assert
+        verify(sessionRepository, never()).findSession(anyString(), anyString());
+    }
+
+    private static DecodedJWT signed(String sub, String jti) {
+        return JWT.decode(JWT.create().withSubject(sub).withJWTId(jti).withClaim("email", sub + "@example.com")
+                .withIssuedAt(Date.from(Instant.ofEpochSecond(100)))
+                .withExpiresAt(Date.from(Instant.now().plusSeconds(300)))
+                .sign(Algorithm.HMAC256("secret")));
+    }
+
+    @Test
+    void introspect_dedupesSessionLookupsAndKeepsRequestOrder() {
+        // Arrange
+        when(accessTokens.parseAccess("t1")).thenReturn(signed("user-1", "jti-1"));
+        when(accessTokens.parseAccess("t2")).thenReturn(signed("user-2", "jti-2"));
+        when(accessTokens.parseAccess("bad")).thenThrow(new JwtVerificationException("bad", null));
+        when(sessionRepository.findActiveSessionIds(eq(Map.of("jti-1", "user-1", "jti-2", "user-2")), anyLong()))
+                .thenReturn(Set.of("jti-1"));
+
+        // Act
+        TokenContentBatchResponse response = service.introspect(List.of("t1", "bad", "t1", "t2", "bad"));
+
+        // Assert
+        List<TokenContentBatchResult> results = response.getResults();
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).getValid());
+        assertTrue(results.get(0).getSessionActive());
+        assertEquals("user-1", results.get(0).getSub());
+        assertEquals("user-1@example.com", results.get(0).getEmail());
+        assertEquals(Long.valueOf(100L), results.get(0).getIat());
+        assertFalse(results.get(1).getValid());
+        assertFalse(results.get(1).getSessionActive());
+        assertNull(results.get(1).getSub());
+        assertTrue(results.get(2).getSessionActive());
+        assertTrue(results.get(3).getValid());
+        assertFalse(results.get(3).getSessionActive());
+        assertFalse(results.get(4).getValid());
+        verify(accessTokens, times(1)).parseAccess("t1");
+        verify(accessTokens, times(1)).parseAccess("bad");
+        verify(sessionRepository, times(1)).findActiveSessionIds(any(), anyLong());
+    }
+
+    @Test
+    void introspect_skipsSessionLookup_whenNoTokenIsValid() {
+        // Arrange
+        when(accessTokens.parseAccess("t1")).thenReturn(signed("user-1", "jti-1"));
+        doThrow(new InvalidCredentialsException()).when(tokenRevocations).ensureNotRevoked(any());
+
+        // Act
+        TokenContentBatchResponse response = service.introspect(List.of("t1", " "));
+
+        // Assert
+        assertEquals(2, response.getResults().size());
+        assertFalse(response.getResults().get(0).getValid());
+        assertFalse(response.getResults().get(1).getValid());
+        verify(sessionRepository, never()).findActiveSessionIds(any(), anyLong());
+    }
+}
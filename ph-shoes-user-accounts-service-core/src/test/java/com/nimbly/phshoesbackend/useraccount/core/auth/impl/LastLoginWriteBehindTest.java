@@ -0,0 +1,152 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.impl;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.LastLoginProps;
+import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LastLoginWriteBehindTest {
+
+    @Mock
+    private AccountRepository accounts;
+
+    private LastLoginProps props;
+    private LastLoginWriteBehind buffer;
+
+    @BeforeEach
+    void setUp() {
+        props = new LastLoginProps();
+        props.setMaxWritesPerSecond(1_000);
+        buffer = new LastLoginWriteBehind(accounts, props);
+    }
+
+    @Test
+    void flush_writesOnlyLatestValuePerUser() {
+        // Arrange
+        Instant first = Instant.parse("2024-01-01T00:00:00Z");
+        Instant second = first.plusSeconds(5);
+        buffer.record("user-1", first, "1.1.1.1", "ua-1");
+        buffer.record("user-1", second, "2.2.2.2", "ua-2");
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        verify(accounts).updateLastLogin("user-1", second, "2.2.2.2", "ua-2");
+        verify(accounts, times(1)).updateLastLogin(anyString(), any(), any(), any());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_throttlesUserWrittenRecently_butDrainWritesIt() {
+        // Arrange
+        Instant now = Instant.now();
+        buffer.record("user-1", now, "1.1.1.1", "ua");
+        buffer.flush();
+        buffer.record("user-1", now.plusSeconds(1), "2.2.2.2", "ua");
+
+        // Act
+        buffer.flush();
+        int pendingAfterThrottledFlush = buffer.pendingCount();
+        buffer.drain();
+
+        // Assert
+        assertEquals(1, pendingAfterThrottledFlush);
+        verify(accounts).updateLastLogin("user-1", now.plusSeconds(1), "2.2.2.2", "ua");
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_keepsValuePending_whenWriteFails() {
+        // Arrange
+        Instant now = Instant.now();
+        buffer.record("user-1", now, "1.1.1.1", "ua");
+        doThrow(new IllegalStateException("ddb down"))
+                .when(accounts).updateLastLogin(eq("user-1"), any(), any(), any());
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        assertEquals(1, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_writesLongestPendingUsersFirst_upToMaxBatch() {
+        // Arrange
+        props.setMaxBatch(2);
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            buffer.record("user-" + i, now, "1.1.1.1", "ua");
+        }
+        // a newer login keeps the user's place in the queue
+        buffer.record("user-0", now.plusSeconds(1), "2.2.2.2", "ua");
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        InOrder order = inOrder(accounts);
+        order.verify(accounts).updateLastLogin("user-0", now.plusSeconds(1), "2.2.2.2", "ua");
+        order.verify(accounts).updateLastLogin("user-1", now, "1.1.1.1", "ua");
+        verify(accounts, never()).updateLastLogin(eq("user-4"), any(), any(), any());
+        assertEquals(3, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_pacesWritesToConfiguredRate() {
+        // Arrange
+        props.setMaxWritesPerSecond(20);
+        LastLoginWriteBehind paced = new LastLoginWriteBehind(accounts, props);
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            paced.record("user-" + i, now, "1.1.1.1", "ua");
+        }
+
+        // Act
+        long t0 = System.nanoTime();
+        paced.flush();
+        long elapsedMs = (System.nanoTime() - t0) / 1_000_000;
+
+        // Assert
+        verify(accounts, times(5)).updateLastLogin(anyString(), any(), any(), any());
+        assertTrue(elapsedMs >= 150, "5 writes at 20/s should take at least 4 slots, took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void drain_stopsAtTimeout_andLeavesTheRestPending() {
+        // Arrange
+        props.setMaxBatch(1);
+        props.setMaxWritesPerSecond(10);
+        props.setDrainTimeoutMs(150);
+        LastLoginWriteBehind paced = new LastLoginWriteBehind(accounts, props);
+        Instant now = Instant.now();
+        for (int i = 0; i < 20; i++) {
+            paced.record("user-" + i, now, "1.1.1.1", "ua");
+        }
+
+        // Act
+        paced.drain();
+
+        // Assert
+        assertTrue(paced.pendingCount() > 0);
+    }
+}
@@ -0,0 +1,32 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.password;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BcryptCostCalibratorTest {
+
+    @Test
+    void calibrate_picksStrongestCostWithinBudget() {
+        // Arrange
+        long generousBudgetMs = 60_000;
+
+        // Act
+        int strength = BcryptCostCalibrator.calibrate(4, 5, generousBudgetMs);
+
+        // Assert
+        assertEquals(5, strength);
+    }
+
+    @Test
+    void calibrate_fallsBackToMinimum_whenBudgetTooSmall() {
+        // Arrange
+        long impossibleBudgetMs = -1;
+
+        // Act
+        int strength = BcryptCostCalibrator.calibrate(4, 5, impossibleBudgetMs);
+
+        // Assert
+        assertEquals(4, strength);
+    }
+}
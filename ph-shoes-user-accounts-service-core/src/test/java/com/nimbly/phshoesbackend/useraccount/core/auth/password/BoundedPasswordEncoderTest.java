@@ -0,0 +1,83 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.password;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.PasswordHashingProps;
+import com.nimbly.phshoesbackend.useraccount.core.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void encodeAndMatches_delegateOnHashingPool() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingProps props = new PasswordHashingProps();
+        props.setThreads(1);
+
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(null), props, registry)) {
+            // Act
+            String encoded = encoder.encode("secret");
+            boolean matches = encoder.matches("secret", encoded);
+
+            // Assert
+            assertEquals("terces", encoded);
+            assertTrue(matches);
+            assertEquals(2, registry.find("auth.password.hash").timers().stream().mapToLong(t -> t.count()).sum());
+        }
+    }
+
+    @Test
+    void encode_throwsBusy_whenQueueWaitExceeded() throws Exception {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingProps props = new PasswordHashingProps();
+        props.setThreads(1);
+        props.setQueueCapacity(1);
+        props.setQueueWaitMs(50);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(release), props, registry)) {
+            Thread blocker = Thread.ofVirtual().start(() -> encoder.encode("first"));
+            while (registry.get("auth.password.hash.active").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            // Act
+            PasswordHashingBusyException exception = assertThrows(PasswordHashingBusyException.class,
+                    () -> encoder.encode("second"));
+
+            // Assert
+            assertEquals(1.0, registry.get("auth.password.hash.rejected").counter().count());
+            release.countDown();
+            blocker.join(TimeUnit.SECONDS.toMillis(5));
+            assertTrue(exception.getMessage().contains("capacity"));
+        }
+    }
+
+    private record ReversingEncoder(CountDownLatch gate) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.password;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TargetCostBCryptPasswordEncoderTest {
+
+    @Test
+    void upgradeEncoding_trueOnlyWhenCostIsBelowTarget() {
+        // Arrange
+        TargetCostBCryptPasswordEncoder encoder = new TargetCostBCryptPasswordEncoder(5);
+        String weaker = new BCryptPasswordEncoder(4).encode("secret");
+        String stronger = new BCryptPasswordEncoder(6).encode("secret");
+        String same = encoder.encode("secret");
+
+        // Act & Assert
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertFalse(encoder.upgradeEncoding(stronger));
+        assertFalse(encoder.upgradeEncoding(same));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+        assertTrue(encoder.matches("secret", stronger));
+    }
+}
@@ -0,0 +1,139 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.revocation;
+
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionRevocationProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.RevokedSession;
+import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RevokedSessionIndexTest {
+
+    @Mock
+    private SessionRevocationRepository revocations;
+    @Mock
+    private JwtTokenService jwtTokenService;
+
+    private RevokedSessionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RevokedSessionIndex(revocations, new SessionRevocationProps(), jwtTokenService);
+    }
+
+    @Test
+    void revoke_answersLocallyAndPublishes() {
+        // Arrange
+        long exp = Instant.now().getEpochSecond() + 600;
+
+        // Act
+        index.revoke("jti-1", exp);
+
+        // Assert
+        assertTrue(index.isRevoked("jti-1"));
+        assertFalse(index.isRevoked("jti-2"));
+        verify(revocations).recordRevocation(eq("jti-1"), eq(exp), any());
+    }
+
+    @Test
+    void revoke_keepsLocalEntry_whenPublishFails() {
+        // Arrange
+        long exp = Instant.now().getEpochSecond() + 600;
+        doThrow(new RuntimeException("ddb down")).when(revocations).recordRevocation(eq("jti-1"), anyLong(), any());
+
+        // Act
+        index.revoke("jti-1", exp);
+
+        // Assert
+        assertTrue(index.isRevoked("jti-1"));
+    }
+
+    @Test
+    void revoke_ignoresAlreadyExpiredToken() {
+        // Arrange
+        long exp = Instant.now().getEpochSecond() - 1;
+
+        // Act
+        index.revoke("jti-1", exp);
+
+        // Assert
+        assertFalse(index.isRevoked("jti-1"));
+        verify(revocations, never()).recordRevocation(any(), anyLong(), any());
+    }
+
+    @Test
+    void refresh_pullsRemoteRevocations_andDropsExpiredOnes() {
+        // Arrange
+        Instant now = Instant.now();
+        when(jwtTokenService.getAccessTtlSeconds()).thenReturn(900L);
+        when(revocations.findRevokedSince(any())).thenReturn(List.of(
+                new RevokedSession("remote-live", now.getEpochSecond() + 600, now.minusSeconds(2)),
+                new RevokedSession("remote-expired", now.getEpochSecond() - 5, now.minusSeconds(1))));
+
+        // Act
+        index.refresh();
+
+        // Assert
+        assertTrue(index.isRevoked("remote-live"));
+        assertFalse(index.isRevoked("remote-expired"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void refresh_readsFromWatermarkMinusSkew_afterFirstPull() {
+        // Arrange
+        Instant now = Instant.now();
+        Instant newest = now.minusSeconds(1);
+        when(jwtTokenService.getAccessTtlSeconds()).thenReturn(900L);
+        when(revocations.findRevokedSince(any()))
+                .thenReturn(List.of(new RevokedSession("jti-1", now.getEpochSecond() + 600, newest)))
+                .thenReturn(List.of());
+        index.refresh();
+
+        // Act
+        index.refresh();
+
+        // Assert
+        verify(revocations).findRevokedSince(newest.minusSeconds(new SessionRevocationProps().getClockSkewSeconds()));
+    }
+
+    @Test
+    void refresh_advancesWatermark_whenNothingWasRevoked() {
+        // Arrange
+        long skew = new SessionRevocationProps().getClockSkewSeconds();
+        when(jwtTokenService.getAccessTtlSeconds()).thenReturn(86_400L * 3);
+        when(revocations.findRevokedSince(any())).thenReturn(List.of());
+        index.refresh();
+        Instant beforeIdleRefresh = Instant.now();
+
+        // Act
+        index.refresh();
+
+        // Assert
+        ArgumentCaptor<Instant> from = ArgumentCaptor.forClass(Instant.class);
+        verify(revocations, times(2)).findRevokedSince(from.capture());
+        assertTrue(from.getAllValues().get(0).isBefore(beforeIdleRefresh.minusSeconds(86_400L * 2)));
+        assertFalse(from.getAllValues().get(1).isBefore(beforeIdleRefresh.minusSeconds(2 * skew + 1)),
+                "idle refresh should read only the last few seconds, read from " + from.getAllValues().get(1));
+    }
+}
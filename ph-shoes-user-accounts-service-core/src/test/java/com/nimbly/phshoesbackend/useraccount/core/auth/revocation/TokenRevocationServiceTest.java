@@ -0,0 +1,105 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.revocation;
+
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionRevocationProps;
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
+import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedSessionIndex revokedSessions;
+    @Mock
+    private AccountRepository accounts;
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        SessionRevocationProps props = new SessionRevocationProps();
+        service = new TokenRevocationService(revokedSessions, new TokenEpochCache(accounts, props), props);
+    }
+
+    private static AuthenticatedPrincipal token(String jti, String sub, Instant issuedAt) {
+        return new AuthenticatedPrincipal(sub, "user@example.com", jti, issuedAt, issuedAt.plusSeconds(300), List.of());
+    }
+
+    @Test
+    void ensureNotRevoked_acceptsToken_andCachesEpoch() {
+        // Arrange
+        AuthenticatedPrincipal principal = token("jti-1", "user-1", Instant.now());
+        when(accounts.findTokensValidAfter("user-1")).thenReturn(Optional.empty());
+
+        // Act
+        service.ensureNotRevoked(principal);
+        service.ensureNotRevoked(principal);
+
+        // Assert
+        verify(accounts, times(1)).findTokensValidAfter("user-1");
+    }
+
+    @Test
+    void ensureNotRevoked_rejectsTokenIssuedBeforeEpoch() {
+        // Arrange
+        Instant issuedAt = Instant.now().minusSeconds(60);
+        AuthenticatedPrincipal principal = token("jti-1", "user-1", issuedAt);
+
+        // Act
+        service.revokeAllForUser("user-1");
+
+        // Assert
+        assertThrows(InvalidCredentialsException.class, () -> service.ensureNotRevoked(principal));
+        verify(accounts).setTokensValidAfter(eq("user-1"), any());
+        verify(accounts, never()).findTokensValidAfter("user-1");
+    }
+
+    @Test
+    void ensureNotRevoked_acceptsTokenIssuedAfterEpoch() {
+        // Arrange
+        AuthenticatedPrincipal principal = token("jti-1", "user-1", Instant.now().plusSeconds(1));
+        service.revokeAllForUser("user-1");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> service.ensureNotRevoked(principal));
+    }
+
+    @Test
+    void ensureNotRevoked_rejectsTokenOfDeletedUser() {
+        // Arrange
+        AuthenticatedPrincipal principal = token("jti-1", "user-1", Instant.now());
+        when(accounts.findTokensValidAfter("user-1")).thenReturn(Optional.of(Instant.MAX));
+
+        // Act & Assert
+        assertThrows(InvalidCredentialsException.class, () -> service.ensureNotRevoked(principal));
+    }
+
+    @Test
+    void ensureNotRevoked_rejectsRevokedJti_beforeEpochLookup() {
+        // Arrange
+        AuthenticatedPrincipal principal = token("jti-1", "user-1", Instant.now());
+        when(revokedSessions.isRevoked("jti-1")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(InvalidCredentialsException.class, () -> service.ensureNotRevoked(principal));
+        verify(accounts, never()).findTokensValidAfter(any());
+    }
+}
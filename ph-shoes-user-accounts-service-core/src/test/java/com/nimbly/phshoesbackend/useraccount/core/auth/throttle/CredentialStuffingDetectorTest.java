@@ -0,0 +1,123 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.throttle;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.StuffingDetectionProps;
+import com.nimbly.phshoesbackend.useraccount.core.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CredentialStuffingDetectorTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry registry;
+    private CredentialStuffingDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        StuffingDetectionProps props = new StuffingDetectionProps();
+        props.setMaxFailuresPerIp(3);
+        props.setMaxFailuresPerEmail(2);
+        props.setWindowSeconds(60);
+        props.setWindowBuckets(3);
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        registry = new SimpleMeterRegistry();
+        detector = new CredentialStuffingDetector(props, registry, clock);
+    }
+
+    @Test
+    void checkAllowed_rejectsIp_sprayingAcrossManyEmails() {
+        // Arrange
+        detector.recordFailure("10.0.0.1", "hash-a");
+        detector.recordFailure("10.0.0.1", "hash-b");
+        detector.recordFailure("10.0.0.1", "hash-c");
+
+        // Act
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> detector.checkAllowed("10.0.0.1", "hash-d"));
+
+        // Assert
+        assertEquals("ip", exception.getScope());
+        assertDoesNotThrow(() -> detector.checkAllowed("10.0.0.2", "hash-d"));
+    }
+
+    @Test
+    void checkAllowed_rejectsEmail_targetedFromManyIps() {
+        // Arrange
+        detector.recordFailure("10.0.0.1", "hash-a");
+        detector.recordFailure("10.0.0.2", "hash-a");
+
+        // Act
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> detector.checkAllowed("10.0.0.3", "hash-a"));
+
+        // Assert
+        assertEquals("email", exception.getScope());
+    }
+
+    @Test
+    void checkAllowed_forgetsFailures_afterWindowSlides() {
+        // Arrange
+        detector.recordFailure("10.0.0.1", "hash-a");
+        detector.recordFailure("10.0.0.1", "hash-b");
+        detector.recordFailure("10.0.0.1", "hash-c");
+
+        // Act
+        clock.advance(Duration.ofSeconds(61));
+
+        // Assert
+        assertDoesNotThrow(() -> detector.checkAllowed("10.0.0.1", "hash-d"));
+    }
+
+    @Test
+    void publishHeavyHitters_exposesTopKeysAsMaskedGauges() {
+        // Arrange
+        detector.recordFailure("10.0.0.1", "hash-a");
+        detector.recordFailure("10.0.0.1", "hash-b");
+        detector.recordFailure("10.0.0.2", "hash-c");
+
+        // Act
+        detector.publishHeavyHitters();
+
+        // Assert
+        assertEquals(3.0, registry.get("auth.login.stuffing.failures")
+                .tags("kind", "ip", "key", "10.0.0.0/24").gauge().value());
+        assertTrue(registry.find("auth.login.stuffing.failures").tags("key", "10.0.0.1").gauges().isEmpty());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
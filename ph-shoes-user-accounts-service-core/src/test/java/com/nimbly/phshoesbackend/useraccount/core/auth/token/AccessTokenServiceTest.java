@@ -0,0 +1,164 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.token;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps.SigningAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccessTokenServiceTest {
+
+    @Mock
+    private JwtTokenService jwtTokenService;
+
+    private AccessTokenService service(SigningAlgorithm algorithm, JwtSigningProps.Key... keys) {
+        return service(algorithm, null, keys);
+    }
+
+    private AccessTokenService service(SigningAlgorithm algorithm, Instant hs256CutoverAt, JwtSigningProps.Key... keys) {
+        JwtSigningProps props = new JwtSigningProps();
+        props.setAlgorithm(algorithm);
+        props.setHs256CutoverAt(hs256CutoverAt);
+        props.getKeys().addAll(List.of(keys));
+        return new AccessTokenService(jwtTokenService, new SigningKeyRing(props, new ObjectMapper()), props);
+    }
+
+    @Test
+    void rs256_issuesTokenWithKid_thatParsesBack() throws Exception {
+        // Arrange
+        when(jwtTokenService.getAccessTtlSeconds()).thenReturn(300L);
+        AccessTokenService service = service(SigningAlgorithm.RS256, SigningKeyRingTest.key("k1", SigningKeyRingTest.rsa(), null));
+
+        // Act
+        String token = service.issueAccessToken("user-1", "user@example.com");
+        DecodedJWT decoded = service.parseAccess(token);
+
+        // Assert
+        assertEquals("k1", decoded.getKeyId());
+        assertEquals("RS256", decoded.getAlgorithm());
+        assertEquals("user-1", decoded.getSubject());
+        assertEquals("user@example.com", decoded.getClaim("email").asString());
+        assertEquals("ph-shoes", decoded.getIssuer());
+        assertNotNull(decoded.getId());
+        assertEquals(300L, decoded.getExpiresAtAsInstant().getEpochSecond() - decoded.getIssuedAtAsInstant().getEpochSecond());
+    }
+
+    @Test
+    void rs256_rejectsTokenSignedWithUnpublishedKey() throws Exception {
+        // Arrange
+        AccessTokenService service = service(SigningAlgorithm.RS256, SigningKeyRingTest.key("k1", SigningKeyRingTest.rsa(), null));
+        KeyPair other = SigningKeyRingTest.rsa();
+        String forged = JWT.create().withKeyId("k1").withIssuer("ph-shoes").withSubject("user-1")
+                .sign(Algorithm.RSA256((RSAPublicKey) other.getPublic(), (RSAPrivateKey) other.getPrivate()));
+        String unknownKid = JWT.create().withKeyId("k9").withIssuer("ph-shoes").withSubject("user-1")
+                .sign(Algorithm.RSA256((RSAPublicKey) other.getPublic(), (RSAPrivateKey) other.getPrivate()));
+
+        // Act & Assert
+        assertThrows(JwtVerificationException.class, () -> service.parseAccess(forged));
+        assertThrows(JwtVerificationException.class, () -> service.parseAccess(unknownKid));
+    }
+
+    @Test
+    void rs256_acceptsHs256TokensIssuedBeforeCutover() throws Exception {
+        // Arrange
+        Instant cutover = Instant.now();
+        when(jwtTokenService.getAccessTtlSeconds()).thenReturn(300L);
+        AccessTokenService service = service(SigningAlgorithm.RS256, cutover,
+                SigningKeyRingTest.key("k1", SigningKeyRingTest.rsa(), null));
+        String legacy = JWT.create().withSubject("user-1")
+                .withIssuedAt(cutover.minusSeconds(60))
+                .withExpiresAt(cutover.plusSeconds(240))
+                .sign(Algorithm.HMAC256("secret"));
+        DecodedJWT decoded = mock(DecodedJWT.class);
+        when(jwtTokenService.parseAccess(legacy)).thenReturn(decoded);
+
+        // Act
+        DecodedJWT out = service.parseAccess(legacy);
+
+        // Assert
+        assertEquals(decoded, out);
+    }
+
+    @Test
+    void rs256_rejectsHs256TokenMintedAfterCutover() throws Exception {
+        // Arrange
+        Instant cutover = Instant.now().minusSeconds(3600);
+        AccessTokenService service = service(SigningAlgorithm.RS256, cutover,
+                SigningKeyRingTest.key("k1", SigningKeyRingTest.rsa(), null));
+        Instant now = Instant.now();
+        String fresh = JWT.create().withSubject("user-1")
+                .withIssuedAt(now)
+                .withExpiresAt(now.plusSeconds(300))
+                .sign(Algorithm.HMAC256("secret"));
+
+        // Act & Assert
+        assertThrows(JwtVerificationException.class, () -> service.parseAccess(fresh));
+        verify(jwtTokenService, never()).parseAccess(fresh);
+    }
+
+    @Test
+    void rs256_rejectsBackdatedHs256TokenOutlivingCutover() throws Exception {
+        // Arrange
+        Instant cutover = Instant.now().minusSeconds(3600);
+        when(jwtTokenService.getAccessTtlSeconds()).thenReturn(300L);
+        AccessTokenService service = service(SigningAlgorithm.RS256, cutover,
+                SigningKeyRingTest.key("k1", SigningKeyRingTest.rsa(), null));
+        String backdated = JWT.create().withSubject("user-1")
+                .withIssuedAt(cutover.minusSeconds(60))
+                .withExpiresAt(Instant.now().plusSeconds(300))
+                .sign(Algorithm.HMAC256("secret"));
+
+        // Act & Assert
+        assertThrows(JwtVerificationException.class, () -> service.parseAccess(backdated));
+    }
+
+    @Test
+    void rs256_rejectsHs256TokensWithoutCutover() throws Exception {
+        // Arrange
+        AccessTokenService service = service(SigningAlgorithm.RS256, SigningKeyRingTest.key("k1", SigningKeyRingTest.rsa(), null));
+        Instant now = Instant.now();
+        String legacy = JWT.create().withSubject("user-1")
+                .withIssuedAt(now.minusSeconds(60))
+                .withExpiresAt(now.plusSeconds(240))
+                .sign(Algorithm.HMAC256("secret"));
+
+        // Act & Assert
+        assertThrows(JwtVerificationException.class, () -> service.parseAccess(legacy));
+    }
+
+    @Test
+    void hs256_delegatesToSharedService() {
+        // Arrange
+        AccessTokenService service = service(SigningAlgorithm.HS256);
+        when(jwtTokenService.issueAccessToken("user-1", "user@example.com")).thenReturn("token");
+
+        // Act
+        String token = service.issueAccessToken("user-1", "user@example.com");
+
+        // Assert
+        assertEquals("token", token);
+        verify(jwtTokenService).issueAccessToken("user-1", "user@example.com");
+    }
+}
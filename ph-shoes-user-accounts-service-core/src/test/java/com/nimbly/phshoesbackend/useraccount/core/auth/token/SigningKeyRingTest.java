@@ -0,0 +1,111 @@
+package com.nimbly.phshoesbackend.useraccount.core.auth.token;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps.SigningAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SigningKeyRingTest {
+
+    private static final Instant ROTATED_AT = Instant.parse("2026-01-01T00:00:00Z");
+
+    static JwtSigningProps.Key key(String kid, KeyPair pair, Instant activateAt) {
+        JwtSigningProps.Key key = new JwtSigningProps.Key();
+        key.setKid(kid);
+        key.setPrivateKey(Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+        key.setPublicKey(Base64.getMimeEncoder().encodeToString(pair.getPublic().getEncoded()));
+        key.setActivateAt(activateAt);
+        return key;
+    }
+
+    static KeyPair rsa() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static KeyPair ec() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static JwtSigningProps props(SigningAlgorithm algorithm, JwtSigningProps.Key... keys) {
+        JwtSigningProps props = new JwtSigningProps();
+        props.setAlgorithm(algorithm);
+        props.setOverlapSeconds(600);
+        props.getKeys().addAll(List.of(keys));
+        return props;
+    }
+
+    @Test
+    void rotation_signsWithNewestKey_andKeepsOldKeyForOverlap() throws Exception {
+        // Arrange
+        SigningKeyRing ring = new SigningKeyRing(props(SigningAlgorithm.RS256,
+                key("new", rsa(), ROTATED_AT), key("old", rsa(), null)), new ObjectMapper());
+
+        // Act
+        String before = ring.current(ROTATED_AT.minusSeconds(1)).kid();
+        String after = ring.current(ROTATED_AT.plusSeconds(1)).kid();
+
+        // Assert
+        assertEquals("old", before);
+        assertEquals("new", after);
+        assertEquals(2, ring.published(ROTATED_AT.minusSeconds(60)).size());
+        assertTrue(ring.find("old", ROTATED_AT.plusSeconds(599)).isPresent());
+        assertFalse(ring.find("old", ROTATED_AT.plusSeconds(600)).isPresent());
+        assertTrue(ring.find("new", ROTATED_AT.plusSeconds(600)).isPresent());
+    }
+
+    @Test
+    void jwks_publishesEcKeys_andIsReusedWhileKidsAreUnchanged() throws Exception {
+        // Arrange
+        SigningKeyRing ring = new SigningKeyRing(props(SigningAlgorithm.ES256, key("ec-1", ec(), null)), new ObjectMapper());
+
+        // Act
+        SigningKeyRing.Jwks first = ring.jwks(ROTATED_AT);
+        SigningKeyRing.Jwks second = ring.jwks(ROTATED_AT.plusSeconds(60));
+
+        // Assert
+        JsonNode jwk = new ObjectMapper().readTree(first.json()).get("keys").get(0);
+        assertEquals("EC", jwk.get("kty").asText());
+        assertEquals("ec-1", jwk.get("kid").asText());
+        assertEquals("ES256", jwk.get("alg").asText());
+        assertEquals(32, Base64.getUrlDecoder().decode(jwk.get("x").asText()).length);
+        assertTrue(first.etag().startsWith("\""));
+        assertSame(first, second);
+    }
+
+    @Test
+    void constructor_rejectsRingWithoutActivatedSigningKey() throws Exception {
+        // Arrange
+        JwtSigningProps props = props(SigningAlgorithm.RS256, key("future", rsa(), Instant.now().plusSeconds(3600)));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new SigningKeyRing(props, new ObjectMapper()));
+    }
+
+    @Test
+    void hs256_loadsNoKeys() {
+        // Act
+        SigningKeyRing ring = new SigningKeyRing(new JwtSigningProps(), new ObjectMapper());
+
+        // Assert
+        assertFalse(ring.isAsymmetric());
+        assertTrue(ring.published(Instant.now()).isEmpty());
+    }
+}
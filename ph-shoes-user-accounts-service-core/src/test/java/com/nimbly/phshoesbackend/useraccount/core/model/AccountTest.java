@@ -1,10 +1,13 @@
 package com.nimbly.phshoesbackend.useraccount.core.model;
 
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.AccountAttrs;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -68,4 +71,38 @@ class AccountTest {
         assertEquals(account.hashCode(), other.hashCode());
         assertTrue(account.toString().contains("user-1"));
     }
+
+    @Test
+    void changedAttributes_tracksOnlyFieldsModifiedSinceMarkPersisted() {
+        // Arrange
+        Account account = new Account();
+        account.setUserId("user-1");
+        account.setSettingsJson("{\"k\":\"v\"}");
+        account.setLockUntil(Instant.now());
+        account.markPersisted();
+
+        // Act
+        account.setSettingsJson("{\"k\":\"v\"}");
+        account.setLastLoginIp("127.0.0.1");
+        account.setLockUntil(null);
+
+        // Assert
+        assertTrue(account.wasLoaded());
+        assertEquals(Set.of(AccountAttrs.LAST_LOGIN_IP, AccountAttrs.LOCK_UNTIL), account.changedAttributes());
+    }
+
+    @Test
+    void changedAttributes_reportsAllNonKeyAttributes_whenNeverPersisted() {
+        // Arrange
+        Account account = new Account();
+        account.setUserId("user-1");
+
+        // Act
+        Set<String> changed = account.changedAttributes();
+
+        // Assert
+        assertFalse(account.wasLoaded());
+        assertFalse(changed.contains(AccountAttrs.PK_USERID));
+        assertTrue(changed.contains(AccountAttrs.SETTINGS_JSON));
+    }
 }
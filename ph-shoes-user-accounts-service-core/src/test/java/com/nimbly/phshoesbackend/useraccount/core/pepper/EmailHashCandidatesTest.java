@@ -0,0 +1,66 @@
+package com.nimbly.phshoesbackend.useraccount.core.pepper;
+
+import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
+import com.nimbly.phshoesbackend.useraccount.core.repository.EmailPepperWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailHashCandidatesTest {
+
+    @Mock
+    private EmailCrypto emailCrypto;
+    @Mock
+    private EmailPepperWatermarkRepository watermarks;
+
+    private EmailHashCandidates candidates;
+
+    @BeforeEach
+    void setUp() {
+        candidates = new EmailHashCandidates(emailCrypto, watermarks);
+    }
+
+    @Test
+    void forLookup_returnsAllCandidates_untilWatermarkMatchesGeneration() {
+        // Arrange
+        when(emailCrypto.hash(anyString())).thenReturn("gen-2");
+        when(watermarks.findCompletedGeneration()).thenReturn(Optional.of("gen-1"));
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("primary", "legacy"));
+
+        // Act
+        boolean primaryOnly = candidates.refresh();
+        List<String> result = candidates.forLookup("user@example.com");
+
+        // Assert
+        assertFalse(primaryOnly);
+        assertEquals(List.of("primary", "legacy"), result);
+    }
+
+    @Test
+    void forLookup_returnsPrimaryOnly_whenMigrationComplete() {
+        // Arrange
+        when(emailCrypto.hash(anyString())).thenReturn("gen-2");
+        when(watermarks.findCompletedGeneration()).thenReturn(Optional.of("gen-2"));
+        when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("primary", "legacy"));
+
+        // Act
+        boolean primaryOnly = candidates.refresh();
+        List<String> result = candidates.forLookup("user@example.com");
+
+        // Assert
+        assertTrue(primaryOnly);
+        assertEquals(List.of("primary"), result);
+    }
+}
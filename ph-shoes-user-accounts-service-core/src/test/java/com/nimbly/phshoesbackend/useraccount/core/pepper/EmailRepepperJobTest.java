@@ -0,0 +1,113 @@
+package com.nimbly.phshoesbackend.useraccount.core.pepper;
+
+import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.RepepperProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.MaintenanceAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.EmailPepperWatermarkRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.MaintenanceLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailRepepperJobTest {
+
+    @Mock
+    private AccountRepository accounts;
+    @Mock
+    private EmailPepperWatermarkRepository watermarks;
+    @Mock
+    private EmailCrypto emailCrypto;
+    @Mock
+    private MaintenanceLeaseRepository leases;
+
+    private RepepperProps props;
+    private EmailRepepperJob job;
+
+    @BeforeEach
+    void setUp() {
+        props = new RepepperProps();
+        props.setSegments(1);
+        props.setMaxWritesPerSecond(1000);
+        job = new EmailRepepperJob(accounts, watermarks, new EmailHashCandidates(emailCrypto, watermarks), emailCrypto, props, leases);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_rehashesLegacyAccountsAndMarksGenerationComplete() {
+        // Arrange
+        Account legacy = new Account();
+        legacy.setUserId("user-1");
+        legacy.setEmailHash("legacy-hash");
+        legacy.setEmailEnc("enc");
+
+        when(emailCrypto.hash(anyString())).thenReturn("gen-2");
+        when(watermarks.findCompletedGeneration()).thenReturn(Optional.empty());
+        when(emailCrypto.decrypt("enc")).thenReturn("user@example.com");
+        when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
+        when(emailCrypto.hash("user@example.com")).thenReturn("primary-hash");
+        when(accounts.replaceEmailHash("user-1", "legacy-hash", "primary-hash")).thenReturn(true);
+        when(leases.tryAcquire(eq(MaintenanceAttrs.EMAIL_REPEPPER), anyString(), anyLong(), anyLong())).thenReturn(true);
+        doAnswer(inv -> {
+            ((Consumer<List<Account>>) inv.getArgument(3)).accept(List.of(legacy));
+            return null;
+        }).when(accounts).scanEmailIdentities(eq(0), eq(1), anyInt(), any());
+
+        // Act
+        job.run();
+
+        // Assert
+        verify(accounts).replaceEmailHash("user-1", "legacy-hash", "primary-hash");
+        verify(watermarks).markCompleted("gen-2");
+        verify(leases).release(eq(MaintenanceAttrs.EMAIL_REPEPPER), anyString());
+    }
+
+    @Test
+    void run_skipsScan_whenAnotherNodeHoldsTheLease() {
+        // Arrange
+        when(emailCrypto.hash(anyString())).thenReturn("gen-2");
+        when(watermarks.findCompletedGeneration()).thenReturn(Optional.empty());
+        when(leases.tryAcquire(eq(MaintenanceAttrs.EMAIL_REPEPPER), anyString(), anyLong(), anyLong())).thenReturn(false);
+
+        // Act
+        job.run();
+
+        // Assert
+        verify(accounts, never()).scanEmailIdentities(anyInt(), anyInt(), anyInt(), any());
+        verify(watermarks, never()).markCompleted(anyString());
+        verify(leases, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void run_skipsScan_whenGenerationAlreadyComplete() {
+        // Arrange
+        when(emailCrypto.hash(anyString())).thenReturn("gen-2");
+        when(watermarks.findCompletedGeneration()).thenReturn(Optional.of("gen-2"));
+
+        // Act
+        job.run();
+
+        // Assert
+        verify(accounts, never()).scanEmailIdentities(anyInt(), anyInt(), anyInt(), any());
+        verify(watermarks, never()).markCompleted(anyString());
+        verify(leases, never()).tryAcquire(anyString(), anyString(), anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,126 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionRevocationProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.RevokedSession;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.RevocationAttrs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoDbSessionRevocationRepositoryTest {
+
+    @Mock
+    private DynamoDbClient ddb;
+
+    private SessionRevocationProps props;
+    private DynamoDbSessionRevocationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        props = new SessionRevocationProps();
+        props.setBucketShards(4);
+        repository = new DynamoDbSessionRevocationRepository(ddb, props);
+    }
+
+    @Test
+    void recordRevocation_spreadsOneDayOverShardBuckets() {
+        // Arrange
+        Instant now = Instant.now();
+        String day = LocalDate.ofInstant(now, ZoneOffset.UTC).toString();
+
+        // Act
+        for (int i = 0; i < 64; i++) {
+            repository.recordRevocation("jti-" + i, now.getEpochSecond() + 300, now);
+        }
+
+        // Assert
+        ArgumentCaptor<PutItemRequest> captor = ArgumentCaptor.forClass(PutItemRequest.class);
+        verify(ddb, atLeastOnce()).putItem(captor.capture());
+        Set<String> buckets = new HashSet<>();
+        for (PutItemRequest request : captor.getAllValues()) {
+            buckets.add(request.item().get(RevocationAttrs.PK_BUCKET).s());
+        }
+        assertEquals(Set.of(day + "#0", day + "#1", day + "#2", day + "#3"), buckets);
+    }
+
+    @Test
+    void findRevokedSince_queriesEveryShard_andMergesOldestFirst() {
+        // Arrange
+        Instant now = Instant.now();
+        String day = LocalDate.ofInstant(now, ZoneOffset.UTC).toString();
+        when(ddb.queryPaginator(any(QueryRequest.class)))
+                .thenAnswer(inv -> new QueryIterable(ddb, inv.getArgument(0)));
+        when(ddb.query(any(QueryRequest.class))).thenAnswer(inv -> {
+            QueryRequest request = inv.getArgument(0);
+            String bucket = request.expressionAttributeValues().get(":b").s();
+            if (bucket.equals(day + "#1")) {
+                return QueryResponse.builder().items(List.of(item("jti-late", now.minusMillis(10)))).build();
+            }
+            if (bucket.equals(day + "#3")) {
+                return QueryResponse.builder().items(List.of(item("jti-early", now.minusMillis(20)))).build();
+            }
+            return QueryResponse.builder().items(List.of()).build();
+        });
+
+        // Act
+        List<RevokedSession> out = repository.findRevokedSince(now.minusSeconds(1));
+
+        // Assert
+        ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(ddb, atLeastOnce()).query(captor.capture());
+        Set<String> queried = new HashSet<>();
+        captor.getAllValues().forEach(r -> queried.add(r.expressionAttributeValues().get(":b").s()));
+        assertEquals(true, queried.containsAll(Set.of(day + "#0", day + "#1", day + "#2", day + "#3")));
+        assertEquals(List.of("jti-early", "jti-late"), out.stream().map(RevokedSession::jti).toList());
+    }
+
+    private static Map<String, AttributeValue> item(String jti, Instant revokedAt) {
+        return Map.of(
+                RevocationAttrs.JTI, AttributeValue.fromS(jti),
+                RevocationAttrs.EXPIRES_AT, AttributeValue.fromN(Long.toString(revokedAt.getEpochSecond() + 300)),
+                RevocationAttrs.REVOKED_AT, AttributeValue.fromN(Long.toString(revokedAt.toEpochMilli())));
+    }
+
+    @Test
+    void findRevokedSince_queriesOnlyTodaysShards_whenSinceIsToday() {
+        // Arrange
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        when(ddb.queryPaginator(any(QueryRequest.class)))
+                .thenAnswer(inv -> new QueryIterable(ddb, inv.getArgument(0)));
+        when(ddb.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().items(List.of()).build());
+
+        // Act
+        repository.findRevokedSince(today.atStartOfDay(ZoneOffset.UTC).toInstant());
+
+        // Assert
+        ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(ddb, times(4)).query(captor.capture());
+        captor.getAllValues().forEach(r ->
+                assertEquals(true, r.expressionAttributeValues().get(":b").s().startsWith(today + "#")));
+    }
+}
@@ -0,0 +1,126 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.model.VerificationConsumeOutcome;
+import com.nimbly.phshoesbackend.useraccount.core.model.VerificationStatus;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.AccountAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.VerificationAttrs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoDbVerificationRepositoryTest {
+
+    @Mock
+    private DynamoDbEnhancedClient enhanced;
+    @Mock
+    private DynamoDbClient ddb;
+
+    private DynamoDbVerificationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new DynamoDbVerificationRepository(enhanced, ddb);
+    }
+
+    @Test
+    void consumeAndVerifyAccount_writesEntryAndAccountInOneTransaction() {
+        // Arrange
+        when(ddb.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(TransactWriteItemsResponse.builder().build());
+
+        // Act
+        VerificationConsumeOutcome outcome = repository.consumeAndVerifyAccount("verify-1", "user-1", 100L);
+
+        // Assert
+        assertEquals(VerificationConsumeOutcome.CONSUMED, outcome);
+        ArgumentCaptor<TransactWriteItemsRequest> captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(ddb).transactWriteItems(captor.capture());
+        var items = captor.getValue().transactItems();
+        assertEquals(2, items.size());
+        assertEquals(VerificationAttrs.TABLE, items.get(0).update().tableName());
+        assertEquals(AccountAttrs.TABLE, items.get(1).update().tableName());
+        assertEquals("user-1", items.get(1).update().key().get(AccountAttrs.PK_USERID).s());
+    }
+
+    @Test
+    void consumeAndVerifyAccount_withoutUser_onlyConsumesEntry() {
+        // Arrange
+        when(ddb.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(TransactWriteItemsResponse.builder().build());
+
+        // Act
+        repository.consumeAndVerifyAccount("verify-1", null, 100L);
+
+        // Assert
+        ArgumentCaptor<TransactWriteItemsRequest> captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(ddb).transactWriteItems(captor.capture());
+        assertEquals(1, captor.getValue().transactItems().size());
+    }
+
+    @Test
+    void consumeAndVerifyAccount_translatesCancellationReasons() {
+        assertEquals(VerificationConsumeOutcome.NOT_FOUND, outcomeFor(failed(Map.of()), none()));
+        assertEquals(VerificationConsumeOutcome.ALREADY_USED, outcomeFor(failed(entry(VerificationStatus.VERIFIED)), none()));
+        assertEquals(VerificationConsumeOutcome.EXPIRED, outcomeFor(failed(entry(VerificationStatus.PENDING)), none()));
+        assertEquals(VerificationConsumeOutcome.ACCOUNT_MISSING, outcomeFor(none(), failed(Map.of())));
+        assertEquals(VerificationConsumeOutcome.ALREADY_USED,
+                outcomeFor(none(), failed(Map.of(AccountAttrs.IS_VERIFIED, AttributeValue.fromBool(true)))));
+    }
+
+    @Test
+    void consumeAndVerifyAccount_rethrowsTransactionConflicts() {
+        // Arrange
+        TransactionCanceledException conflict = canceled(
+                CancellationReason.builder().code("TransactionConflict").build(), none());
+        when(ddb.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(conflict);
+
+        // Act
+        TransactionCanceledException thrown = assertThrows(TransactionCanceledException.class,
+                () -> repository.consumeAndVerifyAccount("verify-1", "user-1", 100L));
+
+        // Assert
+        assertSame(conflict, thrown);
+    }
+
+    private VerificationConsumeOutcome outcomeFor(CancellationReason entryReason, CancellationReason accountReason) {
+        return DynamoDbVerificationRepository.classify(canceled(entryReason, accountReason));
+    }
+
+    private static TransactionCanceledException canceled(CancellationReason... reasons) {
+        return TransactionCanceledException.builder().cancellationReasons(reasons).build();
+    }
+
+    private static CancellationReason failed(Map<String, AttributeValue> item) {
+        return CancellationReason.builder().code("ConditionalCheckFailed").item(item).build();
+    }
+
+    private static CancellationReason none() {
+        return CancellationReason.builder().code("None").build();
+    }
+
+    private static Map<String, AttributeValue> entry(VerificationStatus status) {
+        return Map.of(
+                VerificationAttrs.PK_VERIFICATION_ID, AttributeValue.fromS("verify-1"),
+                VerificationAttrs.STATUS, AttributeValue.fromS(status.name()));
+    }
+}
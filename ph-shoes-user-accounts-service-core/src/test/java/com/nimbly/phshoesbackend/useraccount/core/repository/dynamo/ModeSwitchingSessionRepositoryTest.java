@@ -0,0 +1,105 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ModeSwitchingSessionRepositoryTest {
+
+    @Mock
+    private DynamoDbSessionRepository legacy;
+    @Mock
+    private DynamoDbUserSessionRepository v2;
+
+    private SessionStoreProps props;
+    private ModeSwitchingSessionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        props = new SessionStoreProps();
+        repository = new ModeSwitchingSessionRepository(legacy, v2, props);
+    }
+
+    @Test
+    void legacyMode_neverTouchesV2() {
+        // Arrange
+        props.setMode(SessionStoreProps.Mode.LEGACY);
+
+        // Act
+        repository.createSession("jti-1", "user-1", 100L, "ip", "ua", "rh");
+
+        // Assert
+        verify(legacy).createSession("jti-1", "user-1", 100L, "ip", "ua", "rh");
+        verifyNoInteractions(v2);
+    }
+
+    @Test
+    void dualWrite_writesBoth_readsLegacy_andDeletesShadowCopy() {
+        // Arrange
+        props.setMode(SessionStoreProps.Mode.DUAL_WRITE);
+        when(legacy.revokeIfActive("user-1", "jti-1", 50L)).thenReturn(Optional.of(new SessionItem()));
+
+        // Act
+        repository.createSession("jti-1", "user-1", 100L, "ip", "ua", "rh");
+        Optional<SessionItem> revoked = repository.revokeIfActive("user-1", "jti-1", 50L);
+
+        // Assert
+        assertTrue(revoked.isPresent());
+        verify(legacy).createSession("jti-1", "user-1", 100L, "ip", "ua", "rh");
+        verify(v2).createSession("jti-1", "user-1", 100L, "ip", "ua", "rh");
+        verify(v2).revokeSession("user-1", "jti-1");
+        verify(v2, never()).revokeIfActive(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void v2Mode_readsAndWritesOnlyV2() {
+        // Arrange
+        props.setMode(SessionStoreProps.Mode.V2);
+        when(v2.revokeAllForUser("user-1")).thenReturn(3);
+
+        // Act
+        int removed = repository.revokeAllForUser("user-1");
+        repository.listActiveSessionsByUser("user-1", 10, null);
+
+        // Assert
+        assertEquals(3, removed);
+        verify(v2).listActiveSessionsByUser("user-1", 10, null);
+        verify(legacy, never()).revokeAllForUser(anyString());
+        verify(legacy, never()).listActiveSessionsByUser(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void dualWrite_rotatesShadow_onlyAfterPrimaryRotated() {
+        // Arrange
+        props.setMode(SessionStoreProps.Mode.DUAL_WRITE);
+        SessionItem next = new SessionItem();
+        next.setSessionId("jti-2");
+        when(legacy.rotateSession("user-1", "jti-1", "rh", next, 100L)).thenReturn(false);
+
+        // Act
+        boolean rotated = repository.rotateSession("user-1", "jti-1", "rh", next, 100L);
+
+        // Assert
+        assertFalse(rotated);
+        verifyNoInteractions(v2);
+    }
+}
@@ -0,0 +1,84 @@
+package com.nimbly.phshoesbackend.useraccount.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidPageCursorException;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionTableSupportTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private static SessionItem session(String id, long createdAt, long expiresAt) {
+        SessionItem item = new SessionItem();
+        item.setSessionId(id);
+        item.setCreatedAt(Instant.ofEpochSecond(createdAt));
+        item.setExpiresAt(expiresAt);
+        return item;
+    }
+
+    @Test
+    void pickEvictions_keepsRoomForNewSession_evictingOldestFirst() {
+        // Arrange
+        List<SessionItem> existing = List.of(
+                session("newer", 300, NOW + 100),
+                session("oldest", 100, NOW + 100),
+                session("middle", 200, NOW + 100));
+
+        // Act
+        List<SessionItem> evicted = SessionTableSupport.pickEvictions(existing, 2, NOW);
+
+        // Assert
+        assertEquals(List.of("oldest", "middle"), evicted.stream().map(SessionItem::getSessionId).toList());
+    }
+
+    @Test
+    void pickEvictions_leavesExpiredRowsToTtl() {
+        // Arrange
+        List<SessionItem> existing = List.of(
+                session("expired", 100, NOW - 1),
+                session("live", 200, NOW + 100));
+
+        // Act
+        List<SessionItem> evicted = SessionTableSupport.pickEvictions(existing, 1, NOW);
+
+        // Assert
+        assertEquals(List.of("live"), evicted.stream().map(SessionItem::getSessionId).toList());
+    }
+
+    @Test
+    void pickEvictions_boundsDeletesPerLogin() {
+        // Arrange
+        List<SessionItem> existing = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            existing.add(session("expired-" + i, i, NOW - 1));
+            existing.add(session("live-" + i, i, NOW + 100));
+        }
+
+        // Act
+        List<SessionItem> evicted = SessionTableSupport.pickEvictions(existing, 5, NOW);
+
+        // Assert
+        assertEquals(SessionTableSupport.MAX_EVICTIONS_PER_LOGIN, evicted.size());
+        assertEquals("live-0", evicted.get(0).getSessionId());
+        assertTrue(evicted.stream().allMatch(s -> s.getSessionId().startsWith("live-")));
+    }
+
+    @Test
+    void cursor_roundTrips_andRejectsGarbage() {
+        // Act
+        String cursor = SessionTableSupport.encodeCursor("jti-1");
+
+        // Assert
+        assertEquals("jti-1", SessionTableSupport.decodeCursor(cursor));
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        assertThrows(InvalidPageCursorException.class, () -> SessionTableSupport.decodeCursor("***"));
+    }
+}
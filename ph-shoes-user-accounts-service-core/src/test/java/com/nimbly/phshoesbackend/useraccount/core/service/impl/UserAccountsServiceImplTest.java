@@ -1,12 +1,15 @@
 package com.nimbly.phshoesbackend.useraccount.core.service.impl;
 
-import com.auth0.jwt.interfaces.Claim;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.auth.impl.UnknownEmailCache;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.LoginProps;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.pepper.EmailHashCandidates;
 import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.EmailPepperWatermarkRepository;
 import com.nimbly.phshoesbackend.useraccounts.model.CreateUserAccountRequest;
 import com.nimbly.phshoesbackend.useraccounts.model.CreateUserAccountResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenContentResponse;
@@ -19,13 +22,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.Instant;
-import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,9 +39,11 @@ class UserAccountsServiceImplTest {
     @Mock
     private EmailCrypto emailCrypto;
     @Mock
-    private JwtTokenService jwtTokenService;
-    @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private EmailPepperWatermarkRepository watermarkRepository;
+    @Mock
+    private TokenRevocationService tokenRevocations;
 
     private UserAccountsServiceImpl service;
 
@@ -48,8 +52,10 @@ class UserAccountsServiceImplTest {
         service = new UserAccountsServiceImpl(
                 accountRepository,
                 emailCrypto,
-                jwtTokenService,
-                passwordEncoder
+                passwordEncoder,
+                new EmailHashCandidates(emailCrypto, watermarkRepository),
+                new UnknownEmailCache(new LoginProps()),
+                tokenRevocations
         );
     }
 
@@ -104,12 +110,14 @@ class UserAccountsServiceImplTest {
     }
 
     @Test
-    void getContentFromToken_throwsWhenHeaderMissing() {
+    void getContentFromToken_throwsWhenTokenRevoked() {
         // Arrange
-        String authorizationHeader = null;
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal("user-1", "user@example.com", "jti-1",
+                Instant.ofEpochSecond(100), Instant.ofEpochSecond(200), List.of());
+        doThrow(new InvalidCredentialsException()).when(tokenRevocations).ensureNotRevoked(principal);
 
         // Act
-        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> service.getContentFromToken(authorizationHeader));
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> service.getContentFromToken(principal));
 
         // Assert
         assertNotNull(exception);
@@ -118,25 +126,14 @@ class UserAccountsServiceImplTest {
     @Test
     void getContentFromToken_returnsTokenContent() {
         // Arrange
-        String token = "token";
-        DecodedJWT decoded = mock(DecodedJWT.class);
-        Claim emailClaim = mock(Claim.class);
-        Claim rolesClaim = mock(Claim.class);
-
-        when(jwtTokenService.parseAccess(token)).thenReturn(decoded);
-        when(decoded.getSubject()).thenReturn("user-1");
-        when(decoded.getClaim("email")).thenReturn(emailClaim);
-        when(emailClaim.asString()).thenReturn("user@example.com");
-        when(decoded.getIssuedAt()).thenReturn(Date.from(Instant.ofEpochSecond(100)));
-        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.ofEpochSecond(200)));
-        when(decoded.getClaim("roles")).thenReturn(rolesClaim);
-        when(rolesClaim.isNull()).thenReturn(false);
-        when(rolesClaim.asList(String.class)).thenReturn(List.of("USER"));
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal("user-1", "user@example.com", "jti-1",
+                Instant.ofEpochSecond(100), Instant.ofEpochSecond(200), List.of("USER"));
 
         // Act
-        TokenContentResponse response = service.getContentFromToken("Bearer " + token);
+        TokenContentResponse response = service.getContentFromToken(principal);
 
         // Assert
+        verify(tokenRevocations).ensureNotRevoked(principal);
         assertEquals("user-1", response.getSub());
         assertEquals("user@example.com", response.getEmail());
         assertEquals(List.of("USER"), response.getRoles());
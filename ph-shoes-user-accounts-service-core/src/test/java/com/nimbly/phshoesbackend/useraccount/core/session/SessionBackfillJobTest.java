@@ -0,0 +1,176 @@
+package com.nimbly.phshoesbackend.useraccount.core.session;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
+import com.nimbly.phshoesbackend.useraccount.core.model.SessionItem;
+import com.nimbly.phshoesbackend.useraccount.core.model.dynamo.MaintenanceAttrs;
+import com.nimbly.phshoesbackend.useraccount.core.repository.MaintenanceLeaseRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.dynamo.DynamoDbSessionRepository;
+import com.nimbly.phshoesbackend.useraccount.core.repository.dynamo.DynamoDbUserSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionBackfillJobTest {
+
+    @Mock
+    private DynamoDbSessionRepository legacy;
+    @Mock
+    private DynamoDbUserSessionRepository v2;
+    @Mock
+    private MaintenanceLeaseRepository leases;
+
+    private SessionStoreProps props;
+    private SessionBackfillJob job;
+
+    @BeforeEach
+    void setUp() {
+        props = new SessionStoreProps();
+        props.setBackfillSegments(1);
+        props.setBackfillMaxWritesPerSecond(1_000);
+        job = new SessionBackfillJob(legacy, v2, props, leases);
+    }
+
+    private static SessionItem session(String id, long expiresAt) {
+        SessionItem item = new SessionItem();
+        item.setSessionId(id);
+        item.setUserId("user-1");
+        item.setExpiresAt(expiresAt);
+        return item;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scanReturns(List<SessionItem> page) {
+        doAnswer(inv -> {
+            ((Consumer<List<SessionItem>>) inv.getArgument(3)).accept(page);
+            return null;
+        }).when(legacy).scanSegment(eq(0), eq(1), anyInt(), any());
+    }
+
+    @Test
+    void run_doesNothing_unlessDualWriteAndEnabled() {
+        // Arrange
+        props.setBackfillEnabled(true);
+        props.setMode(SessionStoreProps.Mode.LEGACY);
+
+        // Act
+        job.run();
+
+        // Assert
+        verifyNoInteractions(legacy, v2, leases);
+        assertFalse(job.isCompleted());
+    }
+
+    @Test
+    void run_copiesLiveSessions_skipsExpired_andMarksCompleted() {
+        // Arrange
+        props.setBackfillEnabled(true);
+        props.setMode(SessionStoreProps.Mode.DUAL_WRITE);
+        long future = Instant.now().getEpochSecond() + 600;
+        SessionItem live = session("jti-live", future);
+        SessionItem expired = session("jti-old", Instant.now().getEpochSecond() - 10);
+        scanReturns(List.of(live, expired));
+        when(v2.copyIfAbsent(live)).thenReturn(true);
+        when(legacy.isSessionActive("user-1", "jti-live")).thenReturn(true);
+        when(leases.tryAcquire(eq(MaintenanceAttrs.SESSION_BACKFILL), anyString(), anyLong(), anyLong())).thenReturn(true);
+
+        // Act
+        job.run();
+
+        // Assert
+        verify(v2, never()).copyIfAbsent(expired);
+        verify(v2, never()).revokeSession(any(), any());
+        verify(leases).markCompleted(MaintenanceAttrs.SESSION_BACKFILL);
+        assertTrue(job.isCompleted());
+    }
+
+    @Test
+    void run_skipsScan_whenAnotherNodeHoldsTheLease() {
+        // Arrange
+        props.setBackfillEnabled(true);
+        props.setMode(SessionStoreProps.Mode.DUAL_WRITE);
+        when(leases.tryAcquire(eq(MaintenanceAttrs.SESSION_BACKFILL), anyString(), anyLong(), anyLong())).thenReturn(false);
+        when(leases.isCompleted(MaintenanceAttrs.SESSION_BACKFILL)).thenReturn(false);
+
+        // Act
+        job.run();
+
+        // Assert
+        verifyNoInteractions(legacy, v2);
+        assertFalse(job.isCompleted());
+    }
+
+    @Test
+    void run_stopsForGood_onceAnotherNodeCompleted() {
+        // Arrange
+        props.setBackfillEnabled(true);
+        props.setMode(SessionStoreProps.Mode.DUAL_WRITE);
+        when(leases.tryAcquire(eq(MaintenanceAttrs.SESSION_BACKFILL), anyString(), anyLong(), anyLong())).thenReturn(false);
+        when(leases.isCompleted(MaintenanceAttrs.SESSION_BACKFILL)).thenReturn(true);
+
+        // Act
+        job.run();
+        job.run();
+
+        // Assert
+        verifyNoInteractions(legacy, v2);
+        verify(leases).isCompleted(MaintenanceAttrs.SESSION_BACKFILL);
+        assertTrue(job.isCompleted());
+    }
+
+    @Test
+    void run_releasesLease_whenScanFails() {
+        // Arrange
+        props.setBackfillEnabled(true);
+        props.setMode(SessionStoreProps.Mode.DUAL_WRITE);
+        when(leases.tryAcquire(eq(MaintenanceAttrs.SESSION_BACKFILL), anyString(), anyLong(), anyLong())).thenReturn(true);
+        doThrow(new IllegalStateException("scan failed"))
+                .when(legacy).scanSegment(eq(0), eq(1), anyInt(), any());
+
+        // Act
+        job.run();
+
+        // Assert
+        verify(leases).release(eq(MaintenanceAttrs.SESSION_BACKFILL), anyString());
+        verify(leases, never()).markCompleted(any());
+        assertFalse(job.isCompleted());
+    }
+
+    @Test
+    void backfill_removesCopy_whenSessionRevokedMeanwhile() {
+        // Arrange
+        props.setMode(SessionStoreProps.Mode.DUAL_WRITE);
+        SessionItem live = session("jti-1", Instant.now().getEpochSecond() + 600);
+        scanReturns(List.of(live));
+        when(v2.copyIfAbsent(live)).thenReturn(true);
+        when(legacy.isSessionActive("user-1", "jti-1")).thenReturn(false);
+
+        // Act
+        SessionBackfillJob.RunStats stats = job.backfill();
+
+        // Assert
+        verify(v2).revokeSession("user-1", "jti-1");
+        assertEquals(1, stats.revoked.get());
+    }
+}
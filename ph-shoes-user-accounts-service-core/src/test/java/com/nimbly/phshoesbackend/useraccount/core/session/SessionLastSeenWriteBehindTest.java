@@ -0,0 +1,163 @@
+package com.nimbly.phshoesbackend.useraccount.core.session;
+
+import com.nimbly.phshoesbackend.useraccount.core.config.props.SessionStoreProps;
+import com.nimbly.phshoesbackend.useraccount.core.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SessionLastSeenWriteBehindTest {
+
+    @Mock
+    private SessionRepository sessions;
+
+    private SessionStoreProps props;
+    private SessionLastSeenWriteBehind buffer;
+
+    @BeforeEach
+    void setUp() {
+        props = new SessionStoreProps();
+        props.setLastSeenMaxWritesPerSecond(1_000);
+        buffer = new SessionLastSeenWriteBehind(sessions, props);
+    }
+
+    @Test
+    void flush_writesNewestTimestampOncePerSession() {
+        // Arrange
+        Instant first = Instant.parse("2024-01-01T00:00:00Z");
+        Instant later = first.plusSeconds(30);
+        buffer.record("user-1", "sid-1", later);
+        buffer.record("user-1", "sid-1", first);
+        buffer.record("user-1", "sid-2", first);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        verify(sessions).updateLastSeen("user-1", "sid-1", later);
+        verify(sessions).updateLastSeen("user-1", "sid-2", first);
+        verify(sessions, times(2)).updateLastSeen(anyString(), anyString(), any());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_keepsNewestValuePending_whenWriteFails() {
+        // Arrange
+        Instant now = Instant.now();
+        buffer.record("user-1", "sid-1", now);
+        doThrow(new IllegalStateException("ddb down"))
+                .when(sessions).updateLastSeen("user-1", "sid-1", now);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        assertEquals(1, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_writesAtMostMaxBatch_andLeavesTheRestPending() {
+        // Arrange
+        props.setLastSeenMaxBatch(2);
+        Instant now = Instant.now();
+        buffer.record("user-1", "sid-1", now);
+        buffer.record("user-1", "sid-2", now);
+        buffer.record("user-2", "sid-3", now);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        verify(sessions, times(2)).updateLastSeen(anyString(), anyString(), any());
+        assertEquals(1, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_writesLongestPendingSessionsFirst_soBusySessionsCannotStarveTheRest() {
+        // Arrange
+        props.setLastSeenMaxBatch(2);
+        Instant now = Instant.now();
+        for (int i = 0; i < 6; i++) {
+            buffer.record("user-1", "sid-" + i, now);
+        }
+
+        // Act
+        for (int flush = 0; flush < 3; flush++) {
+            buffer.flush();
+            // sessions already written are busy again before the next flush
+            for (int i = 0; i <= 2 * flush + 1; i++) {
+                buffer.record("user-1", "sid-" + i, now.plusSeconds(flush + 1));
+            }
+        }
+
+        // Assert
+        for (int i = 0; i < 6; i++) {
+            verify(sessions).updateLastSeen("user-1", "sid-" + i, now);
+        }
+    }
+
+    @Test
+    void flush_pacesWritesToConfiguredRate() {
+        // Arrange
+        props.setLastSeenMaxWritesPerSecond(20);
+        SessionLastSeenWriteBehind paced = new SessionLastSeenWriteBehind(sessions, props);
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            paced.record("user-1", "sid-" + i, now);
+        }
+
+        // Act
+        long t0 = System.nanoTime();
+        paced.flush();
+        long elapsedMs = (System.nanoTime() - t0) / 1_000_000;
+
+        // Assert
+        verify(sessions, times(5)).updateLastSeen(anyString(), anyString(), any());
+        assertTrue(elapsedMs >= 150, "5 writes at 20/s should take at least 4 slots, took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void drain_flushesEveryBatch() {
+        // Arrange
+        props.setLastSeenMaxBatch(1);
+        Instant now = Instant.now();
+        buffer.record("user-1", "sid-1", now);
+        buffer.record("user-1", "sid-2", now);
+        buffer.record("user-2", "sid-3", now);
+
+        // Act
+        buffer.drain();
+
+        // Assert
+        verify(sessions, times(3)).updateLastSeen(anyString(), anyString(), any());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void record_ignoresActivity_whenDisabled() {
+        // Arrange
+        props.setLastSeenEnabled(false);
+
+        // Act
+        buffer.record("user-1", "sid-1", Instant.now());
+        buffer.flush();
+
+        // Assert
+        assertEquals(0, buffer.pendingCount());
+        verifyNoInteractions(sessions);
+    }
+}
@@ -0,0 +1,55 @@
+package com.nimbly.phshoesbackend.useraccount.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FailFastScopeTest {
+
+    @Test
+    void join_returnsAllResults_whenSubtasksSucceed() {
+        // Arrange
+        Future<String> first;
+        Future<Integer> second;
+
+        // Act
+        try (FailFastScope scope = new FailFastScope()) {
+            first = scope.fork(() -> "a");
+            second = scope.fork(() -> 2);
+            scope.join();
+        }
+
+        // Assert
+        assertEquals("a", first.resultNow());
+        assertEquals(2, second.resultNow());
+    }
+
+    @Test
+    void join_rethrowsFirstFailure_andCancelsSiblings() {
+        // Arrange
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        Future<Object> slow;
+        IllegalStateException exception;
+
+        // Act
+        try (FailFastScope scope = new FailFastScope()) {
+            slow = scope.fork(() -> {
+                neverReleased.await();
+                return null;
+            });
+            scope.fork(() -> {
+                throw new IllegalStateException("boom");
+            });
+            exception = assertThrows(IllegalStateException.class, scope::join);
+        }
+
+        // Assert
+        assertEquals("boom", exception.getMessage());
+        assertTrue(slow.isCancelled());
+    }
+}
@@ -30,6 +30,15 @@ class SensitiveValueMaskerTest {
         assertEquals("u***@example.com", result);
     }
 
+    @Test
+    void maskIp_keepsOnlyNetworkPrefix() {
+        // Act & Assert
+        assertEquals("203.0.113.0/24", SensitiveValueMasker.maskIp("203.0.113.57"));
+        assertEquals("2001:db8:85a3::/48", SensitiveValueMasker.maskIp("2001:db8:85a3:0:0:8a2e:370:7334"));
+        assertEquals("(ipv6)", SensitiveValueMasker.maskIp("::1"));
+        assertEquals("(blank)", SensitiveValueMasker.maskIp(null));
+    }
+
     @Test
     void truncateForLog_shorterStringReturnsOriginal() {
         // Arrange
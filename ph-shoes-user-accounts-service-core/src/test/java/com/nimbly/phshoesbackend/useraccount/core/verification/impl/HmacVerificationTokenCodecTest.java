@@ -2,36 +2,61 @@ package com.nimbly.phshoesbackend.useraccount.core.verification.impl;
 
 import com.nimbly.phshoesbackend.useraccount.core.config.props.AppVerificationProps;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidVerificationTokenException;
+import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationTokenClaims;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class HmacVerificationTokenCodecTest {
 
+    private AppVerificationProps props;
+    private HmacVerificationTokenCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        props = new AppVerificationProps();
+        props.setSecret("secret");
+        codec = new HmacVerificationTokenCodec(props);
+    }
+
     @Test
     void encodeDecode_roundTrip() {
         // Arrange
-        AppVerificationProps props = new AppVerificationProps();
-        props.setSecret("secret");
-        HmacVerificationTokenCodec codec = new HmacVerificationTokenCodec(props);
+        VerificationTokenClaims claims = new VerificationTokenClaims("verify-1", "user-1", "hash1", 1_700_000_000L);
 
         // Act
-        String token = codec.encode("verify-1");
-        String decoded = codec.decodeAndVerify(token);
+        String token = codec.encode(claims);
+        VerificationTokenClaims decoded = codec.decodeAndVerify(token);
 
         // Assert
-        assertEquals("verify-1", decoded);
+        assertEquals(claims, decoded);
+    }
+
+    @Test
+    void encodeDecode_roundTripWithoutUser() {
+        // Arrange
+        VerificationTokenClaims claims = new VerificationTokenClaims("verify-1", null, "hash1", 1_700_000_000L);
+
+        // Act
+        VerificationTokenClaims decoded = codec.decodeAndVerify(codec.encode(claims));
+
+        // Assert
+        assertEquals(claims, decoded);
     }
 
     @Test
     void decodeAndVerify_throwsWhenSignatureInvalid() {
         // Arrange
-        AppVerificationProps props = new AppVerificationProps();
-        props.setSecret("secret");
-        HmacVerificationTokenCodec codec = new HmacVerificationTokenCodec(props);
-        String token = codec.encode("verify-1");
+        String token = codec.encode(new VerificationTokenClaims("verify-1", "user-1", "hash1", 1_700_000_000L));
         String tampered = token.substring(0, token.length() - 2) + "aa";
 
         // Act
@@ -40,4 +65,60 @@ class HmacVerificationTokenCodecTest {
         // Assert
         assertNotNull(exception);
     }
+
+    @Test
+    void decodeAndVerify_throwsWhenPayloadSwapped() {
+        // Arrange
+        String token = codec.encode(new VerificationTokenClaims("verify-1", "user-1", "hash1", 1_700_000_000L));
+        String other = codec.encode(new VerificationTokenClaims("verify-1", "user-1", "hash1", 1_900_000_000L));
+        String[] parts = token.split("\\.");
+        String swapped = parts[0] + "." + other.split("\\.")[1] + "." + parts[2];
+
+        // Act & Assert
+        assertThrows(InvalidVerificationTokenException.class, () -> codec.decodeAndVerify(swapped));
+    }
+
+    @Test
+    void decodeAndVerify_acceptsLegacyToken() {
+        // Arrange
+        String legacy = legacyToken("verify-1");
+
+        // Act
+        VerificationTokenClaims decoded = codec.decodeAndVerify(legacy);
+
+        // Assert
+        assertEquals("verify-1", decoded.verificationId());
+        assertFalse(decoded.isSelfContained());
+    }
+
+    @Test
+    void decodeAndVerify_rejectsLegacyTokenWhenDisabled() {
+        // Arrange
+        props.setAcceptLegacyTokens(false);
+        String legacy = legacyToken("verify-1");
+
+        // Act & Assert
+        assertThrows(InvalidVerificationTokenException.class, () -> codec.decodeAndVerify(legacy));
+    }
+
+    @Test
+    void decodeAndVerify_throwsWhenMalformed() {
+        // Act & Assert
+        assertThrows(InvalidVerificationTokenException.class, () -> codec.decodeAndVerify("v2.%%%.abc"));
+        assertThrows(InvalidVerificationTokenException.class, () -> codec.decodeAndVerify("not-a-token"));
+        assertThrows(InvalidVerificationTokenException.class, () -> codec.decodeAndVerify(null));
+    }
+
+    // the pre-v2 format: base64url(id) "." base64url(hmac(id))
+    private static String legacyToken(String id) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec("secret".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+            return b64.encodeToString(id.getBytes(StandardCharsets.UTF_8)) + "."
+                    + b64.encodeToString(mac.doFinal(id.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
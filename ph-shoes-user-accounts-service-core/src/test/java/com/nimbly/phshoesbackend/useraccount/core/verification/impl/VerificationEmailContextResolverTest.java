@@ -34,8 +34,7 @@ class VerificationEmailContextResolverTest {
 
         when(emailCrypto.normalize("USER@EXAMPLE.COM")).thenReturn("user@example.com");
         when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1", "hash2"));
-        when(accountRepository.findByEmailHash("hash1")).thenReturn(Optional.empty());
-        when(accountRepository.findByEmailHash("hash2")).thenReturn(Optional.of(account));
+        when(accountRepository.findByAnyEmailHash(List.of("hash1", "hash2"))).thenReturn(Optional.of(account));
 
         // Act
         VerificationEmailContext context = VerificationEmailContextResolver.resolve(
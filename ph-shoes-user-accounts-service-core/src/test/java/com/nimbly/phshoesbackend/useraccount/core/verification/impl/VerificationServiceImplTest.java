@@ -7,14 +7,18 @@ import com.nimbly.phshoesbackend.notification.core.model.dto.SendResult;
 import com.nimbly.phshoesbackend.notification.core.model.props.NotificationEmailProps;
 import com.nimbly.phshoesbackend.notification.core.service.NotificationService;
 import com.nimbly.phshoesbackend.useraccount.core.config.props.AppVerificationProps;
+import com.nimbly.phshoesbackend.useraccount.core.exception.VerificationAlreadyUsedException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.VerificationExpiredException;
+import com.nimbly.phshoesbackend.useraccount.core.exception.VerificationNotFoundException;
 import com.nimbly.phshoesbackend.useraccount.core.model.Account;
+import com.nimbly.phshoesbackend.useraccount.core.model.VerificationConsumeOutcome;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationEntry;
 import com.nimbly.phshoesbackend.useraccount.core.model.VerificationStatus;
 import com.nimbly.phshoesbackend.useraccount.core.repository.AccountRepository;
 import com.nimbly.phshoesbackend.useraccount.core.repository.VerificationRepository;
 import com.nimbly.phshoesbackend.useraccount.core.service.SuppressionService;
 import com.nimbly.phshoesbackend.useraccount.core.unsubscribe.UnsubscribeService;
+import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationTokenClaims;
 import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationTokenCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,11 +36,13 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -82,7 +88,8 @@ class VerificationServiceImplTest {
                 accountRepository,
                 verificationProps,
                 emailCrypto,
-                unsubscribeService
+                unsubscribeService,
+                new VerificationOutcomeCache(verificationProps)
         );
     }
 
@@ -91,7 +98,7 @@ class VerificationServiceImplTest {
         // Arrange
         when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
         when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
-        when(accountRepository.findByEmailHash("hash1")).thenReturn(Optional.empty());
+        when(accountRepository.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.empty());
         when(suppressionService.shouldBlock("user@example.com")).thenReturn(true);
 
         // Act
@@ -107,9 +114,9 @@ class VerificationServiceImplTest {
         // Arrange
         when(emailCrypto.normalize("user@example.com")).thenReturn("user@example.com");
         when(emailCrypto.hashCandidates("user@example.com")).thenReturn(List.of("hash1"));
-        when(accountRepository.findByEmailHash("hash1")).thenReturn(Optional.empty());
+        when(accountRepository.findByAnyEmailHash(List.of("hash1"))).thenReturn(Optional.empty());
         when(suppressionService.shouldBlock("user@example.com")).thenReturn(false);
-        when(tokenCodec.encode(anyString())).thenReturn("token");
+        when(tokenCodec.encode(any(VerificationTokenClaims.class))).thenReturn("token");
         when(unsubscribeService.buildListUnsubscribeHeader("hash1")).thenReturn(Optional.empty());
         when(notificationService.sendEmailVerification(any(EmailRequest.class)))
                 .thenReturn(SendResult.builder()
@@ -134,28 +141,85 @@ class VerificationServiceImplTest {
     @Test
     void verify_marksAccountVerified() {
         // Arrange
-        VerificationEntry entry = new VerificationEntry();
-        entry.setVerificationId("verify-1");
-        entry.setUserId("user-1");
-        entry.setEmailHash("hash1");
-        entry.setStatus(VerificationStatus.PENDING);
-        entry.setExpiresAt(Instant.now().getEpochSecond() + 600);
+        VerificationEntry entry = pendingEntry("user-1");
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+        when(verificationRepository.consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong()))
+                .thenReturn(VerificationConsumeOutcome.CONSUMED);
+
+        // Act
+        boolean result = service.verify("token");
+
+        // Assert
+        assertTrue(result);
+        verify(verificationRepository).consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong());
+        verify(accountRepository, never()).setVerified(anyString(), anyBoolean());
+    }
+
+    @Test
+    void verify_lateBindsAccountByEmailHash() {
+        // Arrange
+        VerificationEntry entry = pendingEntry(null);
 
         Account account = new Account();
-        account.setUserId("user-1");
-        account.setIsVerified(false);
+        account.setUserId("user-2");
 
-        when(tokenCodec.decodeAndVerify("token")).thenReturn("verify-1");
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
         when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
-        when(accountRepository.findByUserId("user-1")).thenReturn(Optional.of(account));
+        when(accountRepository.findByEmailHash("hash1")).thenReturn(Optional.of(account));
+        when(verificationRepository.consumeAndVerifyAccount(eq("verify-1"), eq("user-2"), anyLong()))
+                .thenReturn(VerificationConsumeOutcome.CONSUMED);
 
         // Act
         boolean result = service.verify("token");
 
         // Assert
         assertTrue(result);
-        verify(verificationRepository).markUsedIfPendingAndNotExpired(eq("verify-1"), anyLong());
-        verify(accountRepository).setVerified("user-1", true);
+    }
+
+    @Test
+    void verify_throwsAlreadyUsedWhenTransactionLosesRace() {
+        // Arrange
+        VerificationEntry entry = pendingEntry("user-1");
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+        when(verificationRepository.consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong()))
+                .thenReturn(VerificationConsumeOutcome.ALREADY_USED);
+
+        // Act & Assert
+        assertThrows(VerificationAlreadyUsedException.class, () -> service.verify("token"));
+    }
+
+    @Test
+    void verify_throwsNotFoundWhenAccountMissing() {
+        // Arrange
+        VerificationEntry entry = pendingEntry("user-1");
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+        when(verificationRepository.consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong()))
+                .thenReturn(VerificationConsumeOutcome.ACCOUNT_MISSING);
+
+        // Act & Assert
+        assertThrows(VerificationNotFoundException.class, () -> service.verify("token"));
+    }
+
+    @Test
+    void verify_skipsTransactionWhenAlreadyConsumed() {
+        // Arrange
+        VerificationEntry entry = pendingEntry("user-1");
+        entry.setStatus(VerificationStatus.VERIFIED);
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+
+        // Act
+        assertThrows(VerificationAlreadyUsedException.class, () -> service.verify("token"));
+
+        // Assert
+        verify(verificationRepository, never()).consumeAndVerifyAccount(anyString(), any(), anyLong());
     }
 
     @Test
@@ -166,7 +230,7 @@ class VerificationServiceImplTest {
         entry.setStatus(VerificationStatus.PENDING);
         entry.setExpiresAt(Instant.now().getEpochSecond() - 10);
 
-        when(tokenCodec.decodeAndVerify("token")).thenReturn("verify-1");
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
         when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
 
         // Act
@@ -176,6 +240,158 @@ class VerificationServiceImplTest {
         assertNotNull(exception);
     }
 
+    @Test
+    void verify_selfContainedToken_consumesWithoutReadingEntry() {
+        // Arrange
+        long expiresAt = Instant.now().getEpochSecond() + 600;
+        when(tokenCodec.decodeAndVerify("token"))
+                .thenReturn(new VerificationTokenClaims("verify-1", "user-1", "hash1", expiresAt));
+        when(verificationRepository.consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong()))
+                .thenReturn(VerificationConsumeOutcome.CONSUMED);
+
+        // Act
+        boolean result = service.verify("token");
+
+        // Assert
+        assertTrue(result);
+        verify(verificationRepository, never()).getById(anyString(), anyBoolean());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void verify_expiredSelfContainedToken_neverTouchesTables() {
+        // Arrange
+        long expiresAt = Instant.now().getEpochSecond() - 10;
+        when(tokenCodec.decodeAndVerify("token"))
+                .thenReturn(new VerificationTokenClaims("verify-1", "user-1", "hash1", expiresAt));
+
+        // Act & Assert
+        assertThrows(VerificationExpiredException.class, () -> service.verify("token"));
+        verifyNoInteractions(verificationRepository, accountRepository);
+    }
+
+    @Test
+    void notMe_selfContainedToken_suppressesWithoutReadingEntry() {
+        // Arrange
+        long expiresAt = Instant.now().getEpochSecond() + 600;
+        when(tokenCodec.decodeAndVerify("token"))
+                .thenReturn(new VerificationTokenClaims("verify-1", null, "hash1", expiresAt));
+
+        // Act
+        boolean result = service.notMe("token");
+
+        // Assert
+        assertTrue(result);
+        verify(verificationRepository, never()).getById(anyString(), anyBoolean());
+        verify(verificationRepository).markStatusIfPending("verify-1", VerificationStatus.FAILED);
+        verify(suppressionService).suppressHash(
+                "hash1",
+                SuppressionReason.COMPLAINT,
+                "verification",
+                "User clicked 'Not me'",
+                null
+        );
+    }
+
+    @Test
+    void verify_repeatedClick_answeredFromOutcomeCache() {
+        // Arrange
+        VerificationEntry entry = pendingEntry("user-1");
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+        when(verificationRepository.consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong()))
+                .thenReturn(VerificationConsumeOutcome.CONSUMED);
+        service.verify("token");
+
+        // Act
+        assertThrows(VerificationAlreadyUsedException.class, () -> service.verify("token"));
+
+        // Assert
+        verify(verificationRepository).getById("verify-1", true);
+        verify(verificationRepository).consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong());
+    }
+
+    @Test
+    void verify_repeatedExpiredClick_answeredFromOutcomeCache() {
+        // Arrange
+        VerificationEntry entry = pendingEntry("user-1");
+        entry.setExpiresAt(Instant.now().getEpochSecond() - 10);
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+        assertThrows(VerificationExpiredException.class, () -> service.verify("token"));
+
+        // Act
+        assertThrows(VerificationExpiredException.class, () -> service.verify("token"));
+
+        // Assert
+        verify(verificationRepository).getById("verify-1", true);
+    }
+
+    @Test
+    void notMe_repeatedClick_answeredFromOutcomeCache() {
+        // Arrange
+        long expiresAt = Instant.now().getEpochSecond() + 600;
+        when(tokenCodec.decodeAndVerify("token"))
+                .thenReturn(new VerificationTokenClaims("verify-1", null, "hash1", expiresAt));
+        service.notMe("token");
+
+        // Act
+        boolean result = service.notMe("token");
+
+        // Assert
+        assertTrue(result);
+        verify(verificationRepository).markStatusIfPending("verify-1", VerificationStatus.FAILED);
+        verify(suppressionService).suppressHash(
+                "hash1",
+                SuppressionReason.COMPLAINT,
+                "verification",
+                "User clicked 'Not me'",
+                null
+        );
+        assertThrows(VerificationAlreadyUsedException.class, () -> service.verify("token"));
+        verify(verificationRepository, never()).consumeAndVerifyAccount(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void notMe_afterAlreadyUsedVerify_stillMarksEntryFailed() {
+        // Arrange
+        VerificationEntry entry = pendingEntry("user-1");
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+        when(verificationRepository.consumeAndVerifyAccount(eq("verify-1"), eq("user-1"), anyLong()))
+                .thenReturn(VerificationConsumeOutcome.ALREADY_USED);
+        assertThrows(VerificationAlreadyUsedException.class, () -> service.verify("token"));
+
+        // Act
+        boolean result = service.notMe("token");
+
+        // Assert
+        assertTrue(result);
+        verify(verificationRepository).markStatusIfPending("verify-1", VerificationStatus.FAILED);
+    }
+
+    @Test
+    void notMe_afterExpiredVerify_stillMarksEntryFailedWithoutReading() {
+        // Arrange
+        VerificationEntry entry = pendingEntry("user-1");
+        entry.setExpiresAt(Instant.now().getEpochSecond() - 10);
+
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
+        when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
+        assertThrows(VerificationExpiredException.class, () -> service.verify("token"));
+
+        // Act
+        boolean result = service.notMe("token");
+
+        // Assert
+        assertTrue(result);
+        verify(verificationRepository).getById("verify-1", true);
+        verify(verificationRepository).markStatusIfPending("verify-1", VerificationStatus.FAILED);
+    }
+
     @Test
     void notMe_suppressesHash() {
         // Arrange
@@ -184,7 +400,7 @@ class VerificationServiceImplTest {
         entry.setStatus(VerificationStatus.PENDING);
         entry.setEmailHash("hash1");
 
-        when(tokenCodec.decodeAndVerify("token")).thenReturn("verify-1");
+        when(tokenCodec.decodeAndVerify("token")).thenReturn(VerificationTokenClaims.legacy("verify-1"));
         when(verificationRepository.getById("verify-1", true)).thenReturn(Optional.of(entry));
 
         // Act
@@ -200,4 +416,14 @@ class VerificationServiceImplTest {
                 null
         );
     }
+
+    private static VerificationEntry pendingEntry(String userId) {
+        VerificationEntry entry = new VerificationEntry();
+        entry.setVerificationId("verify-1");
+        entry.setUserId(userId);
+        entry.setEmailHash("hash1");
+        entry.setStatus(VerificationStatus.PENDING);
+        entry.setExpiresAt(Instant.now().getEpochSecond() + 600);
+        return entry;
+    }
 }
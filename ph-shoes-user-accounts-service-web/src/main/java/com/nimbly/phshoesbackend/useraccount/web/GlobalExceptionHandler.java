@@ -173,6 +173,14 @@ public class GlobalExceptionHandler {
         return body;
     }
 
+    @ExceptionHandler(InvalidPageCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidPageCursor(InvalidPageCursorException ex) {
+        ErrorResponse body = new ErrorResponse("INVALID_CURSOR", msg("error.request.invalidCursor"));
+        body.setDetails(Map.of("cursor", List.of(msg("error.request.invalidCursor"))));
+        return body;
+    }
+
     @ExceptionHandler(UserAccountNotificationSendException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleNotificationSendError(Exception ex) {
@@ -192,6 +200,25 @@ public class GlobalExceptionHandler {
         return body;
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponse handleLoginThrottled(LoginThrottledException ex) {
+        ErrorResponse body = new ErrorResponse("LOGIN_THROTTLED", msg("error.auth.throttled"));
+        body.setDetails(Map.of(
+                "scope", List.of(Optional.ofNullable(ex.getScope()).orElse("unknown")),
+                "auth", List.of(msg("error.auth.throttled"))
+        ));
+        return body;
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        ErrorResponse body = new ErrorResponse("SERVER_BUSY", msg("error.auth.busy"));
+        body.setDetails(Map.of("auth", List.of(msg("error.auth.busy"))));
+        return body;
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleAny(Exception ex, HttpServletRequest req) {
@@ -1,7 +1,19 @@
 package com.nimbly.phshoesbackend.useraccount.web.config;
 
+import com.nimbly.phshoesbackend.useraccount.core.auth.password.BcryptCostCalibrator;
+import com.nimbly.phshoesbackend.useraccount.core.auth.password.BoundedPasswordEncoder;
+import com.nimbly.phshoesbackend.useraccount.core.auth.password.TargetCostBCryptPasswordEncoder;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.token.AccessTokenService;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.PasswordHashingProps;
+import com.nimbly.phshoesbackend.useraccount.core.session.SessionLastSeenWriteBehind;
 import com.nimbly.phshoesbackend.useraccount.web.config.props.CorsProps;
+import com.nimbly.phshoesbackend.useraccount.web.filter.AccessTokenAuthenticationFilter;
+import com.nimbly.phshoesbackend.useraccount.web.filter.AuthenticatedPrincipalFilter;
+import com.nimbly.phshoesbackend.useraccount.web.filter.SessionActivityFilter;
 import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -10,7 +22,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -27,15 +38,27 @@ public class SecurityConfig {
 
     private final CorsProps corsProps;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final SessionLastSeenWriteBehind sessionLastSeen;
+    private final AccessTokenService accessTokens;
+    private final TokenRevocationService tokenRevocations;
 
-    public SecurityConfig(CorsProps corsProps, JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(CorsProps corsProps, JwtAuthenticationFilter jwtAuthenticationFilter,
+                          SessionLastSeenWriteBehind sessionLastSeen, AccessTokenService accessTokens,
+                          TokenRevocationService tokenRevocations) {
         this.corsProps = corsProps;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.sessionLastSeen = sessionLastSeen;
+        this.accessTokens = accessTokens;
+        this.tokenRevocations = tokenRevocations;
     }
 
 
     @Bean
     SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // the shared filter only knows the HS256 secret
+        Filter tokenFilter = accessTokens.isAsymmetric()
+                ? new AccessTokenAuthenticationFilter(accessTokens)
+                : jwtAuthenticationFilter;
         http
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
@@ -62,8 +85,11 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/verify/email/resend").permitAll()
                         .requestMatchers(HttpMethod.GET, "/verify/email/not-me").permitAll()
 
-                        // Public endpoints (login)
+                        // Public endpoints (login, refresh-token grant, batch introspection of the tokens in the body, signing keys)
                         .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/refresh").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/token-content/batch").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
 
                         // Swagger & health
                         .requestMatchers(
@@ -77,7 +103,10 @@ public class SecurityConfig {
                         // Everything else
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(tokenFilter, UsernamePasswordAuthenticationFilter.class)
+                // not beans, so Boot does not also register them as plain servlet filters
+                .addFilterAfter(new AuthenticatedPrincipalFilter(tokenRevocations), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new SessionActivityFilter(sessionLastSeen), AuthenticatedPrincipalFilter.class)
                 .httpBasic(AbstractHttpConfigurer::disable)
                 .formLogin(AbstractHttpConfigurer::disable);
 
@@ -104,7 +133,11 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProps hashingProps, MeterRegistry meterRegistry) {
+        // min-strength is the fleet-wide floor; calibration only ever raises a node above it
+        int strength = hashingProps.isCalibrate()
+                ? BcryptCostCalibrator.calibrate(hashingProps.getMinStrength(), hashingProps.getMaxStrength(), hashingProps.getTargetHashMs())
+                : Math.max(hashingProps.getStrength(), hashingProps.getMinStrength());
+        return new BoundedPasswordEncoder(new TargetCostBCryptPasswordEncoder(strength), hashingProps, meterRegistry);
     }
 }
@@ -1,19 +1,22 @@
 package com.nimbly.phshoesbackend.useraccount.web.controller;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.nimbly.phshoesbackend.useraccount.core.auth.AuthService;
-import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
+import com.nimbly.phshoesbackend.useraccount.web.util.AuthenticatedPrincipals;
 import com.nimbly.phshoesbackend.useraccounts.api.AuthApi;
 import com.nimbly.phshoesbackend.useraccounts.model.LoginRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.RefreshTokenRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.RevokeSessionsResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.SessionListResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenContentResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenResponse;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -27,23 +30,13 @@ import java.util.Locale;
 public class AuthController implements AuthApi {
 
     private final AuthService authService;
-    private final JwtTokenService jwtTokenService;
     private final NativeWebRequest nativeWebRequest;
+    private final TokenRevocationService tokenRevocations;
 
     @Override
     public ResponseEntity<TokenResponse> authLogin(@Valid LoginRequest loginRequest) {
         HttpServletRequest req = nativeWebRequest.getNativeRequest(HttpServletRequest.class);
-        String ip = "unknown";
-        if (req != null) {
-            String forwardedFor = req.getHeader("X-Forwarded-For");
-            if (forwardedFor != null && !forwardedFor.isBlank()) {
-                int comma = forwardedFor.indexOf(',');
-                ip = (comma > 0) ? forwardedFor.substring(0, comma).trim() : forwardedFor.trim();
-            } else {
-                String realIp = req.getHeader("X-Real-IP");
-                ip = (realIp != null && !realIp.isBlank()) ? realIp.trim() : req.getRemoteAddr();
-            }
-        }
+        String ip = clientIp(req);
         String ua = req != null ? req.getHeader("User-Agent") : null;
 
         String normalizedEmail = loginRequest.getEmail() == null
@@ -60,34 +53,60 @@ public class AuthController implements AuthApi {
         return ResponseEntity.ok(res);
     }
 
+    @Override
+    public ResponseEntity<TokenResponse> authRefresh(@Valid RefreshTokenRequest refreshTokenRequest) {
+        HttpServletRequest req = nativeWebRequest.getNativeRequest(HttpServletRequest.class);
+        String ua = req != null ? req.getHeader("User-Agent") : null;
+        return ResponseEntity.ok(authService.refresh(refreshTokenRequest.getRefreshToken(), clientIp(req), ua));
+    }
+
     @Override
     public ResponseEntity<TokenContentResponse> getContentFromTokenAuth() {
-        String authorizationHeader = nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION);
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            throw new InvalidCredentialsException();
-        }
-        String token = authorizationHeader.substring(7).trim();
-        DecodedJWT decoded;
-        try {
-            decoded = jwtTokenService.parseAccess(token);
-        } catch (JwtVerificationException ex) {
-            throw new InvalidCredentialsException();
-        }
+        AuthenticatedPrincipal principal = AuthenticatedPrincipals.require(nativeWebRequest);
+        tokenRevocations.ensureNotRevoked(principal);
 
         TokenContentResponse res = new TokenContentResponse();
-        res.setSub(decoded.getSubject());
-        res.setEmail(decoded.getClaim("email").asString());
-        res.setIat(decoded.getIssuedAt() == null ? 0L : decoded.getIssuedAt().toInstant().getEpochSecond());
-        res.setExp(decoded.getExpiresAt() == null ? 0L : decoded.getExpiresAt().toInstant().getEpochSecond());
-        res.setRoles(new ArrayList<>());
+        res.setSub(principal.sub());
+        res.setEmail(principal.email());
+        res.setIat(principal.issuedAt() == null ? 0L : principal.issuedAtEpochSecond());
+        res.setExp(principal.expiresAt() == null ? 0L : principal.expiresAtEpochSecond());
+        res.setRoles(new ArrayList<>(principal.roles()));
         return ResponseEntity.ok(res);
     }
 
+    @Override
+    public ResponseEntity<TokenContentBatchResponse> getContentFromTokensBatch(@Valid TokenContentBatchRequest request) {
+        return ResponseEntity.ok(authService.introspect(request.getTokens()));
+    }
+
     @Override
     public ResponseEntity<Void> authLogout() {
-        String authorizationHeader = nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION);
-        authService.logout(authorizationHeader);
+        authService.logout(AuthenticatedPrincipals.require(nativeWebRequest));
         return ResponseEntity.noContent().build();
     }
 
+    @Override
+    public ResponseEntity<SessionListResponse> authListSessions(Integer limit, String cursor) {
+        return ResponseEntity.ok(authService.listSessions(AuthenticatedPrincipals.require(nativeWebRequest), limit, cursor));
+    }
+
+    @Override
+    public ResponseEntity<RevokeSessionsResponse> authRevokeAllSessions() {
+        RevokeSessionsResponse res = new RevokeSessionsResponse();
+        res.setRevoked(authService.logoutAll(AuthenticatedPrincipals.require(nativeWebRequest)));
+        return ResponseEntity.ok(res);
+    }
+
+    private static String clientIp(HttpServletRequest req) {
+        if (req == null) {
+            return "unknown";
+        }
+        String forwardedFor = req.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            int comma = forwardedFor.indexOf(',');
+            return (comma > 0) ? forwardedFor.substring(0, comma).trim() : forwardedFor.trim();
+        }
+        String realIp = req.getHeader("X-Real-IP");
+        return (realIp != null && !realIp.isBlank()) ? realIp.trim() : req.getRemoteAddr();
+    }
 }
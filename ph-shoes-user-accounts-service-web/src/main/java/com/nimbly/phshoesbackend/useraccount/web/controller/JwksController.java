@@ -0,0 +1,38 @@
+package com.nimbly.phshoesbackend.useraccount.web.controller;
+
+import com.nimbly.phshoesbackend.useraccount.core.auth.token.SigningKeyRing;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Public keys for verifying access tokens locally (RFC 7517). Kept out of the OpenAPI contract since
+ * the document format is fixed by the RFC. The ETag lets Spring answer a matching If-None-Match with 304.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final SigningKeyRing signingKeys;
+    private final JwtSigningProps props;
+
+    // GET /api/v1/.well-known/jwks.json
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        if (!signingKeys.isAsymmetric()) {
+            return ResponseEntity.notFound().build();
+        }
+        SigningKeyRing.Jwks jwks = signingKeys.jwks(Instant.now());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(props.getJwksMaxAgeSeconds())).cachePublic())
+                .eTag(jwks.etag())
+                .body(jwks.json());
+    }
+}
@@ -1,21 +1,18 @@
 package com.nimbly.phshoesbackend.useraccount.web.controller;
 
-import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.AccountBlockedException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.UserAccountNotificationSendException;
 import com.nimbly.phshoesbackend.useraccount.core.service.SuppressionService;
 import com.nimbly.phshoesbackend.useraccount.core.service.UserAccountsService;
 import com.nimbly.phshoesbackend.useraccount.core.verification.VerificationService;
+import com.nimbly.phshoesbackend.useraccount.web.util.AuthenticatedPrincipals;
 import com.nimbly.phshoesbackend.useraccounts.api.UserAccountsApi;
 import com.nimbly.phshoesbackend.useraccounts.model.CreateUserAccountResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenContentResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.CreateUserAccountRequest;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -30,7 +27,6 @@ public class UserAccountsController implements UserAccountsApi {
     private final UserAccountsService accountService;
     private final VerificationService verificationService;
     private final SuppressionService suppressionService;
-    private final JwtTokenService jwtTokenService;
     private final NativeWebRequest nativeWebRequest;
 
     // POST /api/v1/user-accounts
@@ -70,21 +66,14 @@ public class UserAccountsController implements UserAccountsApi {
 
     @Override
     public ResponseEntity<TokenContentResponse> getTokenContent() {
-        String authorizationHeader = nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION);
-        TokenContentResponse body = accountService.getContentFromToken(authorizationHeader);
+        TokenContentResponse body = accountService.getContentFromToken(AuthenticatedPrincipals.require(nativeWebRequest));
         return ResponseEntity.ok(body);
     }
 
     // DELETE /api/v1/user-accounts  (Bearer)
     @Override
     public ResponseEntity<Void> deleteMyAccount() {
-        String authorizationHeader = nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION);
-        String userId;
-        try {
-            userId = jwtTokenService.userIdFromAuthorizationHeader(authorizationHeader);
-        } catch (JwtVerificationException ex) {
-            throw new InvalidCredentialsException();
-        }
+        String userId = AuthenticatedPrincipals.require(nativeWebRequest).sub();
         accountService.deleteOwnAccount(userId);
         log.info("user.delete completed userId={}", userId);
         return ResponseEntity.noContent().build();
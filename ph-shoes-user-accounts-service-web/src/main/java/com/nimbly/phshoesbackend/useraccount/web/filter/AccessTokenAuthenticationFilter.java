@@ -0,0 +1,49 @@
+package com.nimbly.phshoesbackend.useraccount.web.filter;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
+import com.nimbly.phshoesbackend.useraccount.core.auth.token.AccessTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates bearer tokens through {@link AccessTokenService}; takes the place of the shared
+ * JwtAuthenticationFilter when access tokens are signed with RS256 or ES256. An invalid token leaves
+ * the request anonymous, so protected endpoints answer 401.
+ */
+public class AccessTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AccessTokenService accessTokens;
+
+    public AccessTokenAuthenticationFilter(AccessTokenService accessTokens) {
+        this.accessTokens = accessTokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                DecodedJWT decoded = accessTokens.parseAccess(header.substring(BEARER.length()).trim());
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(decoded.getSubject(), null, List.of()));
+            } catch (JwtVerificationException e) {
+                SecurityContextHolder.clearContext();
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
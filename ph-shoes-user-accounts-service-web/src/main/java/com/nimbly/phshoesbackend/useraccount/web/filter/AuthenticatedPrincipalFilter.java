@@ -0,0 +1,56 @@
+package com.nimbly.phshoesbackend.useraccount.web.filter;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
+import com.nimbly.phshoesbackend.useraccount.web.util.AuthenticatedPrincipals;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Decodes the bearer token once per request into an {@link AuthenticatedPrincipal}. Runs after the JWT
+ * filter and only for requests it authenticated, so the signature is not verified a second time.
+ * Revoked tokens get no principal, so every handler that requires one answers 401.
+ */
+public class AuthenticatedPrincipalFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenRevocationService tokenRevocations;
+
+    public AuthenticatedPrincipalFilter(TokenRevocationService tokenRevocations) {
+        this.tokenRevocations = tokenRevocations;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)
+                && header != null && header.startsWith(BEARER)) {
+            try {
+                AuthenticatedPrincipal principal =
+                        AuthenticatedPrincipal.from(JWT.decode(header.substring(BEARER.length()).trim()));
+                tokenRevocations.ensureNotRevoked(principal);
+                AuthenticatedPrincipals.set(request, principal);
+            } catch (JWTDecodeException e) {
+                // authenticated by something other than one of our JWTs; handlers answer 401
+            } catch (InvalidCredentialsException e) {
+                // logged out, evicted or issued before a log-out-everywhere; handlers answer 401
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
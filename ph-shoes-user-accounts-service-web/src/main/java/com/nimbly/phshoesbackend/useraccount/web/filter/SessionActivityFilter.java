@@ -0,0 +1,38 @@
+package com.nimbly.phshoesbackend.useraccount.web.filter;
+
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.session.SessionLastSeenWriteBehind;
+import com.nimbly.phshoesbackend.useraccount.web.util.AuthenticatedPrincipals;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Records session activity for requests that carry an {@link AuthenticatedPrincipal}; must run after
+ * {@link AuthenticatedPrincipalFilter}.
+ */
+public class SessionActivityFilter extends OncePerRequestFilter {
+
+    private final SessionLastSeenWriteBehind lastSeen;
+
+    public SessionActivityFilter(SessionLastSeenWriteBehind lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (lastSeen.isEnabled()) {
+            AuthenticatedPrincipal principal = AuthenticatedPrincipals.find(request);
+            if (principal != null) {
+                lastSeen.record(principal.sub(), principal.jti(), Instant.now());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
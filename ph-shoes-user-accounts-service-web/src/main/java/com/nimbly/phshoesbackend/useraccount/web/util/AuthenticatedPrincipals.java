@@ -0,0 +1,36 @@
+package com.nimbly.phshoesbackend.useraccount.web.util;
+
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+
+/**
+ * Where the request's {@link AuthenticatedPrincipal} lives once {@code AuthenticatedPrincipalFilter}
+ * has decoded it. Generated API interfaces fix the handler signatures, so controllers read it through
+ * the injected {@link NativeWebRequest}.
+ */
+public final class AuthenticatedPrincipals {
+
+    static final String ATTRIBUTE = AuthenticatedPrincipal.class.getName();
+
+    private AuthenticatedPrincipals() {
+    }
+
+    public static void set(HttpServletRequest request, AuthenticatedPrincipal principal) {
+        request.setAttribute(ATTRIBUTE, principal);
+    }
+
+    public static AuthenticatedPrincipal find(HttpServletRequest request) {
+        return request.getAttribute(ATTRIBUTE) instanceof AuthenticatedPrincipal principal ? principal : null;
+    }
+
+    /** The caller's principal; 401 when the request carried no verified bearer token. */
+    public static AuthenticatedPrincipal require(NativeWebRequest request) {
+        if (request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof AuthenticatedPrincipal principal) {
+            return principal;
+        }
+        throw new InvalidCredentialsException();
+    }
+}
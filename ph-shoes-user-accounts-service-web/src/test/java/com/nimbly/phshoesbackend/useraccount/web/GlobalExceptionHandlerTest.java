@@ -7,6 +7,9 @@ import com.nimbly.phshoesbackend.useraccount.core.config.props.LockoutProps;
 import com.nimbly.phshoesbackend.useraccount.core.exception.AccountBlockedException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.EmailAlreadyRegisteredException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.EmailNotVerifiedException;
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidPageCursorException;
+import com.nimbly.phshoesbackend.useraccount.core.exception.LoginThrottledException;
+import com.nimbly.phshoesbackend.useraccount.core.exception.PasswordHashingBusyException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.VerificationExpiredException;
 import com.nimbly.phshoesbackend.useraccounts.model.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
@@ -98,6 +101,42 @@ class GlobalExceptionHandlerTest {
         assertEquals("ACCOUNT_LOCKED", response.getCode());
     }
 
+    @Test
+    void handleLoginThrottled_returnsTooManyRequests() {
+        // Arrange
+        LoginThrottledException exception = new LoginThrottledException("ip");
+
+        // Act
+        ErrorResponse response = handler.handleLoginThrottled(exception);
+
+        // Assert
+        assertEquals("LOGIN_THROTTLED", response.getCode());
+    }
+
+    @Test
+    void handleInvalidPageCursor_returnsInvalidCursor() {
+        // Arrange
+        InvalidPageCursorException exception = new InvalidPageCursorException("malformed cursor");
+
+        // Act
+        ErrorResponse response = handler.handleInvalidPageCursor(exception);
+
+        // Assert
+        assertEquals("INVALID_CURSOR", response.getCode());
+    }
+
+    @Test
+    void handlePasswordHashingBusy_returnsServerBusy() {
+        // Arrange
+        PasswordHashingBusyException exception = new PasswordHashingBusyException();
+
+        // Act
+        ErrorResponse response = handler.handlePasswordHashingBusy(exception);
+
+        // Assert
+        assertEquals("SERVER_BUSY", response.getCode());
+    }
+
     @Test
     void handleAccountBlocked_returnsUnauthorized() {
         // Arrange
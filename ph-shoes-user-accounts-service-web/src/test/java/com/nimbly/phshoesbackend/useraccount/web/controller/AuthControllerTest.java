@@ -1,12 +1,15 @@
 package com.nimbly.phshoesbackend.useraccount.web.controller;
 
-import com.auth0.jwt.interfaces.Claim;
-import com.auth0.jwt.interfaces.DecodedJWT;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
 import com.nimbly.phshoesbackend.useraccount.core.auth.AuthService;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
 import com.nimbly.phshoesbackend.useraccounts.model.LoginRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.RefreshTokenRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.RevokeSessionsResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.SessionListResponse;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchRequest;
+import com.nimbly.phshoesbackend.useraccounts.model.TokenContentBatchResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenContentResponse;
 import com.nimbly.phshoesbackend.useraccounts.model.TokenResponse;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,12 +19,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
 
 import java.time.Instant;
-import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,7 +34,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,17 +43,17 @@ class AuthControllerTest {
     @Mock
     private AuthService authService;
     @Mock
-    private JwtTokenService jwtTokenService;
-    @Mock
     private NativeWebRequest nativeWebRequest;
     @Mock
     private HttpServletRequest httpServletRequest;
+    @Mock
+    private TokenRevocationService tokenRevocations;
 
     private AuthController controller;
 
     @BeforeEach
     void setUp() {
-        controller = new AuthController(authService, jwtTokenService, nativeWebRequest);
+        controller = new AuthController(authService, nativeWebRequest, tokenRevocations);
     }
 
     @Test
@@ -172,16 +173,8 @@ class AuthControllerTest {
     @Test
     void getContentFromTokenAuth_returnsContent() {
         // Arrange
-        DecodedJWT decoded = mock(DecodedJWT.class);
-        Claim emailClaim = mock(Claim.class);
-
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.parseAccess("token")).thenReturn(decoded);
-        when(decoded.getSubject()).thenReturn("user-1");
-        when(decoded.getClaim("email")).thenReturn(emailClaim);
-        when(emailClaim.asString()).thenReturn("user@example.com");
-        when(decoded.getIssuedAt()).thenReturn(Date.from(Instant.ofEpochSecond(100)));
-        when(decoded.getExpiresAt()).thenReturn(Date.from(Instant.ofEpochSecond(200)));
+        AuthenticatedPrincipal principal = principal("user-1");
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal);
 
         // Act
         ResponseEntity<TokenContentResponse> response = controller.getContentFromTokenAuth();
@@ -193,21 +186,14 @@ class AuthControllerTest {
         assertEquals(Long.valueOf(100L), body.getIat());
         assertEquals(Long.valueOf(200L), body.getExp());
         assertEquals(List.of(), body.getRoles());
+        verify(tokenRevocations).ensureNotRevoked(principal);
     }
 
     @Test
     void getContentFromTokenAuth_handlesMissingDates() {
         // Arrange
-        DecodedJWT decoded = mock(DecodedJWT.class);
-        Claim emailClaim = mock(Claim.class);
-
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.parseAccess("token")).thenReturn(decoded);
-        when(decoded.getSubject()).thenReturn("user-1");
-        when(decoded.getClaim("email")).thenReturn(emailClaim);
-        when(emailClaim.asString()).thenReturn("user@example.com");
-        when(decoded.getIssuedAt()).thenReturn(null);
-        when(decoded.getExpiresAt()).thenReturn(null);
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST))
+                .thenReturn(new AuthenticatedPrincipal("user-1", "user@example.com", "jti-1", null, null, null));
 
         // Act
         ResponseEntity<TokenContentResponse> response = controller.getContentFromTokenAuth();
@@ -216,58 +202,105 @@ class AuthControllerTest {
         TokenContentResponse body = response.getBody();
         assertEquals(Long.valueOf(0L), body.getIat());
         assertEquals(Long.valueOf(0L), body.getExp());
+        assertEquals(List.of(), body.getRoles());
     }
 
     @Test
-    void getContentFromTokenAuth_throwsWhenMissingHeader() {
+    void getContentFromTokenAuth_throwsWhenPrincipalMissing() {
         // Arrange
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn(null);
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(null);
 
         // Act
-        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> controller.getContentFromTokenAuth());
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
+                () -> controller.getContentFromTokenAuth());
 
         // Assert
         assertNotNull(exception);
     }
 
     @Test
-    void getContentFromTokenAuth_throwsWhenHeaderInvalid() {
+    void getContentFromTokensBatch_delegatesTokens() {
         // Arrange
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Basic token");
+        TokenContentBatchRequest request = new TokenContentBatchRequest();
+        request.setTokens(List.of("t1", "t2"));
+        TokenContentBatchResponse batch = new TokenContentBatchResponse();
+        when(authService.introspect(List.of("t1", "t2"))).thenReturn(batch);
 
         // Act
-        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
-                () -> controller.getContentFromTokenAuth());
+        ResponseEntity<TokenContentBatchResponse> response = controller.getContentFromTokensBatch(request);
 
         // Assert
-        assertNotNull(exception);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(batch, response.getBody());
     }
 
     @Test
-    void getContentFromTokenAuth_throwsWhenTokenInvalid() {
+    void authLogout_callsService() {
         // Arrange
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.parseAccess("token"))
-                .thenThrow(new JwtVerificationException("bad", new RuntimeException("boom")));
+        AuthenticatedPrincipal principal = principal("user-1");
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal);
 
         // Act
-        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
-                () -> controller.getContentFromTokenAuth());
+        ResponseEntity<Void> response = controller.authLogout();
 
         // Assert
-        assertNotNull(exception);
+        verify(authService).logout(principal);
+        assertEquals(204, response.getStatusCodeValue());
     }
 
     @Test
-    void authLogout_callsService() {
+    void authListSessions_delegatesWithPrincipal() {
         // Arrange
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
+        AuthenticatedPrincipal principal = principal("user-1");
+        SessionListResponse page = new SessionListResponse();
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal);
+        when(authService.listSessions(principal, 10, "cursor")).thenReturn(page);
 
         // Act
-        ResponseEntity<Void> response = controller.authLogout();
+        ResponseEntity<SessionListResponse> response = controller.authListSessions(10, "cursor");
 
         // Assert
-        verify(authService).logout("Bearer token");
-        assertEquals(204, response.getStatusCodeValue());
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void authRevokeAllSessions_reportsRemovedCount() {
+        // Arrange
+        AuthenticatedPrincipal principal = principal("user-1");
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal);
+        when(authService.logoutAll(principal)).thenReturn(3);
+
+        // Act
+        ResponseEntity<RevokeSessionsResponse> response = controller.authRevokeAllSessions();
+
+        // Assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(3, response.getBody().getRevoked());
+    }
+
+    @Test
+    void authRefresh_passesTokenAndClientDetails() {
+        // Arrange
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("user-1.jti-1.secret");
+        TokenResponse tokenResponse = new TokenResponse();
+        tokenResponse.setAccessToken("token-2");
+
+        when(nativeWebRequest.getNativeRequest(HttpServletRequest.class)).thenReturn(httpServletRequest);
+        when(httpServletRequest.getHeader("X-Forwarded-For")).thenReturn("1.2.3.4");
+        when(httpServletRequest.getHeader("User-Agent")).thenReturn("agent");
+        when(authService.refresh("user-1.jti-1.secret", "1.2.3.4", "agent")).thenReturn(tokenResponse);
+
+        // Act
+        ResponseEntity<TokenResponse> response = controller.authRefresh(request);
+
+        // Assert
+        assertEquals("token-2", response.getBody().getAccessToken());
+    }
+
+    private static AuthenticatedPrincipal principal(String sub) {
+        return new AuthenticatedPrincipal(sub, "user@example.com", "jti-1",
+                Instant.ofEpochSecond(100), Instant.ofEpochSecond(200), List.of());
     }
 }
@@ -0,0 +1,60 @@
+package com.nimbly.phshoesbackend.useraccount.web.controller;
+
+import com.nimbly.phshoesbackend.useraccount.core.auth.token.SigningKeyRing;
+import com.nimbly.phshoesbackend.useraccount.core.config.props.JwtSigningProps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwksControllerTest {
+
+    @Mock
+    private SigningKeyRing signingKeys;
+
+    private JwksController controller;
+
+    @BeforeEach
+    void setUp() {
+        JwtSigningProps props = new JwtSigningProps();
+        props.setJwksMaxAgeSeconds(300);
+        controller = new JwksController(signingKeys, props);
+    }
+
+    @Test
+    void jwks_returnsKeySetWithCacheHeaders() {
+        // Arrange
+        when(signingKeys.isAsymmetric()).thenReturn(true);
+        when(signingKeys.jwks(any(Instant.class))).thenReturn(new SigningKeyRing.Jwks("{\"keys\":[]}", "\"abc\""));
+
+        // Act
+        ResponseEntity<String> response = controller.jwks();
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("{\"keys\":[]}", response.getBody());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void jwks_notFoundInSharedSecretMode() {
+        // Arrange
+        when(signingKeys.isAsymmetric()).thenReturn(false);
+
+        // Act
+        ResponseEntity<String> response = controller.jwks();
+
+        // Assert
+        assertEquals(404, response.getStatusCode().value());
+    }
+}
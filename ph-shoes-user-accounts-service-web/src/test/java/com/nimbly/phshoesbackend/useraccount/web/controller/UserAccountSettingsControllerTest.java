@@ -3,8 +3,7 @@ package com.nimbly.phshoesbackend.useraccount.web.controller;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
 import com.nimbly.phshoesbackend.useraccount.core.service.AccountSettingsService;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,10 +11,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -31,8 +32,6 @@ class UserAccountSettingsControllerTest {
     @Mock
     private AccountSettingsService accountSettingsService;
     @Mock
-    private JwtTokenService jwtTokenService;
-    @Mock
     private NativeWebRequest nativeWebRequest;
 
     private ObjectMapper objectMapper;
@@ -43,7 +42,6 @@ class UserAccountSettingsControllerTest {
         objectMapper = new ObjectMapper();
         controller = new UserAccountSettingsController(
                 accountSettingsService,
-                jwtTokenService,
                 nativeWebRequest,
                 objectMapper
         );
@@ -55,8 +53,7 @@ class UserAccountSettingsControllerTest {
         ObjectNode node = objectMapper.createObjectNode();
         node.put("key", "value");
 
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.userIdFromAuthorizationHeader("Bearer token")).thenReturn("user-1");
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal("user-1"));
         when(accountSettingsService.getOrInit("user-1")).thenReturn(node);
 
         // Act
@@ -68,11 +65,9 @@ class UserAccountSettingsControllerTest {
     }
 
     @Test
-    void getAccountSettings_throwsWhenInvalidToken() {
+    void getAccountSettings_throwsWhenPrincipalMissing() {
         // Arrange
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.userIdFromAuthorizationHeader("Bearer token"))
-                .thenThrow(new JwtVerificationException("bad", null));
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(null);
 
         // Act
         InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> controller.getAccountSettings());
@@ -87,8 +82,7 @@ class UserAccountSettingsControllerTest {
         ObjectNode node = objectMapper.createObjectNode();
         node.put("key", "value");
 
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.userIdFromAuthorizationHeader("Bearer token")).thenReturn("user-1");
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal("user-1"));
         when(accountSettingsService.update(eq("user-1"), any(JsonNode.class))).thenReturn(node);
 
         // Act
@@ -99,14 +93,12 @@ class UserAccountSettingsControllerTest {
     }
 
     @Test
-    void updateAccountSettings_throwsWhenInvalidToken() {
+    void updateAccountSettings_throwsWhenPrincipalMissing() {
         // Arrange
         ObjectNode node = objectMapper.createObjectNode();
         node.put("key", "value");
 
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.userIdFromAuthorizationHeader("Bearer token"))
-                .thenThrow(new JwtVerificationException("bad", null));
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(null);
 
         // Act
         InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> controller.updateAccountSettings(node));
@@ -114,4 +106,9 @@ class UserAccountSettingsControllerTest {
         // Assert
         assertNotNull(exception);
     }
+
+    private static AuthenticatedPrincipal principal(String sub) {
+        return new AuthenticatedPrincipal(sub, "user@example.com", "jti-1",
+                Instant.ofEpochSecond(100), Instant.ofEpochSecond(200), List.of());
+    }
 }
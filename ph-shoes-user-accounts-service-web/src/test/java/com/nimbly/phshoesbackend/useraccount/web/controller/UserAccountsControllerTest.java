@@ -1,7 +1,6 @@
 package com.nimbly.phshoesbackend.useraccount.web.controller;
 
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtTokenService;
-import com.nimbly.phshoesbackend.commons.core.security.jwt.JwtVerificationException;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
 import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.AccountBlockedException;
 import com.nimbly.phshoesbackend.useraccount.core.exception.UserAccountNotificationSendException;
@@ -16,9 +15,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+
+import java.time.Instant;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -37,8 +39,6 @@ class UserAccountsControllerTest {
     @Mock
     private SuppressionService suppressionService;
     @Mock
-    private JwtTokenService jwtTokenService;
-    @Mock
     private NativeWebRequest nativeWebRequest;
 
     private UserAccountsController controller;
@@ -49,7 +49,6 @@ class UserAccountsControllerTest {
                 accountService,
                 verificationService,
                 suppressionService,
-                jwtTokenService,
                 nativeWebRequest
         );
     }
@@ -123,8 +122,9 @@ class UserAccountsControllerTest {
         // Arrange
         TokenContentResponse tokenContentResponse = new TokenContentResponse();
         tokenContentResponse.setSub("user-1");
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(accountService.getContentFromToken("Bearer token")).thenReturn(tokenContentResponse);
+        AuthenticatedPrincipal principal = principal("user-1");
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal);
+        when(accountService.getContentFromToken(principal)).thenReturn(tokenContentResponse);
 
         // Act
         ResponseEntity<TokenContentResponse> response = controller.getTokenContent();
@@ -134,11 +134,9 @@ class UserAccountsControllerTest {
     }
 
     @Test
-    void deleteMyAccount_throwsWhenTokenInvalid() {
+    void deleteMyAccount_throwsWhenPrincipalMissing() {
         // Arrange
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.userIdFromAuthorizationHeader("Bearer token"))
-                .thenThrow(new JwtVerificationException("bad", null));
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(null);
 
         // Act
         InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class, () -> controller.deleteMyAccount());
@@ -150,8 +148,7 @@ class UserAccountsControllerTest {
     @Test
     void deleteMyAccount_deletesWhenValid() {
         // Arrange
-        when(nativeWebRequest.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
-        when(jwtTokenService.userIdFromAuthorizationHeader("Bearer token")).thenReturn("user-1");
+        when(nativeWebRequest.getAttribute(AuthenticatedPrincipal.class.getName(), RequestAttributes.SCOPE_REQUEST)).thenReturn(principal("user-1"));
 
         // Act
         ResponseEntity<Void> response = controller.deleteMyAccount();
@@ -160,4 +157,9 @@ class UserAccountsControllerTest {
         verify(accountService).deleteOwnAccount("user-1");
         assertEquals(204, response.getStatusCodeValue());
     }
+
+    private static AuthenticatedPrincipal principal(String sub) {
+        return new AuthenticatedPrincipal(sub, "user@example.com", "jti-1",
+                Instant.ofEpochSecond(100), Instant.ofEpochSecond(200), List.of());
+    }
 }
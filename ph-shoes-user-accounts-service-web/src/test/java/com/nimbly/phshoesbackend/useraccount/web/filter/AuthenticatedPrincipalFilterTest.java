@@ -0,0 +1,114 @@
+package com.nimbly.phshoesbackend.useraccount.web.filter;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.auth.revocation.TokenRevocationService;
+import com.nimbly.phshoesbackend.useraccount.core.exception.InvalidCredentialsException;
+import com.nimbly.phshoesbackend.useraccount.web.util.AuthenticatedPrincipals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticatedPrincipalFilterTest {
+
+    @Mock
+    private TokenRevocationService tokenRevocations;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_storesPrincipalOfAuthenticatedBearer() throws Exception {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user-1", null, List.of()));
+        String token = JWT.create().withSubject("user-1").withJWTId("sid-1").withClaim("email", "user@example.com")
+                .sign(Algorithm.HMAC256("secret"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/sessions");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        new AuthenticatedPrincipalFilter(tokenRevocations).doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        AuthenticatedPrincipal principal = AuthenticatedPrincipals.find(request);
+        assertNotNull(principal);
+        assertEquals("user-1", principal.sub());
+        assertEquals("sid-1", principal.jti());
+        assertEquals("user@example.com", principal.email());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_skipsUnauthenticatedRequests() throws Exception {
+        // Arrange
+        String token = JWT.create().withSubject("user-1").sign(Algorithm.HMAC256("secret"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/sessions");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        new AuthenticatedPrincipalFilter(tokenRevocations).doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(AuthenticatedPrincipals.find(request));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_ignoresUndecodableBearer() throws Exception {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user-1", null, List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/sessions");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        new AuthenticatedPrincipalFilter(tokenRevocations).doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(AuthenticatedPrincipals.find(request));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_storesNoPrincipal_whenTokenIsRevoked() throws Exception {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user-1", null, List.of()));
+        String token = JWT.create().withSubject("user-1").withJWTId("sid-1").sign(Algorithm.HMAC256("secret"));
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/user-accounts");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        doThrow(new InvalidCredentialsException()).when(tokenRevocations).ensureNotRevoked(any());
+
+        // Act
+        new AuthenticatedPrincipalFilter(tokenRevocations).doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(AuthenticatedPrincipals.find(request));
+        assertNotNull(chain.getRequest());
+    }
+}
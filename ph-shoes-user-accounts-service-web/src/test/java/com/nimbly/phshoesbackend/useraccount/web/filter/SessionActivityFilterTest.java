@@ -0,0 +1,61 @@
+package com.nimbly.phshoesbackend.useraccount.web.filter;
+
+import com.nimbly.phshoesbackend.useraccount.core.auth.AuthenticatedPrincipal;
+import com.nimbly.phshoesbackend.useraccount.core.session.SessionLastSeenWriteBehind;
+import com.nimbly.phshoesbackend.useraccount.web.util.AuthenticatedPrincipals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionActivityFilterTest {
+
+    @Mock
+    private SessionLastSeenWriteBehind lastSeen;
+
+    @Test
+    void doFilter_recordsSessionOfPrincipal() throws Exception {
+        // Arrange
+        when(lastSeen.isEnabled()).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/sessions");
+        AuthenticatedPrincipals.set(request,
+                new AuthenticatedPrincipal("user-1", "user@example.com", "sid-1", null, null, List.of()));
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        new SessionActivityFilter(lastSeen).doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        verify(lastSeen).record(eq("user-1"), eq("sid-1"), any());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_skipsRequestsWithoutPrincipal() throws Exception {
+        // Arrange
+        when(lastSeen.isEnabled()).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        new SessionActivityFilter(lastSeen).doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        verify(lastSeen, never()).record(anyString(), anyString(), any());
+        assertNotNull(chain.getRequest());
+    }
+}